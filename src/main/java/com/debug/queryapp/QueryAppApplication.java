@@ -8,6 +8,8 @@ import org.springframework.context.event.ContextClosedEvent;
 import org.springframework.context.event.EventListener;
 import com.debug.queryapp.connection.DriverLoader;
 import com.debug.queryapp.connection.ConnectionManager;
+import com.debug.queryapp.service.QueryJobManager;
+import com.debug.queryapp.service.ResultHandleManager;
 import java.util.logging.Logger;
 
 /**
@@ -46,6 +48,9 @@ public class QueryAppApplication {
     public void onApplicationEvent(ContextClosedEvent event) {
         LOGGER.info("Application shutting down...");
         try {
+            // Release open cursors before their pools are shut down
+            QueryJobManager.getInstance().shutdown();
+            ResultHandleManager.getInstance().closeAll();
             ConnectionManager.getInstance().closeAllConnections();
             LOGGER.info("All connections closed");
         } catch (Exception e) {
@@ -2,10 +2,17 @@
 
 package com.debug.queryapp.connection;
 
+import com.clickhouse.client.ClickHouseException;
+import com.clickhouse.client.ClickHouseResponse;
+import com.clickhouse.jdbc.ClickHouseStatement;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Metrics;
+import java.io.InputStream;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
@@ -17,7 +24,10 @@ import java.util.logging.Level;
 public class ClickhouseConnection implements DatabaseConnection {
     private static final Logger LOGGER = Logger.getLogger(ClickhouseConnection.class.getName());
 
-    private HikariDataSource dataSource;
+    // Pool names must be unique: they identify the pool in metrics
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+    private LazyDataSource dataSource;
     private String host;
     private int port;
     private String database;
@@ -36,19 +46,30 @@ public class ClickhouseConnection implements DatabaseConnection {
      */
     public ClickhouseConnection(String host, int port, String database,
                                 String username, String password) {
+        this(host, port, database, username, password, new PoolSettings());
+    }
+
+    /**
+     * Create a new ClickHouse connection with pool overrides.
+     *
+     * @param poolSettings Pool sizing, timeouts and driver properties (unset values keep the defaults)
+     */
+    public ClickhouseConnection(String host, int port, String database,
+                                String username, String password, PoolSettings poolSettings) {
         this.host = host;
         this.port = port;
         this.database = database;
         this.username = username;
 
-        initializeDataSource(host, port, database, username, password);
+        initializeDataSource(host, port, database, username, password, poolSettings);
     }
 
     /**
      * Initialize HikariCP connection pool for ClickHouse.
      */
     private void initializeDataSource(String host, int port, String database,
-                                      String username, String password) {
+                                      String username, String password,
+                                      PoolSettings poolSettings) {
         try {
             HikariConfig config = new HikariConfig();
 
@@ -70,16 +91,21 @@ public class ClickhouseConnection implements DatabaseConnection {
             config.setIdleTimeout(600000);             // 10 minutes
             config.setMaxLifetime(1800000);            // 30 minutes
             config.setAutoCommit(true);
-            config.setPoolName("ClickHouse-Pool");
+            config.setPoolName("ClickHouse-Pool-" + database + "-" + POOL_COUNTER.incrementAndGet());
+
+            // Publish pool gauges (active, idle, pending, acquire/usage timers) to Micrometer
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(Metrics.globalRegistry));
 
             // Specify the driver class
             config.setDriverClassName("com.clickhouse.jdbc.ClickHouseDriver");
 
-            // Connection initialization SQL
-            config.setConnectionInitSql("SELECT 1");
+            // Per-connection overrides. No init SQL by default: Hikari already
+            // validates connections with the JDBC4 isValid() check.
+            poolSettings.applyTo(config);
 
-            this.dataSource = new HikariDataSource(config);
-            LOGGER.info("ClickHouse DataSource initialized: " + jdbcUrl);
+            // A lazy pool opens no sockets until the first query
+            this.dataSource = new LazyDataSource(config, poolSettings.isLazy());
+            LOGGER.info("ClickHouse DataSource " + (dataSource.isStarted() ? "initialized: " : "registered (lazy): ") + jdbcUrl);
 
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error initializing ClickHouse DataSource", e);
@@ -100,9 +126,10 @@ public class ClickhouseConnection implements DatabaseConnection {
         try {
             Connection conn = dataSource.getConnection();
 
-            // Create statement with scrollable ResultSet
+            // Results are only ever read front to back, so a forward-only
+            // ResultSet avoids the driver's scrollable-result bookkeeping
             Statement stmt = conn.createStatement(
-                    ResultSet.TYPE_SCROLL_INSENSITIVE,
+                    ResultSet.TYPE_FORWARD_ONLY,
                     ResultSet.CONCUR_READ_ONLY
             );
 
@@ -115,6 +142,116 @@ public class ClickhouseConnection implements DatabaseConnection {
         }
     }
 
+    /**
+     * Execute a parameterized SELECT query through a PreparedStatement.
+     * ClickHouse has no server-side prepared statements; the driver binds the
+     * values client-side with proper type handling and escaping.
+     *
+     * @param sql The exact SQL query with ? placeholders
+     * @param params Values for the placeholders, in order
+     * @return ResultSet with query results
+     * @throws Exception if binding or execution fails
+     */
+    @Override
+    public ResultSet executeQuery(String sql, List<QueryParameter> params) throws Exception {
+        Connection conn = null;
+        Statement stmt = null;
+        try {
+            conn = dataSource.getConnection();
+            stmt = JdbcUtils.createQueryStatement(conn, sql, params);
+
+            LOGGER.info("Executing ClickHouse prepared query: " + sql.substring(0, Math.min(50, sql.length())));
+            return JdbcUtils.executeQuery(stmt, sql);
+
+        } catch (SQLException | IllegalArgumentException e) {
+            JdbcUtils.closeQuietly(null, stmt, conn);
+            throw new Exception("ClickHouse query execution failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Execute a SELECT query with a forward-only ResultSet.
+     * The ClickHouse driver reads the HTTP response incrementally, so rows
+     * are decoded as they arrive instead of being buffered up front.
+     *
+     * @param sql The exact SQL query to execute
+     * @param options Fetch size, row cap and statement callback
+     * @return Forward-only ResultSet
+     * @throws Exception if execution fails
+     */
+    @Override
+    public ResultSet executeStreamingQuery(String sql, QueryOptions options) throws Exception {
+        Connection conn = null;
+        Statement stmt = null;
+        try {
+            long acquireStart = System.nanoTime();
+            conn = dataSource.getConnection();
+            long executeStart = System.nanoTime();
+
+            stmt = JdbcUtils.createQueryStatement(conn, sql, options.getParameters());
+            stmt.setFetchSize(options.getFetchSize());
+            JdbcUtils.applyMaxRows(stmt, options.getMaxRows());
+            // Sent as max_execution_time, so the server stops the query itself
+            JdbcUtils.applyTimeout(stmt, options.getTimeoutSeconds());
+            options.statementCreated(stmt);
+
+            // Execute query WITHOUT MODIFICATION
+            LOGGER.info("Executing ClickHouse streaming query: " + sql.substring(0, Math.min(50, sql.length())));
+            ResultSet rs = JdbcUtils.executeQuery(stmt, sql);
+            options.recordTimings(executeStart - acquireStart, System.nanoTime() - executeStart);
+            return rs;
+
+        } catch (SQLException | IllegalArgumentException e) {
+            JdbcUtils.closeQuietly(null, stmt, conn);
+            throw new Exception("ClickHouse query execution failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Borrow a pooled ClickHouse connection; closing it returns it to the pool.
+     *
+     * @return A pooled JDBC connection
+     * @throws Exception if no connection could be obtained
+     */
+    @Override
+    public Connection openConnection() throws Exception {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new Exception("ClickHouse connection failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Nothing to reset: ClickHouse has no transactions, and over HTTP the server keeps
+     * no session between queries unless a session_id driver property is configured.
+     *
+     * @param conn The borrowed connection, still open
+     */
+    @Override
+    public void resetSession(Connection conn) {
+    }
+
+    /**
+     * Cancel a running ClickHouse query.
+     * The ClickHouse driver implements Statement.cancel() by sending
+     * KILL QUERY WHERE query_id = '...' for the statement's current query_id
+     * on a separate request, so the server stops the query too.
+     *
+     * @param stmt The running statement
+     * @throws Exception if the cancel request fails
+     */
+    @Override
+    public void cancelQuery(Statement stmt) throws Exception {
+        try {
+            String queryId = stmt.unwrap(ClickHouseStatement.class).getRequest().getQueryId().orElse("unknown");
+            LOGGER.info("Killing ClickHouse query: " + queryId);
+            stmt.cancel();
+        } catch (SQLException e) {
+            throw new Exception("ClickHouse KILL QUERY failed: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Execute INSERT, UPDATE, or DELETE statement directly.
      * Query is NOT modified in any way.
@@ -125,8 +262,24 @@ public class ClickhouseConnection implements DatabaseConnection {
      */
     @Override
     public int executeUpdate(String sql) throws Exception {
+        return executeUpdate(sql, 0);
+    }
+
+    /**
+     * Execute INSERT, UPDATE, or DELETE statement with a time limit.
+     * The driver sends the timeout as max_execution_time; the server fails
+     * the query with TIMEOUT_EXCEEDED when it runs longer.
+     *
+     * @param sql The exact SQL statement to execute
+     * @param timeoutSeconds Maximum execution time (0 = no timeout)
+     * @return Number of rows affected
+     * @throws Exception if execution fails or times out
+     */
+    @Override
+    public int executeUpdate(String sql, int timeoutSeconds) throws Exception {
         try (Connection conn = dataSource.getConnection();
              Statement stmt = conn.createStatement()) {
+            JdbcUtils.applyTimeout(stmt, timeoutSeconds);
 
             // Execute update WITHOUT MODIFICATION
             LOGGER.info("Executing ClickHouse update: " + sql.substring(0, Math.min(50, sql.length())));
@@ -137,6 +290,88 @@ public class ClickhouseConnection implements DatabaseConnection {
         }
     }
 
+    /**
+     * Load a file into a table with INSERT INTO table FORMAT CSVWithNames
+     * (TabSeparatedWithNames, JSONEachRow). The file is sent as the request body and
+     * parsed by the server, which matches the named columns to the table.
+     * Blocks of rows the server has already inserted stay inserted if a later row fails.
+     *
+     * @param table Target table, optionally database-qualified
+     * @param format Format of the file
+     * @param in The file contents, streamed to the server (not closed)
+     * @param timeoutSeconds Maximum execution time, including the upload time (0 = none)
+     * @return Number of rows written, from the server's query summary
+     * @throws Exception if the file is malformed or the server rejects it
+     */
+    public long insertFormatted(String table, ImportFormat format, InputStream in, int timeoutSeconds)
+            throws Exception {
+        String sql = "INSERT INTO " + table + " FORMAT " + format.getClickHouseFormat();
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            JdbcUtils.applyTimeout(stmt, timeoutSeconds);
+
+            // The statement's request carries the server, credentials and settings of the pool
+            LOGGER.info("Executing ClickHouse bulk insert: " + sql);
+            try (ClickHouseResponse response = stmt.unwrap(ClickHouseStatement.class).getRequest()
+                    .write()
+                    .query(sql)
+                    .data(in)
+                    .executeAndWait()) {
+                return response.getSummary().getWrittenRows();
+            }
+
+        } catch (ClickHouseException e) {
+            // Keep the server error code (e.g. TIMEOUT_EXCEEDED) where JdbcUtils.isTimeout looks for it
+            throw new Exception("ClickHouse bulk insert failed: " + e.getMessage(),
+                    new SQLException(e.getMessage(), null, e.getErrorCode(), e));
+        } catch (SQLException e) {
+            throw new Exception("ClickHouse bulk insert failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Execute DML statements as one batch.
+     * ClickHouse has no multi-statement transactions, so statements that ran
+     * before a failing one stay applied.
+     *
+     * @param statements The exact SQL statements to execute
+     * @param timeoutSeconds Maximum execution time per chunk (0 = no timeout)
+     * @return Update count per statement
+     * @throws Exception if any statement fails
+     */
+    @Override
+    public int[] executeBatch(List<String> statements, int timeoutSeconds) throws Exception {
+        try (Connection conn = dataSource.getConnection()) {
+            LOGGER.info("Executing ClickHouse batch of " + statements.size() + " statements");
+            return JdbcUtils.executeBatch(conn, statements, false, timeoutSeconds);
+
+        } catch (SQLException e) {
+            throw new Exception("ClickHouse batch execution failed: " + JdbcUtils.describeBatchError(e), e);
+        }
+    }
+
+    /**
+     * Execute one parameterized statement per parameter row as a single batch.
+     * For INSERT INTO t VALUES (?, ...) the driver sends all rows as one block
+     * in a single HTTP request instead of one INSERT per row.
+     *
+     * @param sql The exact SQL statement with ? placeholders
+     * @param rows Values for the placeholders, one list per execution
+     * @param timeoutSeconds Maximum execution time per chunk (0 = no timeout)
+     * @return Update count per parameter row
+     * @throws Exception if binding or execution fails
+     */
+    @Override
+    public int[] executeBatch(String sql, List<List<QueryParameter>> rows, int timeoutSeconds) throws Exception {
+        try (Connection conn = dataSource.getConnection()) {
+            LOGGER.info("Executing ClickHouse batch of " + rows.size() + " rows: " + sql.substring(0, Math.min(50, sql.length())));
+            return JdbcUtils.executeBatch(conn, sql, rows, false, timeoutSeconds);
+
+        } catch (SQLException | IllegalArgumentException e) {
+            throw new Exception("ClickHouse batch execution failed: " + JdbcUtils.describeBatchError(e), e);
+        }
+    }
+
     /**
      * Execute EXPLAIN query for ClickHouse query optimization.
      * ClickHouse uses EXPLAIN to show query processing pipeline.
@@ -147,21 +382,38 @@ public class ClickhouseConnection implements DatabaseConnection {
      */
     @Override
     public ResultSet explainQuery(String sql) throws Exception {
+        return explainQuery(sql, 0);
+    }
+
+    /**
+     * Execute EXPLAIN with a time limit (sent as max_execution_time).
+     *
+     * @param sql The query to analyze
+     * @param timeoutSeconds Maximum execution time (0 = no timeout)
+     * @return ResultSet with query explanation
+     * @throws Exception if execution fails or times out
+     */
+    @Override
+    public ResultSet explainQuery(String sql, int timeoutSeconds) throws Exception {
+        Connection conn = null;
         try {
-            Connection conn = dataSource.getConnection();
+            conn = dataSource.getConnection();
 
             // ClickHouse uses EXPLAIN syntax
             String explainSql = "EXPLAIN " + sql;
 
             Statement stmt = conn.createStatement(
-                    ResultSet.TYPE_SCROLL_INSENSITIVE,
+                    ResultSet.TYPE_FORWARD_ONLY,
                     ResultSet.CONCUR_READ_ONLY
             );
 
+            JdbcUtils.applyTimeout(stmt, timeoutSeconds);
+
             LOGGER.info("Executing EXPLAIN query");
             return stmt.executeQuery(explainSql);
 
         } catch (SQLException e) {
+            JdbcUtils.closeQuietly(null, null, conn);
             throw new Exception("EXPLAIN execution failed: " + e.getMessage(), e);
         }
     }
@@ -199,10 +451,14 @@ public class ClickhouseConnection implements DatabaseConnection {
                 metrics.put("database", "ClickHouse");
                 metrics.put("jdbcUrl", jdbcUrl);
                 metrics.put("poolName", dataSource.getPoolName());
-                metrics.put("maximumPoolSize", dataSource.getMaximumPoolSize());
-                metrics.put("activeConnections", dataSource.getHikariPoolMXBean().getActiveConnections());
-                metrics.put("idleConnections", dataSource.getHikariPoolMXBean().getIdleConnections());
-                metrics.put("totalConnections", dataSource.getHikariPoolMXBean().getTotalConnections());
+                HikariDataSource pool = dataSource.current();
+                metrics.put("poolState", (pool != null) ? "running" : "suspended");
+                if (pool != null) {
+                    metrics.put("maximumPoolSize", pool.getMaximumPoolSize());
+                    metrics.put("activeConnections", pool.getHikariPoolMXBean().getActiveConnections());
+                    metrics.put("idleConnections", pool.getHikariPoolMXBean().getIdleConnections());
+                    metrics.put("totalConnections", pool.getHikariPoolMXBean().getTotalConnections());
+                }
             } catch (Exception e) {
                 LOGGER.log(Level.WARNING, "Error retrieving pool metrics", e);
             }
@@ -217,12 +473,22 @@ public class ClickhouseConnection implements DatabaseConnection {
      */
     @Override
     public void close() throws Exception {
-        if (dataSource != null && !dataSource.isClosed()) {
+        if (dataSource != null) {
             dataSource.close();
             LOGGER.info("ClickHouse DataSource closed");
         }
     }
 
+    @Override
+    public boolean suspendIfIdle(long idleMillis) {
+        return dataSource != null && dataSource.suspendIfIdle(idleMillis);
+    }
+
+    @Override
+    public boolean isPoolStarted() {
+        return dataSource != null && dataSource.isStarted();
+    }
+
     @Override
     public String getDatabaseType() {
         return "ClickHouse";
@@ -232,4 +498,14 @@ public class ClickhouseConnection implements DatabaseConnection {
     public String getJdbcUrl() {
         return jdbcUrl;
     }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getPoolName() {
+        return dataSource.getPoolName();
+    }
 }
@@ -123,14 +123,28 @@ public class ConnectionFactory {
     public static DatabaseConnection createConnection(DatabaseType dbType, String host, int port,
                                                       String database, String username,
                                                       String password) {
+        return createConnection(dbType, host, port, database, username, password, new PoolSettings());
+    }
+
+    /**
+     * Create a database connection with per-connection pool settings.
+     *
+     * @param poolSettings Pool sizing, timeouts and driver properties (null = type defaults)
+     * @return DatabaseConnection instance
+     * @throws IllegalArgumentException if database type is not supported
+     */
+    public static DatabaseConnection createConnection(DatabaseType dbType, String host, int port,
+                                                      String database, String username,
+                                                      String password, PoolSettings poolSettings) {
+        PoolSettings settings = (poolSettings != null) ? poolSettings : new PoolSettings();
         switch (dbType) {
             case POSTGRESQL:
                 LOGGER.info("Creating PostgreSQL connection to " + host + ":" + port);
-                return new PostgresConnection(host, port, database, username, password);
+                return new PostgresConnection(host, port, database, username, password, settings);
 
             case CLICKHOUSE:
                 LOGGER.info("Creating ClickHouse connection to " + host + ":" + port);
-                return new ClickhouseConnection(host, port, database, username, password);
+                return new ClickhouseConnection(host, port, database, username, password, settings);
 
             default:
                 throw new IllegalArgumentException("Unsupported database type: " + dbType);
@@ -160,4 +174,18 @@ public class ConnectionFactory {
         DatabaseType dbType = DatabaseType.fromString(dbTypeString);
         return createConnection(dbType, host, port, database, username, password);
     }
+
+    /**
+     * Create a database connection from string identifiers with pool settings.
+     *
+     * @param poolSettings Pool sizing, timeouts and driver properties (null = type defaults)
+     * @return DatabaseConnection instance
+     * @throws IllegalArgumentException if database type is not recognized
+     */
+    public static DatabaseConnection createConnection(String dbTypeString, String host, int port,
+                                                      String database, String username,
+                                                      String password, PoolSettings poolSettings) {
+        DatabaseType dbType = DatabaseType.fromString(dbTypeString);
+        return createConnection(dbType, host, port, database, username, password, poolSettings);
+    }
 }
@@ -0,0 +1,107 @@
+// src/main/java/com/debug/queryapp/connection/ConnectionLease.java
+
+package com.debug.queryapp.connection;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A claim on a managed connection for the duration of a query.
+ *
+ * While any lease is open, closing the connection through ConnectionManager only
+ * detaches it; the pool is shut down when the last lease is released.
+ * Closing a lease is idempotent. Use {@link #retain()} to hand a separate claim to
+ * work that outlives the current request (open cursors, streams, background jobs).
+ * A lease taken on behalf of a session also counts against that session's
+ * concurrent-query quota until it is released, and a lease holding a pool permit
+ * shares it with the leases retained from it. Work that stays open between requests
+ * without running a query takes an {@link #retainIdle() idle} lease instead, which
+ * only keeps the pool open.
+ */
+public final class ConnectionLease implements AutoCloseable {
+    private final ManagedConnection managed;
+    private final ConnectionSession session;
+    private final AtomicBoolean released = new AtomicBoolean(false);
+    private volatile QueryPermits.Permit permit;
+
+    ConnectionLease(ManagedConnection managed, ConnectionSession session) {
+        this.managed = managed;
+        this.session = session;
+    }
+
+    /**
+     * Attach the pool permit this lease (and leases retained from it) holds.
+     */
+    void attachPermit(QueryPermits.Permit permit) {
+        this.permit = permit;
+    }
+
+    /**
+     * Get the leased connection.
+     */
+    public DatabaseConnection getConnection() {
+        return managed.getConnection();
+    }
+
+    /**
+     * Get the ID the connection is registered under.
+     */
+    public String getConnectionId() {
+        return managed.getConnectionId();
+    }
+
+    /**
+     * Take an additional lease on the same connection.
+     * Always succeeds while this lease is open, even if the connection is being closed.
+     *
+     * @throws IllegalStateException if this lease was already released
+     */
+    public ConnectionLease retain() {
+        if (released.get()) {
+            throw new IllegalStateException("Lease on connection " + getConnectionId() + " was already released");
+        }
+        managed.retain();
+        if (session != null) {
+            session.retainQuery();
+        }
+        ConnectionLease retained = new ConnectionLease(managed, session);
+        QueryPermits.Permit held = permit;
+        if (held != null) {
+            held.retain();
+            retained.attachPermit(held);
+        }
+        return retained;
+    }
+
+    /**
+     * Take an additional lease that only keeps the connection's pool open: it does not
+     * count against the session's quota and holds no pool permit. For holders that
+     * mostly sit idle between requests, such as a paged cursor waiting for its next
+     * page request, so they do not crowd out queries that are actually running.
+     *
+     * @throws IllegalStateException if this lease was already released
+     */
+    public ConnectionLease retainIdle() {
+        if (released.get()) {
+            throw new IllegalStateException("Lease on connection " + getConnectionId() + " was already released");
+        }
+        managed.retain();
+        return new ConnectionLease(managed, null);
+    }
+
+    /**
+     * Release the lease.
+     */
+    @Override
+    public void close() {
+        if (released.compareAndSet(false, true)) {
+            QueryPermits.Permit held = permit;
+            if (held != null) {
+                held.release();
+            }
+            managed.release();
+            if (session != null) {
+                session.endQuery();
+            }
+        }
+    }
+}
@@ -3,6 +3,12 @@
 package com.debug.queryapp.connection;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
@@ -10,6 +16,18 @@ import java.util.logging.Level;
  * Manages active database connections.
  *
  * Allows the user to have multiple connections open simultaneously.
+ * Safe for concurrent use by request threads: lookups are lock-free, while add,
+ * select and close are atomic with respect to each other. Queries hold a
+ * {@link ConnectionLease} so closing a connection never shuts its pool down
+ * underneath an in-flight query.
+ *
+ * Each client session (see {@link ConnectionSession}) has its own current connection
+ * and an optional cap on concurrent queries. A session that has not selected a
+ * connection falls back to the default connection (the first one opened, or the
+ * one selected by a client without a session).
+ *
+ * Pools that have not been used for the configured idle time are shut down by a
+ * background sweeper and restarted transparently by their next query.
  * Implements singleton pattern for application-wide access.
  */
 public class ConnectionManager {
@@ -17,15 +35,38 @@ public class ConnectionManager {
     private static final ConnectionManager INSTANCE = new ConnectionManager();
 
     // Store all active connections with unique IDs
-    private final Map<String, DatabaseConnection> activeConnections = new HashMap<>();
+    private final Map<String, ManagedConnection> activeConnections = new ConcurrentHashMap<>();
+
+    // Default connection for clients that have not selected one
+    private final AtomicReference<String> currentConnectionId = new AtomicReference<>();
+
+    // Per-client selection and running query counts, keyed by session ID
+    private final Map<String, ConnectionSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong lastSessionSweep = new AtomicLong(System.currentTimeMillis());
+    private volatile int maxConcurrentQueriesPerSession = 0;
+    private volatile long sessionIdleMillis = 30 * 60 * 1000L;
 
-    // Currently selected connection
-    private String currentConnectionId = null;
+    // Pools idle for longer than this are shut down until their next query (0 = never)
+    private static final long POOL_SWEEP_INTERVAL_SECONDS = 60;
+    private volatile long poolIdleMillis = 0;
+    private final ScheduledExecutorService poolSweeper;
+
+    // Per-pool cap on concurrent queries (0 = off, HikariCP's own wait applies); shared pools share one
+    private final Map<DatabaseConnection, QueryPermits> poolPermits = new ConcurrentHashMap<>();
+    private volatile int maxConcurrentQueriesPerPool = 0;
+    private volatile long poolQueueTimeoutMillis = 0;
 
     /**
      * Private constructor for singleton pattern.
      */
     private ConnectionManager() {
+        poolSweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "idle-pool-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        poolSweeper.scheduleWithFixedDelay(this::suspendIdlePools,
+                POOL_SWEEP_INTERVAL_SECONDS, POOL_SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
     }
 
     /**
@@ -37,6 +78,40 @@ public class ConnectionManager {
         return INSTANCE;
     }
 
+    /**
+     * Configure per-session limits.
+     *
+     * @param maxConcurrentQueries Maximum queries a session may run at once, 0 = unlimited
+     * @param idleMillis Idle time after which a session's selection is forgotten
+     */
+    public void configureSessions(int maxConcurrentQueries, long idleMillis) {
+        this.maxConcurrentQueriesPerSession = Math.max(0, maxConcurrentQueries);
+        this.sessionIdleMillis = idleMillis;
+    }
+
+    /**
+     * Set how long a connection pool may stay unused before it is shut down.
+     * A suspended pool holds no physical connections and restarts on its next query.
+     *
+     * @param idleMillis Idle time, 0 = never suspend
+     */
+    public void setPoolIdleTimeout(long idleMillis) {
+        this.poolIdleMillis = Math.max(0, idleMillis);
+    }
+
+    /**
+     * Limit the queries running at once against each connection pool.
+     * Further queries wait in a fair queue before they borrow a pooled connection.
+     *
+     * @param maxConcurrentQueries Permits per pool, 0 = no limit
+     * @param queueTimeoutMillis Maximum wait for a permit, 0 = wait indefinitely
+     */
+    public void configurePoolPermits(int maxConcurrentQueries, long queueTimeoutMillis) {
+        this.maxConcurrentQueriesPerPool = Math.max(0, maxConcurrentQueries);
+        this.poolQueueTimeoutMillis = Math.max(0, queueTimeoutMillis);
+        poolPermits.clear();
+    }
+
     /**
      * Add a new connection to the manager.
      * The new connection becomes the current connection.
@@ -45,9 +120,31 @@ public class ConnectionManager {
      * @return Unique ID for this connection
      */
     public String addConnection(DatabaseConnection connection) {
+        return addConnection(null, connection);
+    }
+
+    /**
+     * Add a new connection and make it the session's current connection.
+     * It also becomes the default connection if there is none yet; without a
+     * session it always becomes the default.
+     *
+     * @param sessionId The client session, or null
+     * @param connection The DatabaseConnection to add
+     * @return Unique ID for this connection
+     */
+    public String addConnection(String sessionId, DatabaseConnection connection) {
         String connectionId = UUID.randomUUID().toString();
-        activeConnections.put(connectionId, connection);
-        currentConnectionId = connectionId;
+        ConnectionSession session = getSession(sessionId);
+        // Register and select under the entry's lock so a concurrent close cannot slip in between
+        activeConnections.compute(connectionId, (id, existing) -> {
+            if (session != null) {
+                session.currentConnectionIdRef().set(id);
+                currentConnectionId.compareAndSet(null, id);
+            } else {
+                currentConnectionId.set(id);
+            }
+            return new ManagedConnection(id, connection);
+        });
         LOGGER.info("Connection added with ID: " + connectionId +
                 " (" + connection.getDatabaseType() + ")");
         return connectionId;
@@ -55,12 +152,77 @@ public class ConnectionManager {
 
     /**
      * Get a specific connection by ID.
+     * The connection may be closed at any time; queries should use {@link #lease(String)}.
      *
      * @param connectionId The connection ID
      * @return The DatabaseConnection, or null if not found
      */
     public DatabaseConnection getConnection(String connectionId) {
-        return activeConnections.get(connectionId);
+        ManagedConnection managed = activeConnections.get(connectionId);
+        return (managed != null) ? managed.getConnection() : null;
+    }
+
+    /**
+     * Lease a connection for the duration of a query.
+     * The pool will not be shut down before the lease is closed.
+     *
+     * @param connectionId The connection ID, or null/empty for the current connection
+     * @return An open lease; close it when the query is done
+     * @throws Exception if the connection does not exist or is being closed
+     */
+    public ConnectionLease lease(String connectionId) throws Exception {
+        return lease(null, connectionId);
+    }
+
+    /**
+     * Lease a connection on behalf of a session.
+     * The lease counts against the session's concurrent-query quota until it is closed.
+     *
+     * @param sessionId The client session, or null
+     * @param connectionId The connection ID, or null/empty for the session's current connection
+     * @return An open lease; close it when the query is done
+     * Blocks while the pool is at its concurrent-query limit.
+     *
+     * @throws SessionQuotaExceededException if the session is running too many queries
+     * @throws Exception if the connection does not exist or is being closed, or no pool
+     *                   permit became available in time
+     */
+    public ConnectionLease lease(String sessionId, String connectionId) throws Exception {
+        ConnectionSession session = getSession(sessionId);
+        String id = connectionId;
+        if (id == null || id.isEmpty()) {
+            id = resolveCurrentConnectionId(session);
+            if (id == null) {
+                throw new RuntimeException("No active connection. Please establish a connection first.");
+            }
+        }
+
+        int quota = maxConcurrentQueriesPerSession;
+        if (session != null && !session.tryStartQuery(quota)) {
+            throw new SessionQuotaExceededException(sessionId, quota);
+        }
+
+        ManagedConnection managed = activeConnections.get(id);
+        ConnectionLease lease = (managed != null) ? managed.tryAcquire(session) : null;
+        if (lease == null) {
+            if (session != null) {
+                session.endQuery();
+            }
+            throw new Exception("Connection not found: " + id);
+        }
+
+        int perPool = maxConcurrentQueriesPerPool;
+        if (perPool > 0) {
+            DatabaseConnection conn = managed.getConnection();
+            QueryPermits permits = poolPermits.computeIfAbsent(conn, k -> new QueryPermits(perPool));
+            try {
+                lease.attachPermit(permits.acquire(conn.getPoolName(), poolQueueTimeoutMillis));
+            } catch (Exception e) {
+                lease.close();
+                throw e;
+            }
+        }
+        return lease;
     }
 
     /**
@@ -69,7 +231,9 @@ public class ConnectionManager {
      * @return Map of connection ID to DatabaseConnection
      */
     public Map<String, DatabaseConnection> getAllConnections() {
-        return new HashMap<>(activeConnections);
+        Map<String, DatabaseConnection> connections = new HashMap<>();
+        activeConnections.forEach((id, managed) -> connections.put(id, managed.getConnection()));
+        return connections;
     }
 
     /**
@@ -80,14 +244,26 @@ public class ConnectionManager {
      * @throws RuntimeException if no connection is active
      */
     public DatabaseConnection getCurrentConnection() {
-        if (currentConnectionId == null) {
+        return getCurrentConnection(null);
+    }
+
+    /**
+     * Get the session's current connection (or the default connection).
+     *
+     * @param sessionId The client session, or null
+     * @return The current DatabaseConnection
+     * @throws RuntimeException if no connection is active
+     */
+    public DatabaseConnection getCurrentConnection(String sessionId) {
+        String id = resolveCurrentConnectionId(getSession(sessionId));
+        if (id == null) {
             throw new RuntimeException("No active connection. Please establish a connection first.");
         }
-        DatabaseConnection conn = activeConnections.get(currentConnectionId);
-        if (conn == null) {
+        ManagedConnection managed = activeConnections.get(id);
+        if (managed == null) {
             throw new RuntimeException("Current connection ID is invalid");
         }
-        return conn;
+        return managed.getConnection();
     }
 
     /**
@@ -97,13 +273,31 @@ public class ConnectionManager {
      * @throws IllegalArgumentException if connection ID doesn't exist
      */
     public void setCurrentConnection(String connectionId) {
-        if (!activeConnections.containsKey(connectionId)) {
+        setCurrentConnection(null, connectionId);
+    }
+
+    /**
+     * Set the session's current connection. Other sessions are not affected;
+     * without a session the default connection is changed.
+     *
+     * @param sessionId The client session, or null
+     * @param connectionId The ID of the connection to activate
+     * @throws IllegalArgumentException if connection ID doesn't exist
+     */
+    public void setCurrentConnection(String sessionId, String connectionId) {
+        ConnectionSession session = getSession(sessionId);
+        AtomicReference<String> target = (session != null) ? session.currentConnectionIdRef() : currentConnectionId;
+        // computeIfPresent holds the entry's lock, so the connection cannot be closed mid-select
+        ManagedConnection managed = activeConnections.computeIfPresent(connectionId, (id, existing) -> {
+            target.set(id);
+            return existing;
+        });
+        if (managed == null) {
             throw new IllegalArgumentException("Connection not found: " + connectionId);
         }
-        DatabaseConnection conn = activeConnections.get(connectionId);
-        currentConnectionId = connectionId;
-        LOGGER.info("Current connection changed to: " + connectionId +
-                " (" + conn.getDatabaseType() + ")");
+        LOGGER.info("Current connection" + (session != null ? " of session " + sessionId : "") +
+                " changed to: " + connectionId +
+                " (" + managed.getConnection().getDatabaseType() + ")");
     }
 
     /**
@@ -112,7 +306,8 @@ public class ConnectionManager {
      * @return true if a connection is active
      */
     public boolean hasCurrentConnection() {
-        return currentConnectionId != null && activeConnections.containsKey(currentConnectionId);
+        String id = currentConnectionId.get();
+        return id != null && activeConnections.containsKey(id);
     }
 
     /**
@@ -121,30 +316,114 @@ public class ConnectionManager {
      * @return Current connection ID, or null if none
      */
     public String getCurrentConnectionId() {
-        return currentConnectionId;
+        return currentConnectionId.get();
+    }
+
+    /**
+     * Get the ID of the session's current connection (or the default connection).
+     *
+     * @param sessionId The client session, or null
+     * @return Current connection ID, or null if none
+     */
+    public String getCurrentConnectionId(String sessionId) {
+        return resolveCurrentConnectionId(getSession(sessionId));
+    }
+
+    /**
+     * Get a session's state, creating it on first use.
+     * Idle sessions are discarded along the way.
+     *
+     * @param sessionId The client session, or null
+     * @return The session, or null if sessionId is null/empty
+     */
+    public ConnectionSession getSession(String sessionId) {
+        if (sessionId == null || sessionId.isEmpty()) {
+            return null;
+        }
+        evictIdleSessions();
+        ConnectionSession session = sessions.computeIfAbsent(sessionId, ConnectionSession::new);
+        session.touch();
+        return session;
+    }
+
+    /**
+     * Maximum concurrent queries per session, 0 = unlimited.
+     */
+    public int getMaxConcurrentQueriesPerSession() {
+        return maxConcurrentQueriesPerSession;
+    }
+
+    /**
+     * Get the number of known sessions.
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    private String resolveCurrentConnectionId(ConnectionSession session) {
+        if (session != null) {
+            String id = session.getCurrentConnectionId();
+            if (id != null) {
+                return id;
+            }
+        }
+        return currentConnectionId.get();
+    }
+
+    private void suspendIdlePools() {
+        long idleMillis = poolIdleMillis;
+        if (idleMillis <= 0) {
+            return;
+        }
+        for (ManagedConnection managed : activeConnections.values()) {
+            // Leased connections are in use even if the pool has no borrowed connection right now
+            if (managed.getInFlight() > 0) {
+                continue;
+            }
+            try {
+                managed.getConnection().suspendIfIdle(idleMillis);
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Error suspending idle pool of connection " + managed.getConnectionId(), e);
+            }
+        }
+    }
+
+    private void evictIdleSessions() {
+        long now = System.currentTimeMillis();
+        long last = lastSessionSweep.get();
+        // Sweep at most once a minute; only one caller wins the CAS
+        if (now - last < 60_000 || !lastSessionSweep.compareAndSet(last, now)) {
+            return;
+        }
+        long idleMillis = sessionIdleMillis;
+        sessions.entrySet().removeIf(e -> e.getValue().isExpired(now, idleMillis));
     }
 
     /**
      * Close a specific connection and remove it from the manager.
      * If this was the current connection, the current connection is cleared.
+     * The connection is removed immediately; its pool is shut down once
+     * in-flight queries have released their leases.
      *
      * @param connectionId The ID of the connection to close
      * @throws Exception if close operation fails
      */
     public void closeConnection(String connectionId) throws Exception {
-        DatabaseConnection conn = activeConnections.get(connectionId);
-        if (conn != null) {
+        // Once removed, the entry can no longer be selected or leased
+        ManagedConnection removed = activeConnections.remove(connectionId);
+        if (removed != null) {
+            currentConnectionId.compareAndSet(connectionId, null);
+            for (ConnectionSession session : sessions.values()) {
+                session.currentConnectionIdRef().compareAndSet(connectionId, null);
+            }
+            if (activeConnections.values().stream().noneMatch(m -> m.getConnection() == removed.getConnection())) {
+                poolPermits.remove(removed.getConnection());
+            }
             try {
-                conn.close();
-                LOGGER.info("Connection closed: " + connectionId);
+                removed.requestClose();
             } catch (Exception e) {
                 LOGGER.log(Level.SEVERE, "Error closing connection: " + connectionId, e);
                 throw e;
-            } finally {
-                activeConnections.remove(connectionId);
-                if (connectionId.equals(currentConnectionId)) {
-                    currentConnectionId = null;
-                }
             }
         }
     }
@@ -167,7 +446,7 @@ public class ConnectionManager {
             }
         }
 
-        currentConnectionId = null;
+        currentConnectionId.set(null);
         LOGGER.info("All connections closed");
 
         if (lastException != null) {
@@ -191,16 +470,35 @@ public class ConnectionManager {
      * @return List of connection summaries
      */
     public List<Map<String, String>> getConnectionSummaries() {
+        return getConnectionSummaries(null);
+    }
+
+    /**
+     * Get summary information about all connections, with isCurrent relative to a session.
+     *
+     * @param sessionId The client session, or null
+     * @return List of connection summaries
+     */
+    public List<Map<String, String>> getConnectionSummaries(String sessionId) {
         List<Map<String, String>> summaries = new ArrayList<>();
 
-        for (Map.Entry<String, DatabaseConnection> entry : activeConnections.entrySet()) {
+        String currentId = getCurrentConnectionId(sessionId);
+        for (Map.Entry<String, ManagedConnection> entry : activeConnections.entrySet()) {
             Map<String, String> summary = new LinkedHashMap<>();
             try {
-                DatabaseConnection conn = entry.getValue();
+                DatabaseConnection conn = entry.getValue().getConnection();
                 summary.put("id", entry.getKey());
                 summary.put("database", conn.getDatabaseType());
                 summary.put("jdbcUrl", conn.getJdbcUrl());
-                summary.put("isCurrent", entry.getKey().equals(currentConnectionId) ? "true" : "false");
+                summary.put("isCurrent", entry.getKey().equals(currentId) ? "true" : "false");
+                summary.put("inFlight", String.valueOf(entry.getValue().getInFlight()));
+                summary.put("poolState", conn.isPoolStarted() ? "running" : "suspended");
+                summary.put("sharedPoolRefs", String.valueOf(PoolRegistry.getInstance().getReferenceCount(conn)));
+                QueryPermits permits = poolPermits.get(conn);
+                if (permits != null) {
+                    summary.put("queryPermitsAvailable", String.valueOf(permits.getAvailable()));
+                    summary.put("queryPermitsWaiting", String.valueOf(permits.getWaiting()));
+                }
             } catch (Exception e) {
                 summary.put("error", e.getMessage());
             }
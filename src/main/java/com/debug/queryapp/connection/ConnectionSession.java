@@ -0,0 +1,76 @@
+// src/main/java/com/debug/queryapp/connection/ConnectionSession.java
+
+package com.debug.queryapp.connection;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Per-client state held by ConnectionManager: the connection this client selected
+ * and the number of queries it is currently running.
+ *
+ * Sessions are identified by the X-Session-Id header or the HTTP session, so that
+ * users sharing one instance do not switch each other's current connection.
+ */
+public class ConnectionSession {
+    private final String sessionId;
+    private final AtomicReference<String> currentConnectionId = new AtomicReference<>();
+    private final AtomicInteger runningQueries = new AtomicInteger(0);
+    private volatile long lastAccessTime;
+
+    ConnectionSession(String sessionId) {
+        this.sessionId = sessionId;
+        this.lastAccessTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Count a new query against the session's quota.
+     *
+     * @param maxConcurrent Maximum concurrent queries, 0 = unlimited
+     * @return false if the session is already at its quota
+     */
+    boolean tryStartQuery(int maxConcurrent) {
+        touch();
+        while (true) {
+            int running = runningQueries.get();
+            if (maxConcurrent > 0 && running >= maxConcurrent) {
+                return false;
+            }
+            if (runningQueries.compareAndSet(running, running + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Count work handed off from a query that was already admitted.
+     */
+    void retainQuery() {
+        runningQueries.incrementAndGet();
+    }
+
+    void endQuery() {
+        runningQueries.decrementAndGet();
+        touch();
+    }
+
+    void touch() {
+        lastAccessTime = System.currentTimeMillis();
+    }
+
+    AtomicReference<String> currentConnectionIdRef() {
+        return currentConnectionId;
+    }
+
+    /**
+     * Idle sessions with no running queries can be discarded.
+     */
+    boolean isExpired(long now, long idleMillis) {
+        return runningQueries.get() == 0 && now - lastAccessTime > idleMillis;
+    }
+
+    public String getSessionId() { return sessionId; }
+    public String getCurrentConnectionId() { return currentConnectionId.get(); }
+    public int getRunningQueries() { return runningQueries.get(); }
+    public long getLastAccessTime() { return lastAccessTime; }
+}
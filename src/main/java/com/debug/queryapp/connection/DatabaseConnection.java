@@ -2,7 +2,10 @@
 
 package com.debug.queryapp.connection;
 
+import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -23,6 +26,57 @@ public interface DatabaseConnection {
      */
     ResultSet executeQuery(String sql) throws Exception;
 
+    /**
+     * Execute a parameterized SELECT query through a PreparedStatement.
+     * The SQL is NOT modified; values are bound to its ? placeholders.
+     *
+     * @param sql The exact SQL query with ? placeholders
+     * @param params Values for the placeholders, in order
+     * @return ResultSet with query results
+     * @throws Exception if binding or execution fails
+     */
+    ResultSet executeQuery(String sql, List<QueryParameter> params) throws Exception;
+
+    /**
+     * Execute a SELECT query with a forward-only cursor so rows can be consumed
+     * as they arrive instead of being buffered by the driver.
+     * The caller owns the returned ResultSet and must close it together with its
+     * Statement and Connection (see {@link JdbcUtils#closeQuietly(ResultSet)}).
+     *
+     * @param sql The SQL query string
+     * @param options Fetch size, row cap and statement callback
+     * @return Forward-only ResultSet positioned before the first row
+     * @throws Exception if query execution fails
+     */
+    ResultSet executeStreamingQuery(String sql, QueryOptions options) throws Exception;
+
+    /**
+     * Borrow a JDBC connection from this connection's pool, for work that needs
+     * several statements on the same session. Closing it returns it to the pool.
+     *
+     * @return A pooled JDBC connection
+     * @throws Exception if no connection could be obtained
+     */
+    Connection openConnection() throws Exception;
+
+    /**
+     * Undo session state that ad-hoc statements (a script's BEGIN, SET, temporary
+     * tables) may have left on a connection from {@link #openConnection()},
+     * before it goes back to the pool. Errors are logged, not thrown.
+     *
+     * @param conn The borrowed connection, still open
+     */
+    void resetSession(Connection conn);
+
+    /**
+     * Cancel a statement that is currently executing on this connection's pool.
+     * PostgreSQL sends a protocol-level cancel request; ClickHouse kills the query by its query_id.
+     *
+     * @param stmt The running statement
+     * @throws Exception if the cancel request fails
+     */
+    void cancelQuery(Statement stmt) throws Exception;
+
     /**
      * Execute an INSERT, UPDATE, or DELETE statement without modifications.
      *
@@ -32,6 +86,41 @@ public interface DatabaseConnection {
      */
     int executeUpdate(String sql) throws Exception;
 
+    /**
+     * Execute an INSERT, UPDATE, or DELETE statement with a time limit.
+     *
+     * @param sql The SQL statement
+     * @param timeoutSeconds Maximum execution time (0 = no timeout)
+     * @return Number of rows affected
+     * @throws Exception if execution fails or times out (see {@link JdbcUtils#isTimeout(Throwable)})
+     */
+    int executeUpdate(String sql, int timeoutSeconds) throws Exception;
+
+    /**
+     * Execute INSERT, UPDATE, or DELETE statements as one JDBC batch
+     * (addBatch/executeBatch) on a single pooled connection.
+     * Where the database supports it the batch runs in one transaction and is
+     * rolled back as a whole if any statement fails.
+     *
+     * @param statements The exact SQL statements, in order
+     * @param timeoutSeconds Maximum execution time per chunk of the batch (0 = no timeout)
+     * @return Update count per statement ({@link Statement#SUCCESS_NO_INFO} if the driver reports none)
+     * @throws Exception if any statement fails
+     */
+    int[] executeBatch(List<String> statements, int timeoutSeconds) throws Exception;
+
+    /**
+     * Execute one parameterized statement once per parameter row as a single JDBC batch.
+     * Same transaction semantics as {@link #executeBatch(List, int)}.
+     *
+     * @param sql The exact SQL statement with ? placeholders
+     * @param rows Values for the placeholders, one list per execution
+     * @param timeoutSeconds Maximum execution time per chunk of the batch (0 = no timeout)
+     * @return Update count per parameter row ({@link Statement#SUCCESS_NO_INFO} if the driver reports none)
+     * @throws Exception if binding or any execution fails
+     */
+    int[] executeBatch(String sql, List<List<QueryParameter>> rows, int timeoutSeconds) throws Exception;
+
     /**
      * Execute EXPLAIN ANALYZE (PostgreSQL) or EXPLAIN (ClickHouse) query.
      * Database-specific implementation.
@@ -42,6 +131,16 @@ public interface DatabaseConnection {
      */
     ResultSet explainQuery(String sql) throws Exception;
 
+    /**
+     * Execute EXPLAIN (ANALYZE) with a time limit; PostgreSQL's EXPLAIN ANALYZE runs the query.
+     *
+     * @param sql The SQL query to analyze
+     * @param timeoutSeconds Maximum execution time (0 = no timeout)
+     * @return ResultSet containing the execution plan
+     * @throws Exception if execution fails or times out
+     */
+    ResultSet explainQuery(String sql, int timeoutSeconds) throws Exception;
+
     /**
      * Test the connection to the database.
      *
@@ -64,6 +163,20 @@ public interface DatabaseConnection {
      */
     void close() throws Exception;
 
+    /**
+     * Shut the connection pool down if it has not been used for the given time.
+     * The pool is recreated transparently by the next query.
+     *
+     * @param idleMillis Minimum time since the pool was last used
+     * @return true if the pool was shut down
+     */
+    boolean suspendIfIdle(long idleMillis);
+
+    /**
+     * Check whether the connection pool is running (false while lazy or suspended).
+     */
+    boolean isPoolStarted();
+
     /**
      * Get the type of this database connection.
      *
@@ -77,4 +190,18 @@ public interface DatabaseConnection {
      * @return The JDBC connection URL
      */
     String getJdbcUrl();
+
+    /**
+     * Get the database user this connection authenticates as.
+     *
+     * @return The username
+     */
+    String getUsername();
+
+    /**
+     * Get the name of this connection's pool, as used to tag its metrics.
+     *
+     * @return The pool name
+     */
+    String getPoolName();
 }
@@ -0,0 +1,51 @@
+// src/main/java/com/debug/queryapp/connection/ImportFormat.java
+
+package com.debug.queryapp.connection;
+
+import java.util.Locale;
+
+/**
+ * File formats accepted by the bulk import.
+ * The first line (CSV/TSV header, or the first NDJSON object's keys) names the
+ * target columns, in the order the values appear.
+ */
+public enum ImportFormat {
+    CSV("CSVWithNames"),
+    TSV("TabSeparatedWithNames"),
+    NDJSON("JSONEachRow");
+
+    private final String clickHouseFormat;
+
+    ImportFormat(String clickHouseFormat) {
+        this.clickHouseFormat = clickHouseFormat;
+    }
+
+    /**
+     * ClickHouse input format that reads this file as-is.
+     */
+    public String getClickHouseFormat() {
+        return clickHouseFormat;
+    }
+
+    /**
+     * Convert a format name (csv, tsv, ndjson; case-insensitive) to an ImportFormat.
+     *
+     * @return The format, or null if the name is not supported
+     */
+    public static ImportFormat fromName(String name) {
+        if (name == null) {
+            return null;
+        }
+        switch (name.trim().toLowerCase(Locale.ROOT)) {
+            case "csv":
+                return CSV;
+            case "tsv":
+                return TSV;
+            case "ndjson":
+            case "jsonl":
+                return NDJSON;
+            default:
+                return null;
+        }
+    }
+}
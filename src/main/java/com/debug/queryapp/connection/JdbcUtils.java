@@ -0,0 +1,327 @@
+// src/main/java/com/debug/queryapp/connection/JdbcUtils.java
+
+package com.debug.queryapp.connection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.logging.Level;
+
+/**
+ * Helpers for releasing JDBC resources handed out by DatabaseConnection implementations.
+ */
+public final class JdbcUtils {
+    private static final Logger LOGGER = Logger.getLogger(JdbcUtils.class.getName());
+
+    // Statements sent to the driver per executeBatch() call
+    public static final int BATCH_CHUNK_SIZE = 1000;
+
+    private static final String PG_QUERY_CANCELED = "57014";
+    private static final int CLICKHOUSE_TIMEOUT_EXCEEDED = 159;
+
+    private JdbcUtils() {
+    }
+
+    /**
+     * Create a forward-only, read-only statement for a query: a PreparedStatement with
+     * the parameters bound if there are any (params non-null), a plain Statement otherwise.
+     */
+    public static Statement createQueryStatement(Connection conn, String sql,
+                                                 List<QueryParameter> params) throws SQLException {
+        if (params == null) {
+            return conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        }
+        PreparedStatement ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        try {
+            bindParameters(ps, params);
+        } catch (SQLException | RuntimeException e) {
+            closeQuietly(null, ps, null);
+            throw e;
+        }
+        return ps;
+    }
+
+    /**
+     * Run a statement from {@link #createQueryStatement(Connection, String, List)}.
+     */
+    public static ResultSet executeQuery(Statement stmt, String sql) throws SQLException {
+        return (stmt instanceof PreparedStatement)
+                ? ((PreparedStatement) stmt).executeQuery()
+                : stmt.executeQuery(sql);
+    }
+
+    /**
+     * Commit the transaction a streaming query's cursor runs in, once its rows have been read.
+     * PostgreSQL cursors need autocommit off, and the pool rolls back what is left open, which
+     * would undo the side effects of INSERT ... RETURNING, writable CTEs or volatile functions.
+     * Does nothing on a connection in autocommit mode. The ResultSet stays open.
+     */
+    public static void commit(ResultSet rs) throws SQLException {
+        Connection conn = rs.getStatement().getConnection();
+        if (!conn.getAutoCommit()) {
+            conn.commit();
+        }
+    }
+
+    /**
+     * Bind parameters to placeholders 1..n in order.
+     */
+    public static void bindParameters(PreparedStatement ps, List<QueryParameter> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            params.get(i).bind(ps, i + 1);
+        }
+    }
+
+    /**
+     * Run SQL statements as a batch, sending them to the driver in chunks of
+     * {@link #BATCH_CHUNK_SIZE} so the pending batch stays bounded.
+     *
+     * @param transactional Run all chunks in one transaction, rolled back on failure
+     * @param timeoutSeconds Timeout per executeBatch() call (0 = none)
+     * @return Update count per statement
+     */
+    public static int[] executeBatch(Connection conn, List<String> statements,
+                                     boolean transactional, int timeoutSeconds) throws SQLException {
+        boolean autoCommit = beginBatch(conn, transactional);
+        try (Statement stmt = conn.createStatement()) {
+            applyTimeout(stmt, timeoutSeconds);
+            int[] counts = new int[statements.size()];
+            int done = 0;
+            for (String sql : statements) {
+                stmt.addBatch(sql);
+                if ((done + 1) % BATCH_CHUNK_SIZE == 0) {
+                    flushBatch(stmt, counts, done + 1 - BATCH_CHUNK_SIZE);
+                }
+                done++;
+            }
+            if (done % BATCH_CHUNK_SIZE != 0) {
+                flushBatch(stmt, counts, done - done % BATCH_CHUNK_SIZE);
+            }
+            endBatch(conn, transactional, autoCommit, true);
+            return counts;
+        } catch (SQLException | RuntimeException e) {
+            endBatch(conn, transactional, autoCommit, false);
+            throw e;
+        }
+    }
+
+    /**
+     * Run one prepared statement once per parameter row as a batch, chunked like
+     * {@link #executeBatch(Connection, List, boolean, int)}.
+     *
+     * @param transactional Run all chunks in one transaction, rolled back on failure
+     * @param timeoutSeconds Timeout per executeBatch() call (0 = none)
+     * @return Update count per parameter row
+     */
+    public static int[] executeBatch(Connection conn, String sql, List<List<QueryParameter>> rows,
+                                     boolean transactional, int timeoutSeconds) throws SQLException {
+        boolean autoCommit = beginBatch(conn, transactional);
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            applyTimeout(ps, timeoutSeconds);
+            int[] counts = new int[rows.size()];
+            int done = 0;
+            for (List<QueryParameter> row : rows) {
+                bindParameters(ps, row);
+                ps.addBatch();
+                if ((done + 1) % BATCH_CHUNK_SIZE == 0) {
+                    flushBatch(ps, counts, done + 1 - BATCH_CHUNK_SIZE);
+                }
+                done++;
+            }
+            if (done % BATCH_CHUNK_SIZE != 0) {
+                flushBatch(ps, counts, done - done % BATCH_CHUNK_SIZE);
+            }
+            endBatch(conn, transactional, autoCommit, true);
+            return counts;
+        } catch (SQLException | RuntimeException e) {
+            endBatch(conn, transactional, autoCommit, false);
+            throw e;
+        }
+    }
+
+    /**
+     * Error message for a failed batch. pgJDBC reports only "Batch entry N was aborted"
+     * and chains the server's error as the next exception, so that is appended.
+     */
+    public static String describeBatchError(Exception e) {
+        String message = e.getMessage();
+        if (e instanceof SQLException) {
+            SQLException next = ((SQLException) e).getNextException();
+            if (next != null && next.getMessage() != null && (message == null || !message.contains(next.getMessage()))) {
+                message = message + " (" + next.getMessage() + ")";
+            }
+        }
+        return message;
+    }
+
+    private static boolean beginBatch(Connection conn, boolean transactional) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        if (transactional && autoCommit) {
+            conn.setAutoCommit(false);
+        }
+        return autoCommit;
+    }
+
+    private static void endBatch(Connection conn, boolean transactional, boolean autoCommit,
+                                 boolean success) throws SQLException {
+        if (!transactional) {
+            return;
+        }
+        try {
+            if (success) {
+                conn.commit();
+            } else {
+                conn.rollback();
+            }
+        } catch (SQLException e) {
+            if (success) {
+                throw e;
+            }
+            LOGGER.log(Level.WARNING, "Error rolling back batch", e);
+        } finally {
+            if (autoCommit) {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static void flushBatch(Statement stmt, int[] counts, int offset) throws SQLException {
+        int[] chunk = stmt.executeBatch();
+        System.arraycopy(chunk, 0, counts, offset, Math.min(chunk.length, counts.length - offset));
+    }
+
+    /**
+     * Close a ResultSet together with its Statement and Connection.
+     * Resources are closed in order: ResultSet -> Statement -> Connection,
+     * which returns the connection to the pool. Errors are logged, not thrown.
+     *
+     * @param rs The ResultSet to close (may be null)
+     */
+    public static void closeQuietly(ResultSet rs) {
+        if (rs == null) {
+            return;
+        }
+
+        Statement stmt = null;
+        Connection conn = null;
+        try {
+            stmt = rs.getStatement();
+            conn = (stmt != null) ? stmt.getConnection() : null;
+        } catch (Exception e) {
+            LOGGER.log(Level.FINE, "Unable to resolve statement for ResultSet", e);
+        }
+
+        closeQuietly(rs, stmt, conn);
+    }
+
+    /**
+     * Close the given JDBC resources in order, ignoring nulls and logging failures.
+     */
+    public static void closeQuietly(ResultSet rs, Statement stmt, Connection conn) {
+        if (rs != null) {
+            try {
+                rs.close();
+            } catch (Exception e) {
+                LOGGER.log(Level.FINE, "Error closing ResultSet", e);
+            }
+        }
+        if (stmt != null) {
+            try {
+                stmt.close();
+            } catch (Exception e) {
+                LOGGER.log(Level.FINE, "Error closing Statement", e);
+            }
+        }
+        if (conn != null) {
+            try {
+                conn.close(); // Return connection to pool
+            } catch (Exception e) {
+                LOGGER.log(Level.FINE, "Error closing Connection", e);
+            }
+        }
+    }
+
+    /**
+     * Apply a row cap to a statement so the driver (and, where supported, the server)
+     * stops producing rows once it is reached. Caps beyond int range use setLargeMaxRows,
+     * which not every driver implements; in that case the cap is left to the reader.
+     *
+     * @param stmt The statement, before execution
+     * @param maxRows Row cap (0 or negative = no cap)
+     */
+    public static void applyMaxRows(Statement stmt, long maxRows) throws SQLException {
+        if (maxRows <= 0) {
+            return;
+        }
+        if (maxRows <= Integer.MAX_VALUE) {
+            stmt.setMaxRows((int) maxRows);
+            return;
+        }
+        try {
+            stmt.setLargeMaxRows(maxRows);
+        } catch (SQLException | UnsupportedOperationException e) {
+            LOGGER.log(Level.FINE, "Driver does not support setLargeMaxRows", e);
+        }
+    }
+
+    /**
+     * Limit how long a statement may run. pgJDBC cancels the statement on the server
+     * once the timeout expires; the ClickHouse driver sends it as the max_execution_time
+     * setting, which the server enforces itself.
+     *
+     * @param stmt The statement, before execution
+     * @param timeoutSeconds Timeout (0 or negative = no timeout)
+     */
+    public static void applyTimeout(Statement stmt, int timeoutSeconds) throws SQLException {
+        if (timeoutSeconds > 0) {
+            stmt.setQueryTimeout(timeoutSeconds);
+        }
+    }
+
+    /**
+     * Check whether a failure was caused by a query timeout: a SQLTimeoutException,
+     * PostgreSQL's query_canceled (SQLState 57014, raised by statement_timeout and by the
+     * driver's timeout cancel) or ClickHouse's TIMEOUT_EXCEEDED (error code 159).
+     * Causes are followed, so wrapped exceptions are recognized too.
+     * An explicit Statement.cancel() also ends with 57014, so callers that cancel
+     * queries themselves must check for that first.
+     */
+    public static boolean isTimeout(Throwable e) {
+        for (Throwable t = e; t != null; t = (t.getCause() != t) ? t.getCause() : null) {
+            if (t instanceof SQLTimeoutException) {
+                return true;
+            }
+            if (t instanceof SQLException) {
+                SQLException sqlException = (SQLException) t;
+                if (PG_QUERY_CANCELED.equals(sqlException.getSQLState())
+                        || sqlException.getErrorCode() == CLICKHOUSE_TIMEOUT_EXCEEDED) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Cancel a running statement, ignoring errors.
+     * Used when a consumer stops reading before the result is exhausted.
+     */
+    public static void cancelQuietly(ResultSet rs) {
+        if (rs == null) {
+            return;
+        }
+        try {
+            Statement stmt = rs.getStatement();
+            if (stmt != null && !stmt.isClosed()) {
+                stmt.cancel();
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.FINE, "Error cancelling statement", e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+// src/main/java/com/debug/queryapp/connection/LazyDataSource.java
+
+package com.debug.queryapp.connection;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.logging.Logger;
+
+/**
+ * A HikariCP pool that is started on first use and can be shut down while idle.
+ *
+ * The pool configuration is kept, so a suspended pool is recreated transparently
+ * by the next getConnection(). Suspending only happens when no connection is
+ * borrowed and nobody is waiting for one.
+ */
+class LazyDataSource {
+    private static final Logger LOGGER = Logger.getLogger(LazyDataSource.class.getName());
+
+    private final HikariConfig config;
+    private HikariDataSource dataSource;
+    private boolean closed = false;
+    private volatile long lastUsedTime;
+
+    /**
+     * @param config Complete pool configuration
+     * @param lazy If false the pool is started right away
+     */
+    LazyDataSource(HikariConfig config, boolean lazy) throws SQLException {
+        this.config = config;
+        this.lastUsedTime = System.currentTimeMillis();
+        if (!lazy) {
+            start();
+        }
+    }
+
+    /**
+     * Borrow a connection, starting the pool if it is not running.
+     */
+    Connection getConnection() throws SQLException {
+        return start().getConnection();
+    }
+
+    /**
+     * Start the pool if needed and mark it as used.
+     *
+     * @return The running pool
+     * @throws SQLException if the data source has been closed for good
+     */
+    synchronized HikariDataSource start() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool " + config.getPoolName() + " is closed");
+        }
+        lastUsedTime = System.currentTimeMillis();
+        if (dataSource == null) {
+            dataSource = new HikariDataSource(config);
+            LOGGER.info("Connection pool started: " + config.getPoolName());
+        }
+        return dataSource;
+    }
+
+    /**
+     * Shut the pool down if it has been unused for the given time.
+     *
+     * @param idleMillis Minimum time since the last borrow
+     * @return true if the pool was shut down
+     */
+    synchronized boolean suspendIfIdle(long idleMillis) {
+        if (dataSource == null || System.currentTimeMillis() - lastUsedTime < idleMillis) {
+            return false;
+        }
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool != null && (pool.getActiveConnections() > 0 || pool.getThreadsAwaitingConnection() > 0)) {
+            return false;
+        }
+        dataSource.close();
+        dataSource = null;
+        LOGGER.info("Connection pool suspended after being idle: " + config.getPoolName());
+        return true;
+    }
+
+    /**
+     * The running pool, or null if it has not been started or is suspended.
+     */
+    synchronized HikariDataSource current() {
+        return dataSource;
+    }
+
+    synchronized boolean isStarted() {
+        return dataSource != null;
+    }
+
+    String getPoolName() {
+        return config.getPoolName();
+    }
+
+    long getLastUsedTime() {
+        return lastUsedTime;
+    }
+
+    /**
+     * Close the pool for good; later getConnection() calls fail.
+     */
+    synchronized void close() {
+        closed = true;
+        if (dataSource != null && !dataSource.isClosed()) {
+            dataSource.close();
+        }
+        dataSource = null;
+    }
+}
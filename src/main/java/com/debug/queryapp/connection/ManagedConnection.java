@@ -0,0 +1,105 @@
+// src/main/java/com/debug/queryapp/connection/ManagedConnection.java
+
+package com.debug.queryapp.connection;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import java.util.logging.Level;
+
+/**
+ * A registered connection together with its count of in-flight leases.
+ *
+ * The lease count and the "closing" flag live in a single atomic int so that
+ * acquiring a lease and requesting a close can never interleave: once closing is
+ * set no new lease is granted, and the pool is closed by whichever side sees the
+ * count drop to zero.
+ */
+class ManagedConnection {
+    private static final Logger LOGGER = Logger.getLogger(ManagedConnection.class.getName());
+
+    private static final int CLOSING = 1 << 30;
+
+    private final String connectionId;
+    private final DatabaseConnection connection;
+    private final AtomicInteger state = new AtomicInteger(0);
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    ManagedConnection(String connectionId, DatabaseConnection connection) {
+        this.connectionId = connectionId;
+        this.connection = connection;
+    }
+
+    String getConnectionId() { return connectionId; }
+    DatabaseConnection getConnection() { return connection; }
+
+    /**
+     * Number of leases currently held.
+     */
+    int getInFlight() {
+        return state.get() & ~CLOSING;
+    }
+
+    /**
+     * Grant a new lease unless a close has been requested.
+     *
+     * @param session Session the lease is counted against, or null
+     * @return the lease, or null if the connection is closing
+     */
+    ConnectionLease tryAcquire(ConnectionSession session) {
+        while (true) {
+            int s = state.get();
+            if ((s & CLOSING) != 0) {
+                return null;
+            }
+            if (state.compareAndSet(s, s + 1)) {
+                return new ConnectionLease(this, session);
+            }
+        }
+    }
+
+    /**
+     * Add a lease on behalf of a holder of an existing one.
+     */
+    void retain() {
+        state.incrementAndGet();
+    }
+
+    void release() {
+        if (state.decrementAndGet() == CLOSING) {
+            try {
+                closeNow();
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, "Error closing connection: " + connectionId, e);
+            }
+        }
+    }
+
+    /**
+     * Request a close. The pool is closed immediately if no lease is held,
+     * otherwise when the last lease is released.
+     *
+     * @return true if the pool was closed right away
+     * @throws Exception if closing the pool fails
+     */
+    boolean requestClose() throws Exception {
+        int s = state.getAndUpdate(v -> v | CLOSING);
+        if ((s & CLOSING) != 0) {
+            return false;
+        }
+        if (s == 0) {
+            closeNow();
+            return true;
+        }
+        LOGGER.info("Connection " + connectionId + " will close after " + s + " in-flight queries finish");
+        return false;
+    }
+
+    private void closeNow() throws Exception {
+        if (closed.compareAndSet(false, true)) {
+            // The pool itself may be shared with other connections opened with the same parameters
+            PoolRegistry.getInstance().release(connection);
+            LOGGER.info("Connection closed: " + connectionId);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+// src/main/java/com/debug/queryapp/connection/PoolRegistry.java
+
+package com.debug.queryapp.connection;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Shares connection pools between connections opened with identical parameters.
+ *
+ * Pools are keyed by normalized parameters (database type, host, port, database,
+ * user, a digest of the password and the pool settings) and reference counted:
+ * a duplicate connect reuses the warm pool, and the pool is closed when the last
+ * connection using it is released.
+ * Implements singleton pattern for application-wide access.
+ */
+public class PoolRegistry {
+    private static final Logger LOGGER = Logger.getLogger(PoolRegistry.class.getName());
+    private static final PoolRegistry INSTANCE = new PoolRegistry();
+
+    private final Map<String, PooledEntry> pools = new ConcurrentHashMap<>();
+
+    // Reverse lookup for release(); DatabaseConnection uses identity equality
+    private final Map<DatabaseConnection, String> keys = new ConcurrentHashMap<>();
+
+    private final List<Consumer<DatabaseConnection>> closeListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Private constructor for singleton pattern.
+     */
+    private PoolRegistry() {
+    }
+
+    /**
+     * Get the singleton instance of PoolRegistry.
+     *
+     * @return The PoolRegistry instance
+     */
+    public static PoolRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the pool for these parameters, creating it if none exists yet.
+     * Every call must be paired with {@link #release(DatabaseConnection)}.
+     *
+     * @param poolSettings Pool sizing, timeouts and driver properties (null = type defaults)
+     * @return A new or shared DatabaseConnection
+     * @throws IllegalArgumentException if database type is not recognized
+     */
+    public DatabaseConnection acquire(String dbTypeString, String host, int port,
+                                      String database, String username,
+                                      String password, PoolSettings poolSettings) {
+        ConnectionFactory.DatabaseType dbType = ConnectionFactory.DatabaseType.fromString(dbTypeString);
+        PoolSettings settings = (poolSettings != null) ? poolSettings : new PoolSettings();
+        String key = key(dbType, host, port, database, username, password, settings);
+
+        // Only the entry is created under the map lock; the first caller for a key connects
+        // outside it, and concurrent callers with the same key wait for that pool
+        PooledEntry created = new PooledEntry();
+        PooledEntry entry = pools.compute(key, (k, existing) -> {
+            if (existing != null) {
+                existing.refs++;
+                return existing;
+            }
+            return created;
+        });
+
+        if (entry != created) {
+            DatabaseConnection shared = entry.await();
+            LOGGER.info("Reusing pool " + shared.getPoolName() + " (" + entry.refs + " connections)");
+            return shared;
+        }
+        try {
+            DatabaseConnection connection = ConnectionFactory.createConnection(
+                    dbType, host, port, database, username, password, settings);
+            keys.put(connection, key);
+            created.pool.complete(connection);
+            return connection;
+        } catch (RuntimeException | Error e) {
+            pools.remove(key, created);
+            created.pool.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Register a callback run after a pool has been closed, e.g. to drop
+     * per-pool state such as metrics.
+     */
+    public void addCloseListener(Consumer<DatabaseConnection> listener) {
+        closeListeners.add(listener);
+    }
+
+    /**
+     * Release one reference to a pool; the pool is closed when the last reference goes.
+     * Connections that were not obtained from the registry are closed directly.
+     *
+     * @throws Exception if closing the pool fails
+     */
+    public void release(DatabaseConnection connection) throws Exception {
+        String key = keys.get(connection);
+        if (key == null) {
+            connection.close();
+            fireClosed(connection);
+            return;
+        }
+
+        boolean[] last = {false};
+        pools.computeIfPresent(key, (k, entry) -> {
+            if (entry.connection() != connection) {
+                return entry;
+            }
+            if (--entry.refs > 0) {
+                return entry;
+            }
+            last[0] = true;
+            keys.remove(connection);
+            return null;
+        });
+
+        if (last[0]) {
+            connection.close();
+            LOGGER.info("Pool closed: " + connection.getPoolName());
+            fireClosed(connection);
+        }
+    }
+
+    private void fireClosed(DatabaseConnection connection) {
+        for (Consumer<DatabaseConnection> listener : closeListeners) {
+            try {
+                listener.accept(connection);
+            } catch (RuntimeException e) {
+                LOGGER.warning("Pool close listener failed for " + connection.getPoolName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Number of distinct pools currently open through the registry.
+     */
+    public int getPoolCount() {
+        return pools.size();
+    }
+
+    /**
+     * Number of connections sharing the given connection's pool (0 if not registered).
+     */
+    public int getReferenceCount(DatabaseConnection connection) {
+        String key = keys.get(connection);
+        PooledEntry entry = (key != null) ? pools.get(key) : null;
+        return (entry != null && entry.connection() == connection) ? entry.refs : 0;
+    }
+
+    private static String key(ConnectionFactory.DatabaseType dbType, String host, int port,
+                              String database, String username, String password,
+                              PoolSettings settings) {
+        return dbType.name() + '\u0000'
+                + normalize(host).toLowerCase(Locale.ROOT) + '\u0000'
+                + port + '\u0000'
+                + normalize(database) + '\u0000'
+                + normalize(username) + '\u0000'
+                + digest(password) + '\u0000'
+                + settings.fingerprint();
+    }
+
+    private static String normalize(String value) {
+        return (value != null) ? value.trim() : "";
+    }
+
+    // The password is part of the identity (a wrong password must not reuse a pool) but is not kept in clear
+    private static String digest(String password) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] hash = md.digest((password != null ? password : "").getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class PooledEntry {
+        // Completed by the caller that creates the pool, outside the map lock
+        final CompletableFuture<DatabaseConnection> pool = new CompletableFuture<>();
+        // Guarded by the ConcurrentHashMap bin lock (only changed inside compute)
+        volatile int refs = 1;
+
+        // The pool, or null while it is still being created
+        DatabaseConnection connection() {
+            return pool.getNow(null);
+        }
+
+        // Wait for the creating caller; its failure is rethrown unchanged
+        DatabaseConnection await() {
+            try {
+                return pool.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+}
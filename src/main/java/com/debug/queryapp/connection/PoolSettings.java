@@ -0,0 +1,182 @@
+// src/main/java/com/debug/queryapp/connection/PoolSettings.java
+
+package com.debug.queryapp.connection;
+
+import com.zaxxer.hikari.HikariConfig;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-connection HikariCP pool overrides.
+ *
+ * Every setting is optional: null leaves the connection type's default in place
+ * (see PostgresConnection / ClickhouseConnection). Driver properties are passed
+ * to the JDBC driver as-is. A lazy pool is not started (no sockets are opened)
+ * until the first query.
+ */
+public class PoolSettings {
+    private Integer maximumPoolSize;
+    private Integer minimumIdle;
+    private Long connectionTimeoutMs;
+    private Long idleTimeoutMs;
+    private Long maxLifetimeMs;
+    private Long leakDetectionThresholdMs;
+    private String connectionInitSql;
+    private Map<String, String> driverProperties = new LinkedHashMap<>();
+    private boolean lazy = false;
+
+    /**
+     * Apply the settings that are present on top of the defaults already in the config.
+     */
+    public void applyTo(HikariConfig config) {
+        if (maximumPoolSize != null) {
+            config.setMaximumPoolSize(maximumPoolSize);
+        }
+        if (minimumIdle != null) {
+            config.setMinimumIdle(minimumIdle);
+        }
+        if (connectionTimeoutMs != null) {
+            config.setConnectionTimeout(connectionTimeoutMs);
+        }
+        if (idleTimeoutMs != null) {
+            config.setIdleTimeout(idleTimeoutMs);
+        }
+        if (maxLifetimeMs != null) {
+            config.setMaxLifetime(maxLifetimeMs);
+        }
+        if (leakDetectionThresholdMs != null) {
+            config.setLeakDetectionThreshold(leakDetectionThresholdMs);
+        }
+        if (connectionInitSql != null && !connectionInitSql.trim().isEmpty()) {
+            config.setConnectionInitSql(connectionInitSql);
+        }
+        if (driverProperties != null) {
+            driverProperties.forEach(config::addDataSourceProperty);
+        }
+    }
+
+    /**
+     * Settings as a map for API responses; only values that are set are included.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        putIfSet(map, "maximumPoolSize", maximumPoolSize);
+        putIfSet(map, "minimumIdle", minimumIdle);
+        putIfSet(map, "connectionTimeoutMs", connectionTimeoutMs);
+        putIfSet(map, "idleTimeoutMs", idleTimeoutMs);
+        putIfSet(map, "maxLifetimeMs", maxLifetimeMs);
+        putIfSet(map, "leakDetectionThresholdMs", leakDetectionThresholdMs);
+        putIfSet(map, "connectionInitSql", connectionInitSql);
+        if (driverProperties != null && !driverProperties.isEmpty()) {
+            map.put("driverProperties", new LinkedHashMap<>(driverProperties));
+        }
+        if (lazy) {
+            map.put("lazy", true);
+        }
+        return map;
+    }
+
+    /**
+     * Stable textual form of the settings, used to tell pools apart in PoolRegistry.
+     * Driver properties are sorted so their order does not matter; lazy start does not
+     * change the pool and is left out.
+     */
+    public String fingerprint() {
+        Map<String, Object> map = new TreeMap<>(toMap());
+        map.remove("lazy");
+        if (driverProperties != null && !driverProperties.isEmpty()) {
+            map.put("driverProperties", new TreeMap<>(driverProperties));
+        }
+        return map.toString();
+    }
+
+    /**
+     * Build settings from a map with the same keys as {@link #toMap()}.
+     * Values may be numbers or numeric strings (as read from connections.xml).
+     *
+     * @throws IllegalArgumentException if a numeric value cannot be parsed
+     */
+    public static PoolSettings fromMap(Map<String, ?> map) {
+        PoolSettings settings = new PoolSettings();
+        if (map == null) {
+            return settings;
+        }
+        settings.maximumPoolSize = toInteger(map.get("maximumPoolSize"));
+        settings.minimumIdle = toInteger(map.get("minimumIdle"));
+        settings.connectionTimeoutMs = toLong(map.get("connectionTimeoutMs"));
+        settings.idleTimeoutMs = toLong(map.get("idleTimeoutMs"));
+        settings.maxLifetimeMs = toLong(map.get("maxLifetimeMs"));
+        settings.leakDetectionThresholdMs = toLong(map.get("leakDetectionThresholdMs"));
+        Object initSql = map.get("connectionInitSql");
+        settings.connectionInitSql = (initSql != null) ? initSql.toString() : null;
+
+        Object properties = map.get("driverProperties");
+        if (properties instanceof Map) {
+            ((Map<?, ?>) properties).forEach((k, v) ->
+                    settings.driverProperties.put(String.valueOf(k), String.valueOf(v)));
+        }
+
+        Object lazy = map.get("lazy");
+        settings.lazy = (lazy instanceof Boolean) ? (Boolean) lazy
+                : (lazy != null && Boolean.parseBoolean(lazy.toString().trim()));
+        return settings;
+    }
+
+    private static void putIfSet(Map<String, Object> map, String key, Object value) {
+        if (value != null) {
+            map.put(key, value);
+        }
+    }
+
+    private static Integer toInteger(Object value) {
+        Long l = toLong(value);
+        try {
+            return (l != null) ? Math.toIntExact(l) : null;
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid pool setting value: " + value);
+        }
+    }
+
+    private static Long toLong(Object value) {
+        if (value == null || value.toString().trim().isEmpty()) {
+            return null;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        try {
+            return Long.parseLong(value.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid pool setting value: " + value);
+        }
+    }
+
+    // Getters and Setters
+    public Integer getMaximumPoolSize() { return maximumPoolSize; }
+    public void setMaximumPoolSize(Integer maximumPoolSize) { this.maximumPoolSize = maximumPoolSize; }
+
+    public Integer getMinimumIdle() { return minimumIdle; }
+    public void setMinimumIdle(Integer minimumIdle) { this.minimumIdle = minimumIdle; }
+
+    public Long getConnectionTimeoutMs() { return connectionTimeoutMs; }
+    public void setConnectionTimeoutMs(Long connectionTimeoutMs) { this.connectionTimeoutMs = connectionTimeoutMs; }
+
+    public Long getIdleTimeoutMs() { return idleTimeoutMs; }
+    public void setIdleTimeoutMs(Long idleTimeoutMs) { this.idleTimeoutMs = idleTimeoutMs; }
+
+    public Long getMaxLifetimeMs() { return maxLifetimeMs; }
+    public void setMaxLifetimeMs(Long maxLifetimeMs) { this.maxLifetimeMs = maxLifetimeMs; }
+
+    public Long getLeakDetectionThresholdMs() { return leakDetectionThresholdMs; }
+    public void setLeakDetectionThresholdMs(Long leakDetectionThresholdMs) { this.leakDetectionThresholdMs = leakDetectionThresholdMs; }
+
+    public String getConnectionInitSql() { return connectionInitSql; }
+    public void setConnectionInitSql(String connectionInitSql) { this.connectionInitSql = connectionInitSql; }
+
+    public Map<String, String> getDriverProperties() { return driverProperties; }
+    public void setDriverProperties(Map<String, String> driverProperties) { this.driverProperties = driverProperties; }
+
+    public boolean isLazy() { return lazy; }
+    public void setLazy(boolean lazy) { this.lazy = lazy; }
+}
@@ -4,8 +4,18 @@ package com.debug.queryapp.connection;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import com.zaxxer.hikari.pool.ProxyConnection;
+import io.micrometer.core.instrument.Metrics;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyInputStream;
+import org.postgresql.core.BaseConnection;
+import org.postgresql.core.TransactionState;
+import java.io.IOException;
+import java.io.InputStream;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
@@ -17,7 +27,14 @@ import java.util.logging.Level;
 public class PostgresConnection implements DatabaseConnection {
     private static final Logger LOGGER = Logger.getLogger(PostgresConnection.class.getName());
 
-    private HikariDataSource dataSource;
+    // Pool names must be unique: they identify the pool in metrics
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+    // DISCARD ALL minus DEALLOCATE ALL and DISCARD PLANS, which would drop pgJDBC's prepared statements
+    private static final String SESSION_RESET = "CLOSE ALL; SET SESSION AUTHORIZATION DEFAULT; RESET ALL; "
+            + "UNLISTEN *; SELECT pg_advisory_unlock_all(); DISCARD TEMP; DISCARD SEQUENCES";
+
+    private LazyDataSource dataSource;
     private String host;
     private int port;
     private String database;
@@ -36,19 +53,30 @@ public class PostgresConnection implements DatabaseConnection {
      */
     public PostgresConnection(String host, int port, String database,
                               String username, String password) {
+        this(host, port, database, username, password, new PoolSettings());
+    }
+
+    /**
+     * Create a new PostgreSQL connection with pool overrides.
+     *
+     * @param poolSettings Pool sizing, timeouts and driver properties (unset values keep the defaults)
+     */
+    public PostgresConnection(String host, int port, String database,
+                              String username, String password, PoolSettings poolSettings) {
         this.host = host;
         this.port = port;
         this.database = database;
         this.username = username;
 
-        initializeDataSource(host, port, database, username, password);
+        initializeDataSource(host, port, database, username, password, poolSettings);
     }
 
     /**
      * Initialize HikariCP connection pool for PostgreSQL.
      */
     private void initializeDataSource(String host, int port, String database,
-                                      String username, String password) {
+                                      String username, String password,
+                                      PoolSettings poolSettings) {
         try {
             HikariConfig config = new HikariConfig();
 
@@ -67,16 +95,30 @@ public class PostgresConnection implements DatabaseConnection {
             config.setIdleTimeout(300000);             // 5 minutes
             config.setMaxLifetime(1800000);            // 30 minutes
             config.setAutoCommit(true);
-            config.setPoolName("PostgreSQL-Pool");
+            config.setPoolName("PostgreSQL-Pool-" + database + "-" + POOL_COUNTER.incrementAndGet());
+
+            // Publish pool gauges (active, idle, pending, acquire/usage timers) to Micrometer
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(Metrics.globalRegistry));
 
             // Specify the driver class
             config.setDriverClassName("org.postgresql.Driver");
 
-            // Connection initialization SQL (optional)
-            config.setConnectionInitSql("SELECT 1");
+            // Driver-side statement cache: after prepareThreshold executions of the same SQL a
+            // PreparedStatement switches to a named server-side statement, so the plan is reused
+            config.addDataSourceProperty("prepareThreshold", "2");
+            config.addDataSourceProperty("preparedStatementCacheQueries", "256");
+            config.addDataSourceProperty("preparedStatementCacheSizeMiB", "5");
+
+            // Batched single-row INSERTs are sent as multi-row INSERTs (far fewer round trips)
+            config.addDataSourceProperty("reWriteBatchedInserts", "true");
 
-            this.dataSource = new HikariDataSource(config);
-            LOGGER.info("PostgreSQL DataSource initialized: " + jdbcUrl);
+            // Per-connection overrides. No init SQL by default: Hikari already
+            // validates connections with the JDBC4 isValid() check.
+            poolSettings.applyTo(config);
+
+            // A lazy pool opens no sockets until the first query
+            this.dataSource = new LazyDataSource(config, poolSettings.isLazy());
+            LOGGER.info("PostgreSQL DataSource " + (dataSource.isStarted() ? "initialized: " : "registered (lazy): ") + jdbcUrl);
 
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error initializing PostgreSQL DataSource", e);
@@ -97,10 +139,10 @@ public class PostgresConnection implements DatabaseConnection {
         try {
             Connection conn = dataSource.getConnection();
 
-            // Create statement with scrollable ResultSet
-            // This allows the frontend to access all rows
+            // Results are only ever read front to back, so a forward-only
+            // ResultSet avoids the driver's scrollable-result bookkeeping
             Statement stmt = conn.createStatement(
-                    ResultSet.TYPE_SCROLL_INSENSITIVE,
+                    ResultSet.TYPE_FORWARD_ONLY,
                     ResultSet.CONCUR_READ_ONLY
             );
 
@@ -113,6 +155,236 @@ public class PostgresConnection implements DatabaseConnection {
         }
     }
 
+    /**
+     * Execute a parameterized SELECT query through a PreparedStatement.
+     * pgJDBC switches to a named server-side statement after prepareThreshold
+     * executions of the same SQL, so repeated runs reuse the server's plan.
+     *
+     * @param sql The exact SQL query with ? placeholders
+     * @param params Values for the placeholders, in order
+     * @return ResultSet with query results
+     * @throws Exception if binding or execution fails
+     */
+    @Override
+    public ResultSet executeQuery(String sql, List<QueryParameter> params) throws Exception {
+        Connection conn = null;
+        Statement stmt = null;
+        try {
+            conn = dataSource.getConnection();
+            stmt = JdbcUtils.createQueryStatement(conn, sql, params);
+
+            LOGGER.info("Executing PostgreSQL prepared query: " + sql.substring(0, Math.min(50, sql.length())));
+            return JdbcUtils.executeQuery(stmt, sql);
+
+        } catch (SQLException | IllegalArgumentException e) {
+            JdbcUtils.closeQuietly(null, stmt, conn);
+            throw new Exception("PostgreSQL query execution failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Execute a SELECT query with a forward-only, server-side cursor.
+     * pgJDBC only honours the fetch size when autocommit is off, so the
+     * connection is switched to a transaction for the lifetime of the cursor.
+     * Callers that read the result through commit it with {@link JdbcUtils#commit(ResultSet)};
+     * otherwise HikariCP rolls back and restores autocommit when the connection is returned.
+     *
+     * @param sql The exact SQL query to execute
+     * @param options Fetch size, row cap and statement callback
+     * @return Forward-only ResultSet
+     * @throws Exception if execution fails
+     */
+    @Override
+    public ResultSet executeStreamingQuery(String sql, QueryOptions options) throws Exception {
+        Connection conn = null;
+        Statement stmt = null;
+        try {
+            long acquireStart = System.nanoTime();
+            conn = dataSource.getConnection();
+            long executeStart = System.nanoTime();
+            conn.setAutoCommit(false);
+
+            applyStatementTimeout(conn, options.getTimeoutSeconds());
+            stmt = JdbcUtils.createQueryStatement(conn, sql, options.getParameters());
+            stmt.setFetchSize(options.getFetchSize());
+            JdbcUtils.applyMaxRows(stmt, options.getMaxRows());
+            JdbcUtils.applyTimeout(stmt, options.getTimeoutSeconds());
+            options.statementCreated(stmt);
+
+            // Execute query WITHOUT MODIFICATION
+            LOGGER.info("Executing PostgreSQL streaming query: " + sql.substring(0, Math.min(50, sql.length())));
+            ResultSet rs = JdbcUtils.executeQuery(stmt, sql);
+            options.recordTimings(executeStart - acquireStart, System.nanoTime() - executeStart);
+            return rs;
+
+        } catch (SQLException | IllegalArgumentException e) {
+            JdbcUtils.closeQuietly(null, stmt, conn);
+            throw new Exception("PostgreSQL query execution failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Export a query result with COPY (query) TO STDOUT.
+     * The copy runs in its own transaction so statement_timeout can be limited to it;
+     * the rows are read from the socket by the caller through the returned stream.
+     *
+     * @param sql The SELECT query to export (a trailing semicolon is ignored)
+     * @param binary Use the binary COPY format instead of CSV
+     * @param header Start the CSV output with a line of column names (ignored for binary)
+     * @param timeoutSeconds statement_timeout for the copy (0 = none)
+     * @return The COPY data; the caller must close it to release the connection
+     * @throws Exception if the copy could not be started (e.g. invalid SQL)
+     */
+    public PostgresCopyOut copyOut(String sql, boolean binary, boolean header, int timeoutSeconds) throws Exception {
+        String query = sql.trim();
+        while (query.endsWith(";")) {
+            query = query.substring(0, query.length() - 1).trim();
+        }
+        // The line break keeps a trailing -- comment from swallowing the closing parenthesis
+        String copySql = "COPY (" + query + "\n) TO STDOUT WITH (FORMAT " +
+                (binary ? "binary" : "csv, HEADER " + header) + ")";
+
+        Connection conn = null;
+        try {
+            conn = dataSource.getConnection();
+            conn.setAutoCommit(false);
+            applyStatementTimeout(conn, timeoutSeconds);
+
+            LOGGER.info("Executing PostgreSQL COPY TO STDOUT: " + query.substring(0, Math.min(50, query.length())));
+            PGCopyInputStream copy = new PGCopyInputStream(conn.unwrap(PGConnection.class), copySql);
+            return new PostgresCopyOut(copy, conn);
+
+        } catch (SQLException e) {
+            JdbcUtils.closeQuietly(null, null, conn);
+            throw new Exception("PostgreSQL COPY failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Load a file into a table with COPY ... FROM STDIN.
+     * The file's first line names the target columns (see {@link PostgresCopyIn});
+     * all rows are committed together, or none if any row is rejected.
+     *
+     * @param table Target table, optionally schema-qualified
+     * @param format Format of the file
+     * @param in The file contents, read in fixed-size chunks (not closed)
+     * @param timeoutSeconds statement_timeout for the copy, including the upload time (0 = none)
+     * @return Number of rows copied
+     * @throws Exception if the file is malformed or the server rejects it
+     */
+    public long copyIn(String table, ImportFormat format, InputStream in, int timeoutSeconds) throws Exception {
+        Connection conn = null;
+        try {
+            conn = dataSource.getConnection();
+            conn.setAutoCommit(false);
+            applyStatementTimeout(conn, timeoutSeconds);
+
+            LOGGER.info("Executing PostgreSQL COPY FROM STDIN into " + table + " (" + format + ")");
+            long rows = PostgresCopyIn.copy(conn.unwrap(PGConnection.class).getCopyAPI(), table, format, in);
+            conn.commit();
+            return rows;
+
+        } catch (SQLException | IOException e) {
+            throw new Exception("PostgreSQL COPY FROM STDIN failed: " + e.getMessage(), e);
+        } finally {
+            // An uncommitted copy is rolled back when the connection returns to the pool
+            JdbcUtils.closeQuietly(null, null, conn);
+        }
+    }
+
+    /**
+     * Set statement_timeout for the current transaction only (SET LOCAL), so the server
+     * also stops the portal fetches that follow execution and the pooled session keeps
+     * its default once the transaction ends.
+     */
+    private static void applyStatementTimeout(Connection conn, int timeoutSeconds) throws SQLException {
+        if (timeoutSeconds > 0) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("SET LOCAL statement_timeout = " + (timeoutSeconds * 1000L));
+            }
+        }
+    }
+
+    /**
+     * Borrow a pooled PostgreSQL connection; closing it returns it to the pool.
+     *
+     * @return A pooled JDBC connection
+     * @throws Exception if no connection could be obtained
+     */
+    @Override
+    public Connection openConnection() throws Exception {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new Exception("PostgreSQL connection failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Roll back a transaction the caller left open and reset what a script may have changed:
+     * settings, open cursors, LISTEN registrations, advisory locks, temporary tables and
+     * sequence state. This is DISCARD ALL without DEALLOCATE ALL / DISCARD PLANS, so the
+     * server-side prepared statements pgJDBC caches on the connection stay usable.
+     *
+     * A script's own BEGIN leaves the connection in autocommit mode with a transaction
+     * open, where pgJDBC refuses rollback(); it is ended with a ROLLBACK statement instead.
+     * If the session cannot be reset the connection is evicted from the pool, so the
+     * next borrower does not inherit uncommitted writes, locks or settings.
+     *
+     * @param conn The borrowed connection, still open
+     */
+    @Override
+    public void resetSession(Connection conn) {
+        try {
+            if (!conn.getAutoCommit()) {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            } else if (conn.unwrap(BaseConnection.class).getTransactionState() != TransactionState.IDLE) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("ROLLBACK");
+                }
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(SESSION_RESET);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error resetting PostgreSQL session; evicting the connection", e);
+            evict(conn);
+        }
+    }
+
+    // Take a connection out of the pool for good; it is closed instead of being reused
+    private void evict(Connection conn) {
+        HikariDataSource pool = dataSource.current();
+        try {
+            if (pool != null && conn instanceof ProxyConnection) {
+                pool.evictConnection(conn);
+            } else {
+                conn.abort(Runnable::run);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error evicting PostgreSQL connection", e);
+        }
+    }
+
+    /**
+     * Cancel a running PostgreSQL statement.
+     * pgJDBC opens a separate socket and sends a CancelRequest for the backend PID,
+     * so this works while another thread is blocked in executeQuery or next().
+     *
+     * @param stmt The running statement
+     * @throws Exception if the cancel request fails
+     */
+    @Override
+    public void cancelQuery(Statement stmt) throws Exception {
+        try {
+            LOGGER.info("Cancelling PostgreSQL query");
+            stmt.cancel();
+        } catch (SQLException e) {
+            throw new Exception("PostgreSQL cancel failed: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Execute INSERT, UPDATE, or DELETE statement directly.
      * Query is NOT modified in any way.
@@ -123,8 +395,23 @@ public class PostgresConnection implements DatabaseConnection {
      */
     @Override
     public int executeUpdate(String sql) throws Exception {
+        return executeUpdate(sql, 0);
+    }
+
+    /**
+     * Execute INSERT, UPDATE, or DELETE statement with a time limit.
+     * pgJDBC cancels the statement when the timeout expires (SQLState 57014).
+     *
+     * @param sql The exact SQL statement to execute
+     * @param timeoutSeconds Maximum execution time (0 = no timeout)
+     * @return Number of rows affected
+     * @throws Exception if execution fails or times out
+     */
+    @Override
+    public int executeUpdate(String sql, int timeoutSeconds) throws Exception {
         try (Connection conn = dataSource.getConnection();
              Statement stmt = conn.createStatement()) {
+            JdbcUtils.applyTimeout(stmt, timeoutSeconds);
 
             // Execute update WITHOUT MODIFICATION
             LOGGER.info("Executing PostgreSQL update: " + sql.substring(0, Math.min(50, sql.length())));
@@ -135,6 +422,48 @@ public class PostgresConnection implements DatabaseConnection {
         }
     }
 
+    /**
+     * Execute DML statements as one batch in a single transaction.
+     * With reWriteBatchedInserts pgJDBC folds batched single-row INSERTs into
+     * multi-row INSERTs; their update counts are then reported as SUCCESS_NO_INFO.
+     *
+     * @param statements The exact SQL statements to execute
+     * @param timeoutSeconds Maximum execution time per chunk (0 = no timeout)
+     * @return Update count per statement
+     * @throws Exception if any statement fails (the whole batch is rolled back)
+     */
+    @Override
+    public int[] executeBatch(List<String> statements, int timeoutSeconds) throws Exception {
+        try (Connection conn = dataSource.getConnection()) {
+            LOGGER.info("Executing PostgreSQL batch of " + statements.size() + " statements");
+            return JdbcUtils.executeBatch(conn, statements, true, timeoutSeconds);
+
+        } catch (SQLException e) {
+            throw new Exception("PostgreSQL batch execution failed: " + JdbcUtils.describeBatchError(e), e);
+        }
+    }
+
+    /**
+     * Execute one parameterized statement per parameter row as a single batch in one transaction.
+     * An INSERT ... VALUES (?, ...) batch is rewritten by the driver into multi-row INSERTs.
+     *
+     * @param sql The exact SQL statement with ? placeholders
+     * @param rows Values for the placeholders, one list per execution
+     * @param timeoutSeconds Maximum execution time per chunk (0 = no timeout)
+     * @return Update count per parameter row
+     * @throws Exception if binding or execution fails (the whole batch is rolled back)
+     */
+    @Override
+    public int[] executeBatch(String sql, List<List<QueryParameter>> rows, int timeoutSeconds) throws Exception {
+        try (Connection conn = dataSource.getConnection()) {
+            LOGGER.info("Executing PostgreSQL batch of " + rows.size() + " rows: " + sql.substring(0, Math.min(50, sql.length())));
+            return JdbcUtils.executeBatch(conn, sql, rows, true, timeoutSeconds);
+
+        } catch (SQLException | IllegalArgumentException e) {
+            throw new Exception("PostgreSQL batch execution failed: " + JdbcUtils.describeBatchError(e), e);
+        }
+    }
+
     /**
      * Execute EXPLAIN ANALYZE query for PostgreSQL query planning.
      * This helps identify slow queries and missing indexes.
@@ -145,21 +474,39 @@ public class PostgresConnection implements DatabaseConnection {
      */
     @Override
     public ResultSet explainQuery(String sql) throws Exception {
+        return explainQuery(sql, 0);
+    }
+
+    /**
+     * Execute EXPLAIN ANALYZE with a time limit. EXPLAIN ANALYZE runs the query,
+     * so it is bounded like any other execution.
+     *
+     * @param sql The query to analyze
+     * @param timeoutSeconds Maximum execution time (0 = no timeout)
+     * @return ResultSet with execution plan
+     * @throws Exception if execution fails or times out
+     */
+    @Override
+    public ResultSet explainQuery(String sql, int timeoutSeconds) throws Exception {
+        Connection conn = null;
         try {
-            Connection conn = dataSource.getConnection();
+            conn = dataSource.getConnection();
 
             // PostgreSQL uses EXPLAIN ANALYZE
             String explainSql = "EXPLAIN ANALYZE " + sql;
 
             Statement stmt = conn.createStatement(
-                    ResultSet.TYPE_SCROLL_INSENSITIVE,
+                    ResultSet.TYPE_FORWARD_ONLY,
                     ResultSet.CONCUR_READ_ONLY
             );
 
+            JdbcUtils.applyTimeout(stmt, timeoutSeconds);
+
             LOGGER.info("Executing EXPLAIN ANALYZE");
             return stmt.executeQuery(explainSql);
 
         } catch (SQLException e) {
+            JdbcUtils.closeQuietly(null, null, conn);
             throw new Exception("EXPLAIN ANALYZE execution failed: " + e.getMessage(), e);
         }
     }
@@ -197,10 +544,14 @@ public class PostgresConnection implements DatabaseConnection {
                 metrics.put("database", "PostgreSQL");
                 metrics.put("jdbcUrl", jdbcUrl);
                 metrics.put("poolName", dataSource.getPoolName());
-                metrics.put("maximumPoolSize", dataSource.getMaximumPoolSize());
-                metrics.put("activeConnections", dataSource.getHikariPoolMXBean().getActiveConnections());
-                metrics.put("idleConnections", dataSource.getHikariPoolMXBean().getIdleConnections());
-                metrics.put("totalConnections", dataSource.getHikariPoolMXBean().getTotalConnections());
+                HikariDataSource pool = dataSource.current();
+                metrics.put("poolState", (pool != null) ? "running" : "suspended");
+                if (pool != null) {
+                    metrics.put("maximumPoolSize", pool.getMaximumPoolSize());
+                    metrics.put("activeConnections", pool.getHikariPoolMXBean().getActiveConnections());
+                    metrics.put("idleConnections", pool.getHikariPoolMXBean().getIdleConnections());
+                    metrics.put("totalConnections", pool.getHikariPoolMXBean().getTotalConnections());
+                }
             } catch (Exception e) {
                 LOGGER.log(Level.WARNING, "Error retrieving pool metrics", e);
             }
@@ -215,12 +566,22 @@ public class PostgresConnection implements DatabaseConnection {
      */
     @Override
     public void close() throws Exception {
-        if (dataSource != null && !dataSource.isClosed()) {
+        if (dataSource != null) {
             dataSource.close();
             LOGGER.info("PostgreSQL DataSource closed");
         }
     }
 
+    @Override
+    public boolean suspendIfIdle(long idleMillis) {
+        return dataSource != null && dataSource.suspendIfIdle(idleMillis);
+    }
+
+    @Override
+    public boolean isPoolStarted() {
+        return dataSource != null && dataSource.isStarted();
+    }
+
     @Override
     public String getDatabaseType() {
         return "PostgreSQL";
@@ -230,4 +591,14 @@ public class PostgresConnection implements DatabaseConnection {
     public String getJdbcUrl() {
         return jdbcUrl;
     }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getPoolName() {
+        return dataSource.getPoolName();
+    }
 }
@@ -0,0 +1,275 @@
+// src/main/java/com/debug/queryapp/connection/PostgresCopyIn.java
+
+package com.debug.queryapp.connection;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Feeds an uploaded file to COPY ... FROM STDIN.
+ *
+ * The header line is read here and turned into the COPY column list, so the file's
+ * columns may come in any order. The rest of the file is passed through in chunks of
+ * {@link #BUFFER_SIZE} bytes: CSV as FORMAT csv, TSV as FORMAT text (tab separated,
+ * \N for NULL). PostgreSQL has no JSON input format, so NDJSON lines are converted
+ * to CSV rows one chunk at a time.
+ */
+final class PostgresCopyIn {
+    private static final Logger LOGGER = Logger.getLogger(PostgresCopyIn.class.getName());
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private PostgresCopyIn() {
+    }
+
+    /**
+     * Copy the whole file into the table.
+     *
+     * @param table Target table, optionally schema-qualified
+     * @return Number of rows copied, as reported by the server
+     * @throws IOException if the upload is empty or malformed, or cannot be read
+     * @throws SQLException if the server rejects the copy
+     */
+    static long copy(CopyManager copyManager, String table, ImportFormat format, InputStream in)
+            throws IOException, SQLException {
+        if (format == ImportFormat.NDJSON) {
+            return copyNdjson(copyManager, table, in);
+        }
+
+        boolean csv = format == ImportFormat.CSV;
+        InputStream data = new BufferedInputStream(in, BUFFER_SIZE);
+        String header = readHeader(data, csv);
+        if (header == null) {
+            throw new IOException("Upload is empty: expected a header line with column names");
+        }
+
+        String sql = copySql(table, splitHeader(header, csv), csv ? "csv" : "text");
+        LOGGER.info("Executing PostgreSQL " + sql);
+        return copyManager.copyIn(sql, data, BUFFER_SIZE);
+    }
+
+    private static long copyNdjson(CopyManager copyManager, String table, InputStream in)
+            throws IOException, SQLException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        long lineNumber = 0;
+        String line;
+        do {
+            line = reader.readLine();
+            lineNumber++;
+        } while (line != null && line.isBlank());
+        if (line == null) {
+            throw new IOException("Upload is empty: expected one JSON object per line");
+        }
+
+        // The first object's keys are the columns; later objects may omit keys (NULL)
+        JsonNode row = parseObject(line, lineNumber);
+        List<String> columns = new ArrayList<>();
+        row.fieldNames().forEachRemaining(columns::add);
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            positions.put(columns.get(i), i);
+        }
+
+        String sql = copySql(table, columns, "csv");
+        LOGGER.info("Executing PostgreSQL " + sql);
+        CopyIn copyIn = copyManager.copyIn(sql);
+        try {
+            StringBuilder chunk = new StringBuilder(BUFFER_SIZE + 1024);
+            JsonNode[] values = new JsonNode[columns.size()];
+            while (row != null) {
+                appendCsvRow(chunk, row, positions, values, lineNumber);
+                if (chunk.length() >= BUFFER_SIZE) {
+                    writeChunk(copyIn, chunk);
+                }
+
+                row = null;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (!line.isBlank()) {
+                        row = parseObject(line, lineNumber);
+                        break;
+                    }
+                }
+            }
+            writeChunk(copyIn, chunk);
+            return copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                try {
+                    copyIn.cancelCopy();
+                } catch (SQLException e) {
+                    LOGGER.log(Level.WARNING, "Error cancelling COPY FROM STDIN", e);
+                }
+            }
+        }
+    }
+
+    private static JsonNode parseObject(String line, long lineNumber) throws IOException {
+        JsonNode node;
+        try {
+            node = MAPPER.readTree(line);
+        } catch (IOException e) {
+            throw new IOException("Line " + lineNumber + " is not valid JSON: " + e.getMessage(), e);
+        }
+        if (node == null || !node.isObject()) {
+            throw new IOException("Line " + lineNumber + " is not a JSON object");
+        }
+        return node;
+    }
+
+    // One CSV line: unquoted empty field = NULL, strings quoted, nested values as JSON text
+    private static void appendCsvRow(StringBuilder out, JsonNode row, Map<String, Integer> positions,
+                                     JsonNode[] values, long lineNumber) throws IOException {
+        Arrays.fill(values, null);
+        Iterator<Map.Entry<String, JsonNode>> fields = row.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            Integer position = positions.get(field.getKey());
+            if (position == null) {
+                throw new IOException("Line " + lineNumber + " has field \"" + field.getKey() +
+                        "\", which is not among the columns of the first line " + positions.keySet());
+            }
+            values[position] = field.getValue();
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            JsonNode value = values[i];
+            if (value == null || value.isNull()) {
+                continue;
+            }
+            if (value.isNumber() || value.isBoolean()) {
+                out.append(value.asText());
+            } else {
+                appendQuoted(out, value.isTextual() ? value.asText() : value.toString());
+            }
+        }
+        out.append('\n');
+    }
+
+    private static void appendQuoted(StringBuilder out, String text) {
+        out.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    private static void writeChunk(CopyIn copyIn, StringBuilder chunk) throws SQLException {
+        if (chunk.length() > 0) {
+            byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            chunk.setLength(0);
+        }
+    }
+
+    private static String copySql(String table, List<String> columns, String format) throws IOException {
+        if (columns.isEmpty()) {
+            throw new IOException("The first line names no columns");
+        }
+        StringBuilder sql = new StringBuilder("COPY ").append(table).append(" (");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            // Quoted, so header names must match the column names exactly
+            sql.append('"').append(columns.get(i).replace("\"", "\"\"")).append('"');
+        }
+        return sql.append(") FROM STDIN WITH (FORMAT ").append(format).append(")").toString();
+    }
+
+    /**
+     * Read the first line, leaving the stream positioned at the first data row.
+     * In CSV a line break inside a quoted name does not end the line.
+     *
+     * @return The line without its terminator or byte order mark, or null at end of input
+     */
+    private static String readHeader(InputStream in, boolean csv) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        boolean quoted = false;
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n' && !quoted) {
+                break;
+            }
+            if (csv && b == '"') {
+                quoted = !quoted;
+            }
+            line.write(b);
+        }
+        if (b == -1 && line.size() == 0) {
+            return null;
+        }
+
+        String header = line.toString(StandardCharsets.UTF_8);
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        if (header.endsWith("\r")) {
+            header = header.substring(0, header.length() - 1);
+        }
+        return header;
+    }
+
+    private static List<String> splitHeader(String header, boolean csv) {
+        List<String> names = new ArrayList<>();
+        if (!csv) {
+            for (String name : header.split("\t", -1)) {
+                names.add(name);
+            }
+            return names;
+        }
+
+        StringBuilder name = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < header.length(); i++) {
+            char c = header.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < header.length() && header.charAt(i + 1) == '"') {
+                    name.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    name.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                names.add(name.toString());
+                name.setLength(0);
+            } else {
+                name.append(c);
+            }
+        }
+        names.add(name.toString());
+        return names;
+    }
+}
@@ -0,0 +1,65 @@
+// src/main/java/com/debug/queryapp/connection/PostgresCopyOut.java
+
+package com.debug.queryapp.connection;
+
+import org.postgresql.copy.PGCopyInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The data of a running COPY ... TO STDOUT, read straight from the server connection.
+ *
+ * pgJDBC hands over one CopyData message (one row in text/CSV format) at a time,
+ * so a result of any size passes through with constant memory. Closing the stream
+ * before the end cancels the copy on the server; either way the pooled connection
+ * is returned when the stream is closed.
+ */
+public final class PostgresCopyOut extends FilterInputStream {
+    private static final Logger LOGGER = Logger.getLogger(PostgresCopyOut.class.getName());
+
+    private final PGCopyInputStream copy;
+    private final Connection conn;
+    private boolean closed = false;
+
+    PostgresCopyOut(PGCopyInputStream copy, Connection conn) {
+        super(copy);
+        this.copy = copy;
+        this.conn = conn;
+    }
+
+    /**
+     * Rows the server reported as copied; only known once the copy has completed.
+     */
+    public long getRowCount() {
+        return copy.getHandledRowCount();
+    }
+
+    /**
+     * Check whether the server is still sending data (false once all rows were read).
+     */
+    public boolean isActive() {
+        return copy.isActive();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (copy.isActive()) {
+                LOGGER.info("Cancelling unfinished COPY TO STDOUT");
+            }
+            copy.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Error cancelling COPY", e);
+        } finally {
+            // Returns the connection to the pool, which rolls back the export transaction
+            JdbcUtils.closeQuietly(null, null, conn);
+        }
+    }
+}
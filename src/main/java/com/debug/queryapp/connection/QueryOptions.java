@@ -0,0 +1,111 @@
+// src/main/java/com/debug/queryapp/connection/QueryOptions.java
+
+package com.debug.queryapp.connection;
+
+import java.sql.Statement;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Per-execution options for cursor-based queries.
+ * The SQL itself is never modified; options only affect how the driver runs and fetches it.
+ */
+public class QueryOptions {
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+    private long maxRows = 0;
+    private int timeoutSeconds = 0;
+    private Consumer<Statement> statementListener;
+    private List<QueryParameter> parameters;
+
+    // Filled in by the connection while executing
+    private long acquireNanos;
+    private long executeNanos;
+
+    public QueryOptions() {
+    }
+
+    public QueryOptions(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Number of rows the driver should fetch per round trip.
+     */
+    public int getFetchSize() { return fetchSize; }
+    public void setFetchSize(int fetchSize) { this.fetchSize = fetchSize; }
+
+    /**
+     * Row cap passed to the driver via Statement.setMaxRows / setLargeMaxRows (0 = no cap).
+     */
+    public long getMaxRows() { return maxRows; }
+    public void setMaxRows(long maxRows) { this.maxRows = maxRows; }
+
+    /**
+     * Maximum execution time in seconds (0 = no timeout). Applied with Statement.setQueryTimeout;
+     * PostgreSQL also sets statement_timeout for the cursor's transaction and ClickHouse
+     * receives it as max_execution_time, so the server stops the query as well.
+     */
+    public int getTimeoutSeconds() { return timeoutSeconds; }
+    public void setTimeoutSeconds(int timeoutSeconds) { this.timeoutSeconds = timeoutSeconds; }
+
+    /**
+     * Effective timeout for a request: the requested value if given, otherwise the default,
+     * capped by the maximum.
+     *
+     * @param requested Timeout from the request (null or 0 = use the default)
+     * @param defaultSeconds Configured default (0 = no timeout)
+     * @param maxSeconds Configured maximum (0 = no cap)
+     * @return Timeout in seconds (0 = no timeout)
+     */
+    public static int resolveTimeout(Integer requested, int defaultSeconds, int maxSeconds) {
+        int timeout = (requested != null && requested > 0) ? requested : Math.max(defaultSeconds, 0);
+        if (maxSeconds > 0 && (timeout == 0 || timeout > maxSeconds)) {
+            timeout = maxSeconds;
+        }
+        return timeout;
+    }
+
+    /**
+     * Callback invoked with the Statement right before it is executed.
+     * Lets callers keep a reference for cancellation while the query is still running.
+     */
+    public Consumer<Statement> getStatementListener() { return statementListener; }
+    public void setStatementListener(Consumer<Statement> statementListener) { this.statementListener = statementListener; }
+
+    /**
+     * Bind parameters for the SQL's ? placeholders. When set (even empty) the query runs
+     * as a PreparedStatement, so the driver can cache and reuse the server-side plan.
+     */
+    public List<QueryParameter> getParameters() { return parameters; }
+    public void setParameters(List<QueryParameter> parameters) { this.parameters = parameters; }
+
+    /**
+     * Notify the statement listener, if any.
+     */
+    void statementCreated(Statement stmt) {
+        if (statementListener != null) {
+            statementListener.accept(stmt);
+        }
+    }
+
+    /**
+     * Time spent waiting for a pooled connection, in nanoseconds.
+     */
+    public long getAcquireNanos() { return acquireNanos; }
+
+    /**
+     * Time from connection checkout until executeQuery returned (the server has
+     * started producing rows), in nanoseconds.
+     */
+    public long getExecuteNanos() { return executeNanos; }
+
+    /**
+     * Record pool checkout and execution times.
+     */
+    void recordTimings(long acquireNanos, long executeNanos) {
+        this.acquireNanos = acquireNanos;
+        this.executeNanos = executeNanos;
+    }
+}
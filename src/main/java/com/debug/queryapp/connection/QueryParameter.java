@@ -0,0 +1,183 @@
+// src/main/java/com/debug/queryapp/connection/QueryParameter.java
+
+package com.debug.queryapp.connection;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A typed bind parameter for a PreparedStatement placeholder (?).
+ *
+ * The value arrives from JSON or XML (number, string or boolean) and is converted
+ * to the declared type before binding, so the server sees a properly typed value
+ * instead of a literal spliced into the SQL text.
+ *
+ * Supported types: string, int, bigint, double, decimal, boolean, date (yyyy-MM-dd),
+ * time (HH:mm:ss), timestamp (yyyy-MM-ddTHH:mm:ss, optionally with an offset), uuid.
+ * int and bigint values must be whole numbers within the type's range; they are never
+ * rounded or wrapped.
+ */
+public class QueryParameter {
+    private static final Set<String> SUPPORTED_TYPES = Set.of(
+            "string", "int", "bigint", "double", "decimal", "boolean", "date", "time", "timestamp", "uuid");
+
+    private String type = "string";
+    private Object value;
+
+    public QueryParameter() {
+    }
+
+    public QueryParameter(String type, Object value) {
+        this.type = type;
+        this.value = value;
+    }
+
+    /**
+     * Bind this parameter to a placeholder.
+     *
+     * @param stmt The prepared statement
+     * @param index One-based placeholder index
+     * @throws SQLException if the driver rejects the value
+     * @throws IllegalArgumentException if the type is unknown or the value cannot be converted
+     */
+    public void bind(PreparedStatement stmt, int index) throws SQLException {
+        String t = validateType();
+        if (value == null) {
+            stmt.setNull(index, sqlType(t));
+            return;
+        }
+        String text = value.toString().trim();
+        try {
+            switch (t) {
+                case "int":
+                    stmt.setInt(index, new BigDecimal(text).intValueExact());
+                    break;
+                case "bigint":
+                    stmt.setLong(index, new BigDecimal(text).longValueExact());
+                    break;
+                case "double":
+                    stmt.setDouble(index, (value instanceof Number) ? ((Number) value).doubleValue() : Double.parseDouble(text));
+                    break;
+                case "decimal":
+                    stmt.setBigDecimal(index, new BigDecimal(text));
+                    break;
+                case "boolean":
+                    stmt.setBoolean(index, (value instanceof Boolean) ? (Boolean) value : parseBoolean(text));
+                    break;
+                case "date":
+                    stmt.setDate(index, Date.valueOf(LocalDate.parse(text)));
+                    break;
+                case "time":
+                    stmt.setTime(index, Time.valueOf(LocalTime.parse(text)));
+                    break;
+                case "timestamp":
+                    stmt.setTimestamp(index, parseTimestamp(text));
+                    break;
+                case "uuid":
+                    stmt.setObject(index, UUID.fromString(text));
+                    break;
+                default:
+                    stmt.setString(index, value.toString());
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid " + t + " value for parameter " + index + ": " + value, e);
+        }
+    }
+
+    /**
+     * Check that the declared type is supported.
+     *
+     * @return The canonical type name
+     * @throws IllegalArgumentException if the type is unknown
+     */
+    public String validateType() {
+        String t = normalizedType();
+        if (!SUPPORTED_TYPES.contains(t)) {
+            throw new IllegalArgumentException("Unsupported parameter type: " + type);
+        }
+        return t;
+    }
+
+    /**
+     * Canonical type name (aliases such as "integer", "long", "numeric" or "text" are accepted).
+     */
+    public String normalizedType() {
+        String t = (type == null || type.trim().isEmpty()) ? "string" : type.trim().toLowerCase(Locale.ROOT);
+        switch (t) {
+            case "text": case "varchar": case "str":
+                return "string";
+            case "integer": case "int4": case "int32":
+                return "int";
+            case "long": case "int8": case "int64":
+                return "bigint";
+            case "float": case "float8": case "float64": case "real":
+                return "double";
+            case "numeric":
+                return "decimal";
+            case "bool":
+                return "boolean";
+            case "datetime": case "timestamptz":
+                return "timestamp";
+            default:
+                return t;
+        }
+    }
+
+    private static int sqlType(String type) {
+        switch (type) {
+            case "int": return Types.INTEGER;
+            case "bigint": return Types.BIGINT;
+            case "double": return Types.DOUBLE;
+            case "decimal": return Types.NUMERIC;
+            case "boolean": return Types.BOOLEAN;
+            case "date": return Types.DATE;
+            case "time": return Types.TIME;
+            case "timestamp": return Types.TIMESTAMP;
+            case "uuid": return Types.OTHER;
+            default: return Types.VARCHAR;
+        }
+    }
+
+    private static boolean parseBoolean(String text) {
+        if (text.equalsIgnoreCase("true") || text.equals("1")) {
+            return true;
+        }
+        if (text.equalsIgnoreCase("false") || text.equals("0")) {
+            return false;
+        }
+        throw new IllegalArgumentException("Not a boolean: " + text);
+    }
+
+    private static Timestamp parseTimestamp(String text) {
+        String iso = text.replace(' ', 'T');
+        try {
+            return Timestamp.valueOf(LocalDateTime.parse(iso));
+        } catch (RuntimeException e) {
+            return Timestamp.from(OffsetDateTime.parse(iso).toInstant());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return normalizedType() + ":" + value;
+    }
+
+    // Getters and Setters
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public Object getValue() { return value; }
+    public void setValue(Object value) { this.value = value; }
+}
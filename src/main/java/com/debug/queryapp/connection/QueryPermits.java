@@ -0,0 +1,73 @@
+// src/main/java/com/debug/queryapp/connection/QueryPermits.java
+
+package com.debug.queryapp.connection;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the number of queries running at once against one connection pool.
+ *
+ * Waiting for a permit is cheap (no pooled connection is held), so with virtual
+ * threads thousands of requests can queue here instead of timing out inside
+ * HikariCP. The semaphore is fair: permits are granted in arrival order.
+ */
+class QueryPermits {
+    private final Semaphore semaphore;
+    private final int maxConcurrent;
+
+    QueryPermits(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+        this.semaphore = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Wait for a permit.
+     *
+     * @param timeoutMillis Maximum wait, 0 = wait indefinitely
+     * @return The permit; release it exactly once (see {@link Permit})
+     * @throws Exception if no permit became available in time or the wait was interrupted
+     */
+    Permit acquire(String poolName, long timeoutMillis) throws Exception {
+        try {
+            if (timeoutMillis <= 0) {
+                semaphore.acquire();
+            } else if (!semaphore.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new Exception("Timed out after " + timeoutMillis + "ms waiting for a free slot on pool " +
+                        poolName + " (" + maxConcurrent + " concurrent queries, " + getWaiting() + " waiting)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new Exception("Interrupted while waiting for a free slot on pool " + poolName, e);
+        }
+        return new Permit(semaphore);
+    }
+
+    int getMaxConcurrent() { return maxConcurrent; }
+    int getAvailable() { return semaphore.availablePermits(); }
+    int getWaiting() { return semaphore.getQueueLength(); }
+
+    /**
+     * A granted permit, shared by a lease and the leases retained from it.
+     * The semaphore is released when the last holder lets go.
+     */
+    static final class Permit {
+        private final Semaphore semaphore;
+        private final AtomicInteger holders = new AtomicInteger(1);
+
+        private Permit(Semaphore semaphore) {
+            this.semaphore = semaphore;
+        }
+
+        void retain() {
+            holders.incrementAndGet();
+        }
+
+        void release() {
+            if (holders.decrementAndGet() == 0) {
+                semaphore.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+// src/main/java/com/debug/queryapp/connection/SessionQuotaExceededException.java
+
+package com.debug.queryapp.connection;
+
+/**
+ * Thrown when a session already runs as many concurrent queries as it is allowed.
+ */
+public class SessionQuotaExceededException extends Exception {
+    private final int maxConcurrentQueries;
+
+    public SessionQuotaExceededException(String sessionId, int maxConcurrentQueries) {
+        super("Session " + sessionId + " already has " + maxConcurrentQueries +
+                " queries running; wait for one to finish or cancel it");
+        this.maxConcurrentQueries = maxConcurrentQueries;
+    }
+
+    public int getMaxConcurrentQueries() { return maxConcurrentQueries; }
+}
@@ -0,0 +1,218 @@
+// src/main/java/com/debug/queryapp/connection/SqlText.java
+
+package com.debug.queryapp.connection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lexical helpers for SQL text that must not look inside literals or comments.
+ *
+ * The scanner knows the quoting rules of both supported dialects:
+ * - PostgreSQL: '' strings (E'' with backslash escapes), "" identifiers,
+ *   $tag$ dollar quotes and nested block comments
+ * - ClickHouse: strings with backslash escapes, "" and `` identifiers, # line comments
+ */
+public final class SqlText {
+
+    private SqlText() {
+    }
+
+    /**
+     * Replace :name placeholders with ? so the SQL can be prepared.
+     * Only declared names are replaced; casts (::type) and anything inside
+     * literals or comments are left untouched.
+     *
+     * @param sql SQL with :name placeholders
+     * @param dialect Quoting rules to apply
+     * @param declared Names that may be bound
+     * @return The positional SQL and the parameter name for each ?, in order
+     */
+    public static NamedSql toPositional(String sql, ConnectionFactory.DatabaseType dialect, Set<String> declared) {
+        StringBuilder out = new StringBuilder(sql.length());
+        List<String> names = new ArrayList<>();
+        int i = 0;
+        while (i < sql.length()) {
+            int end = skipQuotedOrComment(sql, i, dialect);
+            if (end > i) {
+                out.append(sql, i, end);
+                i = end;
+                continue;
+            }
+            char c = sql.charAt(i);
+            if (c == ':' && (i == 0 || sql.charAt(i - 1) != ':')
+                    && i + 1 < sql.length() && Character.isJavaIdentifierStart(sql.charAt(i + 1))) {
+                int nameEnd = i + 1;
+                while (nameEnd < sql.length() && Character.isJavaIdentifierPart(sql.charAt(nameEnd))) {
+                    nameEnd++;
+                }
+                String name = sql.substring(i + 1, nameEnd);
+                if (declared.contains(name)) {
+                    out.append('?');
+                    names.add(name);
+                    i = nameEnd;
+                    continue;
+                }
+            }
+            out.append(c);
+            i++;
+        }
+        return new NamedSql(out.toString(), names);
+    }
+
+    /**
+     * Split a script into statements at top-level semicolons.
+     * Semicolons inside literals, quoted identifiers, dollar-quoted bodies
+     * (PostgreSQL functions and DO blocks) and comments do not end a statement.
+     * Chunks that contain nothing but whitespace and comments are dropped.
+     *
+     * @param script One or more SQL statements
+     * @param dialect Quoting rules to apply
+     * @return The statements, trimmed and without the terminating semicolon
+     */
+    public static List<String> split(String script, ConnectionFactory.DatabaseType dialect) {
+        List<String> statements = new ArrayList<>();
+        int start = 0;
+        boolean hasCode = false;
+        int i = 0;
+        while (i < script.length()) {
+            int end = skipQuotedOrComment(script, i, dialect);
+            if (end > i) {
+                // Literals are code; comments alone do not make a statement
+                char c = script.charAt(i);
+                if (c != '-' && c != '/' && c != '#') {
+                    hasCode = true;
+                }
+                i = end;
+                continue;
+            }
+            char c = script.charAt(i);
+            if (c == ';') {
+                if (hasCode) {
+                    statements.add(script.substring(start, i).trim());
+                }
+                start = i + 1;
+                hasCode = false;
+            } else if (!Character.isWhitespace(c)) {
+                hasCode = true;
+            }
+            i++;
+        }
+        if (hasCode) {
+            statements.add(script.substring(start).trim());
+        }
+        return statements;
+    }
+
+    /**
+     * If a string literal, quoted identifier, dollar quote or comment starts at the
+     * given position, return the index just past it; otherwise return the position unchanged.
+     * An unterminated literal or comment extends to the end of the text.
+     */
+    static int skipQuotedOrComment(String sql, int i, ConnectionFactory.DatabaseType dialect) {
+        boolean clickhouse = dialect == ConnectionFactory.DatabaseType.CLICKHOUSE;
+        char c = sql.charAt(i);
+        char next = (i + 1 < sql.length()) ? sql.charAt(i + 1) : '\0';
+
+        if (c == '-' && next == '-' || clickhouse && c == '#') {
+            int end = sql.indexOf('\n', i);
+            return (end < 0) ? sql.length() : end + 1;
+        }
+        if (c == '/' && next == '*') {
+            return skipBlockComment(sql, i, !clickhouse);
+        }
+        if (c == '\'') {
+            boolean backslashEscapes = clickhouse
+                    || (i > 0 && (sql.charAt(i - 1) == 'E' || sql.charAt(i - 1) == 'e')
+                        && (i < 2 || !Character.isJavaIdentifierPart(sql.charAt(i - 2))));
+            return skipQuoted(sql, i, '\'', backslashEscapes);
+        }
+        if (c == '"' || clickhouse && c == '`') {
+            return skipQuoted(sql, i, c, clickhouse);
+        }
+        if (c == '$' && !clickhouse && (i == 0 || !Character.isJavaIdentifierPart(sql.charAt(i - 1)))) {
+            return skipDollarQuoted(sql, i);
+        }
+        return i;
+    }
+
+    private static int skipQuoted(String sql, int start, char quote, boolean backslashEscapes) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (backslashEscapes && c == '\\') {
+                i += 2;
+            } else if (c == quote) {
+                // A doubled quote is an escaped quote, not the end of the literal
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        return sql.length();
+    }
+
+    private static int skipBlockComment(String sql, int start, boolean nested) {
+        int depth = 0;
+        int i = start;
+        while (i < sql.length() - 1) {
+            if (sql.charAt(i) == '/' && sql.charAt(i + 1) == '*') {
+                depth = nested ? depth + 1 : 1;
+                i += 2;
+            } else if (sql.charAt(i) == '*' && sql.charAt(i + 1) == '/') {
+                i += 2;
+                if (--depth == 0) {
+                    return i;
+                }
+            } else {
+                i++;
+            }
+        }
+        return sql.length();
+    }
+
+    // $$...$$ or $tag$...$tag$; a lone $ (e.g. positional $1) is not a quote
+    private static int skipDollarQuoted(String sql, int start) {
+        int tagEnd = start + 1;
+        while (tagEnd < sql.length() && sql.charAt(tagEnd) != '$') {
+            char c = sql.charAt(tagEnd);
+            boolean valid = (tagEnd == start + 1) ? Character.isJavaIdentifierStart(c) && c != '$'
+                    : Character.isJavaIdentifierPart(c) && c != '$';
+            if (!valid) {
+                return start;
+            }
+            tagEnd++;
+        }
+        if (tagEnd >= sql.length()) {
+            return start;
+        }
+        String tag = sql.substring(start, tagEnd + 1);
+        int close = sql.indexOf(tag, tagEnd + 1);
+        return (close < 0) ? sql.length() : close + tag.length();
+    }
+
+    /**
+     * SQL rewritten for positional binding.
+     */
+    public static final class NamedSql {
+        private final String sql;
+        private final List<String> parameterNames;
+
+        NamedSql(String sql, List<String> parameterNames) {
+            this.sql = sql;
+            this.parameterNames = Collections.unmodifiableList(parameterNames);
+        }
+
+        /** SQL with ? placeholders. */
+        public String getSql() { return sql; }
+
+        /** Name bound to each placeholder, in order (a name may repeat). */
+        public List<String> getParameterNames() { return parameterNames; }
+    }
+}
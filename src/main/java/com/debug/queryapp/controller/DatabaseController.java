@@ -3,6 +3,9 @@
 package com.debug.queryapp.controller;
 
 import com.debug.queryapp.connection.*;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.*;
@@ -11,6 +14,8 @@ import java.util.logging.Logger;
 /**
  * REST controller for database connection management.
  * Handles connection creation, testing, and management.
+ * The current connection is selected per client session (X-Session-Id header or
+ * HTTP session), so users of a shared instance do not switch each other's database.
  */
 @RestController
 @RequestMapping("/api/v1/database")
@@ -18,6 +23,32 @@ import java.util.logging.Logger;
 public class DatabaseController {
     private static final Logger LOGGER = Logger.getLogger(DatabaseController.class.getName());
 
+    // Concurrent queries a single session may run (0 = unlimited)
+    @Value("${queryapp.sessions.max-concurrent-queries:8}")
+    private int maxConcurrentQueries;
+
+    @Value("${queryapp.sessions.idle-timeout-seconds:1800}")
+    private long sessionIdleTimeoutSeconds;
+
+    // Pools unused for this long are shut down and restarted on the next query (0 = never)
+    @Value("${queryapp.pools.idle-timeout-seconds:1800}")
+    private long poolIdleTimeoutSeconds;
+
+    // Queries running at once per pool (0 = no limit); further queries queue for up to queue-timeout
+    @Value("${queryapp.pools.max-concurrent-queries:0}")
+    private int maxConcurrentQueriesPerPool;
+
+    @Value("${queryapp.pools.queue-timeout-seconds:300}")
+    private long poolQueueTimeoutSeconds;
+
+    @PostConstruct
+    void configureConnectionManager() {
+        ConnectionManager manager = ConnectionManager.getInstance();
+        manager.configureSessions(maxConcurrentQueries, sessionIdleTimeoutSeconds * 1000L);
+        manager.setPoolIdleTimeout(poolIdleTimeoutSeconds * 1000L);
+        manager.configurePoolPermits(maxConcurrentQueriesPerPool, poolQueueTimeoutSeconds * 1000L);
+    }
+
     /**
      * Test and establish a new database connection.
      *
@@ -28,26 +59,42 @@ public class DatabaseController {
      *   "port": 5432,
      *   "database": "mydb",
      *   "username": "user",
-     *   "password": "pass"
+     *   "password": "pass",
+     *   "pool": {                              (optional, unset values keep the defaults)
+     *     "maximumPoolSize": 20,
+     *     "minimumIdle": 0,
+     *     "connectionTimeoutMs": 30000,
+     *     "idleTimeoutMs": 600000,
+     *     "maxLifetimeMs": 1800000,
+     *     "leakDetectionThresholdMs": 60000,
+     *     "connectionInitSql": "SET search_path TO app",
+     *     "driverProperties": {"socket_timeout": "300000"},
+     *     "lazy": true                         (start the pool on the first query instead of now)
+     *   }
      * }
      */
     @PostMapping("/connect")
-    public ResponseEntity<?> connectDatabase(@RequestBody ConnectionRequest request) {
+    public ResponseEntity<?> connectDatabase(@RequestBody ConnectionRequest request,
+                                             HttpServletRequest httpRequest) {
+        DatabaseConnection connection = null;
         try {
             LOGGER.info("Creating new " + request.getDatabaseType() + " connection...");
 
-            // Use Factory to create the appropriate connection type
-            DatabaseConnection connection = ConnectionFactory.createConnection(
+            // Reuses the warm pool if one with identical parameters is already open
+            connection = PoolRegistry.getInstance().acquire(
                     request.getDatabaseType(),
                     request.getHost(),
                     request.getPort(),
                     request.getDatabase(),
                     request.getUsername(),
-                    request.getPassword()
+                    request.getPassword(),
+                    request.getPool()
             );
 
-            // Test the connection
-            if (!connection.testConnection()) {
+            // Test the connection (a lazy pool is only started by its first query)
+            boolean lazy = request.getPool() != null && request.getPool().isLazy();
+            if (!lazy && !connection.testConnection()) {
+                releaseQuietly(connection);
                 return ResponseEntity.status(400).body(new ErrorResponse(
                         "Connection test failed",
                         "Unable to establish connection to " + request.getDatabaseType(),
@@ -56,7 +103,8 @@ public class DatabaseController {
             }
 
             // Add to connection manager
-            String connectionId = ConnectionManager.getInstance().addConnection(connection);
+            String connectionId = ConnectionManager.getInstance().addConnection(
+                    SessionIds.resolve(httpRequest), connection);
 
             return ResponseEntity.ok(new ConnectResponse(
                     true,
@@ -67,6 +115,9 @@ public class DatabaseController {
 
         } catch (Exception e) {
             LOGGER.severe("Error connecting to database: " + e.getMessage());
+            if (connection != null) {
+                releaseQuietly(connection);
+            }
             return ResponseEntity.status(500).body(new ErrorResponse(
                     "Connection failed",
                     e.getMessage(),
@@ -81,9 +132,9 @@ public class DatabaseController {
      * GET /api/v1/database/metrics
      */
     @GetMapping("/metrics")
-    public ResponseEntity<?> getMetrics() {
+    public ResponseEntity<?> getMetrics(HttpServletRequest httpRequest) {
         try {
-            DatabaseConnection conn = ConnectionManager.getInstance().getCurrentConnection();
+            DatabaseConnection conn = ConnectionManager.getInstance().getCurrentConnection(SessionIds.resolve(httpRequest));
             return ResponseEntity.ok(conn.getConnectionMetrics());
         } catch (Exception e) {
             return ResponseEntity.status(400).body(new ErrorResponse(
@@ -100,14 +151,22 @@ public class DatabaseController {
      * GET /api/v1/database/connections
      */
     @GetMapping("/connections")
-    public ResponseEntity<?> listConnections() {
+    public ResponseEntity<?> listConnections(HttpServletRequest httpRequest) {
         try {
             ConnectionManager manager = ConnectionManager.getInstance();
-            return ResponseEntity.ok(Map.of(
-                    "connections", manager.getConnectionSummaries(),
-                    "currentConnectionId", manager.getCurrentConnectionId(),
-                    "connectionCount", manager.getConnectionCount()
+            String sessionId = SessionIds.resolve(httpRequest);
+            ConnectionSession session = manager.getSession(sessionId);
+
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("connections", manager.getConnectionSummaries(sessionId));
+            response.put("currentConnectionId", manager.getCurrentConnectionId(sessionId));
+            response.put("connectionCount", manager.getConnectionCount());
+            response.put("poolCount", PoolRegistry.getInstance().getPoolCount());
+            response.put("session", Map.of(
+                    "runningQueries", session.getRunningQueries(),
+                    "maxConcurrentQueries", manager.getMaxConcurrentQueriesPerSession()
             ));
+            return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.status(500).body(new ErrorResponse(
                     "Error listing connections",
@@ -118,15 +177,17 @@ public class DatabaseController {
     }
 
     /**
-     * Set the current connection.
+     * Set the current connection of the caller's session; other sessions are not affected.
      *
      * POST /api/v1/database/select/{connectionId}
      */
     @PostMapping("/select/{connectionId}")
-    public ResponseEntity<?> selectConnection(@PathVariable String connectionId) {
+    public ResponseEntity<?> selectConnection(@PathVariable String connectionId,
+                                              HttpServletRequest httpRequest) {
         try {
-            ConnectionManager.getInstance().setCurrentConnection(connectionId);
-            DatabaseConnection conn = ConnectionManager.getInstance().getCurrentConnection();
+            String sessionId = SessionIds.resolve(httpRequest);
+            ConnectionManager.getInstance().setCurrentConnection(sessionId, connectionId);
+            DatabaseConnection conn = ConnectionManager.getInstance().getCurrentConnection(sessionId);
 
             return ResponseEntity.ok(Map.of(
                     "success", true,
@@ -186,6 +247,14 @@ public class DatabaseController {
             ));
         }
     }
+
+    private void releaseQuietly(DatabaseConnection connection) {
+        try {
+            PoolRegistry.getInstance().release(connection);
+        } catch (Exception e) {
+            LOGGER.warning("Error releasing connection pool: " + e.getMessage());
+        }
+    }
 }
 
 /**
@@ -198,6 +267,7 @@ class ConnectionRequest {
     private String database;
     private String username;
     private String password;
+    private PoolSettings pool;
 
     // Getters and Setters
     public String getDatabaseType() { return databaseType; }
@@ -217,6 +287,9 @@ class ConnectionRequest {
 
     public String getPassword() { return password; }
     public void setPassword(String password) { this.password = password; }
+
+    public PoolSettings getPool() { return pool; }
+    public void setPool(PoolSettings pool) { this.pool = pool; }
 }
 
 /**
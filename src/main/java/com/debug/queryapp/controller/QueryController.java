@@ -2,16 +2,49 @@
 
 package com.debug.queryapp.controller;
 
+import com.clickhouse.data.ClickHouseFormat;
 import com.debug.queryapp.connection.*;
+import com.debug.queryapp.model.CompactResultSet;
+import com.debug.queryapp.model.QueryTimings;
+import com.debug.queryapp.model.ResultPage;
+import com.debug.queryapp.service.BulkImport;
+import com.debug.queryapp.service.ClickHouseBinaryReader;
+import com.debug.queryapp.service.ClickHouseFileExport;
+import com.debug.queryapp.service.DelimitedExportWriter;
+import com.debug.queryapp.service.ExportFormat;
+import com.debug.queryapp.service.FanOutQuery;
+import com.debug.queryapp.service.QueryMetrics;
+import com.debug.queryapp.service.ResultCache;
+import com.debug.queryapp.service.ResultHandle;
+import com.debug.queryapp.service.ResultHandleManager;
+import com.debug.queryapp.service.ResultLimiter;
+import com.debug.queryapp.service.ResultSpillBuffer;
+import com.debug.queryapp.service.ResultStreamWriter;
+import com.debug.queryapp.service.ScriptRunner;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Connection;
 import java.util.*;
 import java.util.logging.Logger;
 import java.util.logging.Level;
+import java.util.regex.Pattern;
 
 /**
  * REST controller for query execution.
@@ -24,26 +57,135 @@ import java.util.logging.Level;
 public class QueryController {
     private static final Logger LOGGER = Logger.getLogger(QueryController.class.getName());
 
+    // Rows fetched per driver round trip when streaming
+    private static final int DEFAULT_STREAM_FETCH_SIZE = 1000;
+
+    // Import target: table or schema.table, plain identifiers only
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_$]*(\\.[A-Za-z_][A-Za-z0-9_$]*)?");
+
+    // Page sizes for paged execution (server-side cursor)
+    private static final int DEFAULT_PAGE_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 10000;
+
+    // Idle time after which an open result handle is closed
+    @Value("${queryapp.results.handle-ttl-seconds:300}")
+    private long handleTtlSeconds;
+
+    // Paged results keep the rows read so far (in memory up to spill-threshold-bytes, then in a
+    // temporary file of at most spill-max-bytes, 0 = unlimited) so pages can be requested again
+    @Value("${queryapp.results.spill-enabled:true}")
+    private boolean spillEnabled;
+
+    @Value("${queryapp.results.spill-threshold-bytes:16777216}")
+    private long spillThresholdBytes;
+
+    @Value("${queryapp.results.spill-max-bytes:1073741824}")
+    private long spillMaxBytes;
+
+    @Value("${queryapp.results.spill-dir:}")
+    private String spillDir;
+
+    private Path spillDirectory;
+
+    // Fan-out across connections: default/maximum parallelism and per-connection timeout
+    @Value("${queryapp.fanout.max-parallel:8}")
+    private int fanOutMaxParallel;
+
+    @Value("${queryapp.fanout.timeout-seconds:60}")
+    private int fanOutTimeoutSeconds;
+
+    // Shared execute path: result caps, timeouts, cache and JSON response bodies
+    private final QueryExecutor executor;
+
+    public QueryController(QueryExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Create the directory for spilled paged results and remove files a previous run left behind.
+     */
+    @PostConstruct
+    void prepareSpillDirectory() {
+        if (!spillEnabled) {
+            return;
+        }
+        spillDirectory = spillDir.isBlank()
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "queryapp-spill")
+                : Paths.get(spillDir);
+        try {
+            Files.createDirectories(spillDirectory);
+            try (DirectoryStream<Path> stale = Files.newDirectoryStream(spillDirectory, "result-*.spill")) {
+                for (Path file : stale) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            LOGGER.info("Paged results spill to " + spillDirectory + " beyond " + spillThresholdBytes + " bytes");
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Result spill directory " + spillDirectory +
+                    " is not usable; paged results are forward-only", e);
+            spillDirectory = null;
+        }
+    }
+
     /**
      * Execute a SELECT query without modification.
      *
      * POST /api/v1/query/execute
      * Body: {
      *   "sql": "SELECT * FROM table WHERE id = 1",
-     *   "connectionId": "optional-connection-id"
+     *   "connectionId": "optional-connection-id",
+     *   "format": "rows" (default, one object per row) or "compact" (typed positional arrays),
+     *   "paged": false,
+     *   "pageSize": 500,
+     *   "maxRows": 1000,
+     *   "maxBytes": 1048576,
+     *   "bypassCache": false,
+     *   "cacheTtlSeconds": 60,
+     *   "timeoutSeconds": 30,
+     *   "params": [{"type": "int", "value": 1}]     (optional, binds ? placeholders)
      * }
+     *
+     * With "params" the query runs as a PreparedStatement with the values bound in order
+     * (types: string, int, bigint, double, decimal, boolean, date, time, timestamp, uuid);
+     * PostgreSQL then reuses the server-side plan across runs of the same SQL.
+     *
+     * When queryapp.cache.enabled is set, results are cached per connection (JDBC URL + user)
+     * and exact SQL text. "bypassCache": true skips the lookup and refreshes the cached entry.
+     *
+     * Reading stops once maxRows rows or roughly maxBytes of serialized JSON have been
+     * collected (capped by queryapp.results.max-rows / max-bytes); the result then
+     * carries "truncated": true and the limit that was hit.
+     *
+     * With "paged": true only the first page is returned; the cursor stays open on the
+     * server under "resultHandle" and further pages are read via GET /results/{handle}.
+     *
+     * The response carries "timings" split into pool acquire, execute, fetch and serialize.
+     * The result is serialized straight into the response body rather than into an
+     * intermediate string, so only the collected rows are held in memory.
+     *
+     * "timeoutSeconds" defaults to queryapp.query.timeout-seconds and is capped by
+     * queryapp.query.max-timeout-seconds. PostgreSQL enforces it with statement_timeout
+     * and the driver's query timeout, ClickHouse with max_execution_time. A query that
+     * runs past it fails with 504 and "timedOut": true.
+     *
+     * Compact ClickHouse results without "params" are fetched as RowBinary and decoded
+     * into column buffers (see {@link ClickHouseBinaryReader}) unless
+     * queryapp.clickhouse.binary-fetch is off.
      */
     @PostMapping("/execute")
-    public ResponseEntity<?> executeQuery(@RequestBody ExecuteQueryRequest request) {
+    public ResponseEntity<StreamingResponseBody> executeQuery(@RequestBody ExecuteQueryRequest request,
+                                          HttpServletRequest httpRequest) {
         long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
 
         LOGGER.info("=== Query Execution Started ===");
         LOGGER.info("SQL: " + request.getSql());
 
+        ConnectionLease lease = null;
         try {
             // Validate input
             if (request.getSql() == null || request.getSql().trim().isEmpty()) {
-                return ResponseEntity.status(400).body(Map.of(
+                return executor.jsonError(400, Map.of(
                         "success", false,
                         "error", "SQL query is required",
                         "message", "Please provide a valid SQL query"
@@ -51,71 +193,756 @@ public class QueryController {
             }
 
             // Get the connection to use
-            DatabaseConnection conn = getConnection(request.getConnectionId());
+            lease = ConnectionManager.getInstance().lease(SessionIds.resolve(httpRequest), request.getConnectionId());
+            DatabaseConnection conn = lease.getConnection();
             LOGGER.info("Using connection: " + conn.getDatabaseType());
 
-            // Execute the query WITHOUT MODIFICATION using JDBC driver
-            ResultSet rs = conn.executeQuery(request.getSql());
+            if (request.isPaged()) {
+                return executePagedQuery(request, lease, startTime);
+            }
 
-            // Convert ResultSet to JSON - MUST be done before closing
-            QueryResultSet resultSet = resultSetToJson(rs);
+            return executor.execute(lease, request, startTime, startNanos);
+        } catch (Exception e) {
+            return executor.failed(e, lease, request.getTimeoutSeconds(), startTime);
+        } finally {
+            if (lease != null) {
+                lease.close();
+            }
+        }
+    }
 
-            // Now close resources in correct order: ResultSet -> Statement -> Connection
-            Statement stmt = rs.getStatement();
-            Connection jdbcConn = (stmt != null) ? stmt.getConnection() : null;
+    /**
+     * Open a server-side cursor, return its first page and keep the rest under a result handle.
+     * If the whole result fits in the first page the cursor is closed immediately
+     * and no handle is returned.
+     */
+    private ResponseEntity<StreamingResponseBody> executePagedQuery(ExecuteQueryRequest request, ConnectionLease lease,
+                                                long startTime) throws Exception {
+        DatabaseConnection conn = lease.getConnection();
+        int pageSize = (request.getPageSize() != null && request.getPageSize() > 0)
+                ? Math.min(request.getPageSize(), MAX_PAGE_SIZE)
+                : DEFAULT_PAGE_SIZE;
+
+        // Forward-only cursor: only one page worth of rows is fetched per round trip
+        QueryOptions options = new QueryOptions(pageSize);
+        options.setParameters(request.getParams());
+        options.setTimeoutSeconds(executor.timeoutFor(request.getTimeoutSeconds()));
+        ResultSet rs = conn.executeStreamingQuery(request.getSql(), options);
+
+        // The handle holds its own lease so the pool stays open while the cursor is in use.
+        // It is an idle lease: between page requests nothing runs, so the handle takes
+        // no session quota slot or pool permit (it is released once the cursor is drained)
+        ResultHandle handle;
+        ConnectionLease handleLease = lease.retainIdle();
+        try {
+            ResultSpillBuffer buffer = (spillDirectory != null)
+                    ? new ResultSpillBuffer(pageSize, spillThresholdBytes, spillMaxBytes, spillDirectory)
+                    : null;
+            handle = new ResultHandle(rs, handleLease, pageSize, handleTtlSeconds * 1000L, buffer);
+        } catch (Exception e) {
+            JdbcUtils.closeQuietly(rs);
+            handleLease.close();
+            throw e;
+        }
 
-            rs.close();
-            if (stmt != null) {
-                stmt.close();
-            }
-            if (jdbcConn != null) {
-                jdbcConn.close(); // Return connection to pool
+        ResultPage firstPage = handle.readPage(0);
+        if (firstPage.isHasMore()) {
+            ResultHandleManager.getInstance().register(handle);
+        } else {
+            handle.close();
+            firstPage = new ResultPage(null, firstPage.getColumns(), firstPage.getRows(),
+                    0, pageSize, false);
+        }
+
+        long executionTime = System.currentTimeMillis() - startTime;
+
+        LOGGER.info("Paged query executed in " + executionTime + "ms - first page: " +
+                firstPage.getRowCount() + " rows, hasMore=" + firstPage.isHasMore());
+
+        return executor.json(200, new ExecuteQueryResponse(
+                true,
+                firstPage,
+                executionTime,
+                conn.getDatabaseType()
+        ));
+    }
+
+    /**
+     * Run one SELECT against several connections concurrently and merge the rows
+     * into a single compact result. The first column, "source_connection", holds
+     * the id of the connection each row came from.
+     *
+     * POST /api/v1/query/fanout
+     * Body: {
+     *   "sql": "SELECT count(*) FROM pg_stat_activity",
+     *   "connectionIds": ["shard-1", "shard-2", "shard-3"],
+     *   "maxParallel": 8,          (capped by queryapp.fanout.max-parallel and the session quota)
+     *   "timeoutSeconds": 60,      (per connection, capped by queryapp.fanout.timeout-seconds)
+     *   "maxRows": 1000,           (per connection)
+     *   "maxBytes": 1048576,       (per connection)
+     *   "params": [...]            (optional, as for /execute)
+     * }
+     *
+     * The merged result is capped by queryapp.results.max-rows / max-bytes as a whole.
+     * "targets" reports each connection's outcome (SUCCEEDED, FAILED or TIMED_OUT) with its
+     * row count, the rows that made it into the merged result, the cap that cut them, and time.
+     * A connection that exceeds its timeout has its query cancelled; the rows of the other
+     * connections are still returned.
+     */
+    @PostMapping("/fanout")
+    public ResponseEntity<?> fanOutQuery(@RequestBody FanOutRequest request,
+                                         HttpServletRequest httpRequest) {
+        long startTime = System.currentTimeMillis();
+
+        LOGGER.info("=== Fan-out Query Started ===");
+        LOGGER.info("SQL: " + request.getSql());
+
+        if (request.getSql() == null || request.getSql().trim().isEmpty()) {
+            return ResponseEntity.status(400).body(Map.of(
+                    "success", false,
+                    "error", "SQL query is required"
+            ));
+        }
+        List<String> connectionIds = (request.getConnectionIds() != null)
+                ? new ArrayList<>(new LinkedHashSet<>(request.getConnectionIds()))
+                : List.of();
+        if (connectionIds.isEmpty()) {
+            return ResponseEntity.status(400).body(Map.of(
+                    "success", false,
+                    "error", "At least one connection id is required"
+            ));
+        }
+
+        int maxParallel = fanOutMaxParallel;
+        if (request.getMaxParallel() != null && request.getMaxParallel() > 0) {
+            maxParallel = Math.min(request.getMaxParallel(), maxParallel);
+        }
+        // More parallel targets than the session may run would only fail with 429
+        int sessionQuota = ConnectionManager.getInstance().getMaxConcurrentQueriesPerSession();
+        if (sessionQuota > 0) {
+            maxParallel = Math.min(maxParallel, sessionQuota);
+        }
+        int timeoutSeconds = fanOutTimeoutSeconds;
+        if (request.getTimeoutSeconds() != null && request.getTimeoutSeconds() > 0) {
+            timeoutSeconds = (timeoutSeconds > 0) ? Math.min(request.getTimeoutSeconds(), timeoutSeconds)
+                    : request.getTimeoutSeconds();
+        }
+        ResultLimiter caps = executor.limiter(request.getMaxRows(), request.getMaxBytes());
+
+        try {
+            FanOutQuery fanOut = new FanOutQuery(SessionIds.resolve(httpRequest), request.getSql(),
+                    request.getParams(), maxParallel, timeoutSeconds,
+                    caps.getMaxRows(), caps.getMaxBytes());
+            List<FanOutQuery.Target> targets = fanOut.run(connectionIds);
+            // The merged result is held in memory too, so it gets the global caps
+            CompactResultSet merged = FanOutQuery.merge(targets, executor.limiter(null, null));
+
+            List<Map<String, Object>> outcomes = new ArrayList<>();
+            int succeeded = 0;
+            for (FanOutQuery.Target target : targets) {
+                outcomes.add(target.toStatus());
+                if (target.getStatus() == FanOutQuery.Status.SUCCEEDED) {
+                    succeeded++;
+                }
             }
 
             long executionTime = System.currentTimeMillis() - startTime;
+            LOGGER.info("Fan-out finished in " + executionTime + "ms: " + succeeded + " of " +
+                    targets.size() + " connections succeeded, " + merged.getRowCount() + " rows");
+
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("success", succeeded > 0);
+            response.put("data", merged);
+            response.put("targets", outcomes);
+            response.put("succeeded", succeeded);
+            response.put("failed", targets.size() - succeeded);
+            response.put("executionTimeMs", executionTime);
+            return ResponseEntity.ok(response);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(503).body(Map.of(
+                    "success", false,
+                    "error", "Fan-out query interrupted"
+            ));
+        }
+    }
+
+    /**
+     * Read a page from an open result handle.
+     * New pages come from a forward-only cursor: later pages may be requested
+     * (rows in between are skipped). Earlier pages are served from the result's
+     * spill buffer (memory, then a temporary file) while it holds them; otherwise
+     * they cannot be re-read (409).
+     *
+     * GET /api/v1/query/results/{handleId}?page=1
+     */
+    @GetMapping("/results/{handleId}")
+    public ResponseEntity<?> getResultPage(@PathVariable String handleId,
+                                           @RequestParam(defaultValue = "0") int page) {
+        long startTime = System.currentTimeMillis();
+
+        ResultHandle handle = ResultHandleManager.getInstance().getHandle(handleId);
+        if (handle == null) {
+            return ResponseEntity.status(404).body(Map.of(
+                    "success", false,
+                    "error", "Result not found",
+                    "message", "Result handle " + handleId + " does not exist or has expired"
+            ));
+        }
 
-            LOGGER.info("Query executed successfully in " + executionTime + "ms");
-            LOGGER.info("Rows returned: " + resultSet.getRowCount());
-            LOGGER.info("Columns: " + resultSet.getColumns().size());
-            LOGGER.info("Column names: " + resultSet.getColumns());
-            if (resultSet.getRowCount() > 0) {
-                LOGGER.info("First row sample: " + resultSet.getRows().get(0));
+        try {
+            ResultPage resultPage = handle.readPage(page);
+            if (!resultPage.isHasMore() && !handle.isBuffered()) {
+                // Last page delivered - nothing left to hold open; buffered pages stay
+                // available until the handle expires or is deleted
+                ResultHandleManager.getInstance().close(handleId);
             }
 
-            ExecuteQueryResponse response = new ExecuteQueryResponse(
+            long executionTime = System.currentTimeMillis() - startTime;
+            LOGGER.info("Result page " + page + " of " + handleId + ": " +
+                    resultPage.getRowCount() + " rows in " + executionTime + "ms");
+
+            return ResponseEntity.ok(new ExecuteQueryResponse(
                     true,
-                    resultSet,
+                    resultPage,
                     executionTime,
-                    conn.getDatabaseType()
-            );
+                    handle.getDatabaseType()
+            ));
 
-            LOGGER.info("Response created - success: " + response.isSuccess());
-            LOGGER.info("Response data: columns=" + response.getData().getColumns().size() +
-                       ", rows=" + response.getData().getRows().size());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of(
+                    "success", false,
+                    "error", "Page no longer available",
+                    "message", e.getMessage()
+            ));
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error reading result page", e);
+            ResultHandleManager.getInstance().close(handleId);
 
-            // Log the response structure before returning
-            LOGGER.info("Response structure check:");
-            LOGGER.info("  - success type: " + response.isSuccess());
-            LOGGER.info("  - data type: " + response.getData().getClass().getName());
-            LOGGER.info("  - executionTimeMs type: " + response.getExecutionTimeMs());
-            LOGGER.info("  - databaseType: " + response.getDatabaseType());
+            return ResponseEntity.status(400).body(Map.of(
+                    "success", false,
+                    "error", "Failed to read result page",
+                    "message", e.getMessage()
+            ));
+        }
+    }
 
-            ResponseEntity<ExecuteQueryResponse> responseEntity = ResponseEntity.ok(response);
-            LOGGER.info("ResponseEntity created with status: " + responseEntity.getStatusCode());
+    /**
+     * Close a result handle and release its connection before the TTL expires.
+     *
+     * DELETE /api/v1/query/results/{handleId}
+     */
+    @DeleteMapping("/results/{handleId}")
+    public ResponseEntity<?> closeResult(@PathVariable String handleId) {
+        boolean closed = ResultHandleManager.getInstance().close(handleId);
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "closed", closed
+        ));
+    }
 
-            return responseEntity;        } catch (Exception e) {
+    /**
+     * Execute a SELECT query and stream the rows as NDJSON while they are read.
+     * Rows are never collected in memory; the Statement and Connection are
+     * released when the stream completes or the client disconnects.
+     * ClickHouse queries without "params" are read as RowBinary (see {@link ClickHouseBinaryReader}).
+     *
+     * POST /api/v1/query/stream
+     * Body: {
+     *   "sql": "SELECT * FROM big_table",
+     *   "connectionId": "optional-connection-id",
+     *   "fetchSize": 1000,
+     *   "timeoutSeconds": 300
+     * }
+     */
+    @PostMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamQuery(@RequestBody ExecuteQueryRequest request,
+                                                             HttpServletRequest httpRequest) {
+        long startTime = System.currentTimeMillis();
+
+        LOGGER.info("=== Streaming Query Started ===");
+        LOGGER.info("SQL: " + request.getSql());
+
+        if (request.getSql() == null || request.getSql().trim().isEmpty()) {
+            return executor.jsonError(400, Map.of(
+                    "success", false,
+                    "error", "SQL query is required",
+                    "message", "Please provide a valid SQL query"
+            ));
+        }
+
+        ResultSet rs = null;
+        ClickHouseBinaryReader reader = null;
+        DatabaseConnection conn;
+        ConnectionLease lease = null;
+        try {
+            lease = ConnectionManager.getInstance().lease(SessionIds.resolve(httpRequest), request.getConnectionId());
+            conn = lease.getConnection();
+            LOGGER.info("Using connection: " + conn.getDatabaseType());
+
+            int fetchSize = (request.getFetchSize() != null && request.getFetchSize() > 0)
+                    ? request.getFetchSize()
+                    : DEFAULT_STREAM_FETCH_SIZE;
+
+            // Execute before committing to a streaming response so errors are reported as JSON
+            QueryOptions options = new QueryOptions(fetchSize);
+            options.setParameters(request.getParams());
+            options.setTimeoutSeconds(executor.timeoutFor(request.getTimeoutSeconds()));
+            if (executor.useBinaryFetch(conn, request.getParams())) {
+                reader = ClickHouseBinaryReader.open(conn, request.getSql(), options);
+            } else {
+                rs = conn.executeStreamingQuery(request.getSql(), options);
+            }
+
+        } catch (SessionQuotaExceededException e) {
+            return executor.jsonError(429, executor.quotaExceeded(e));
+        } catch (Exception e) {
             long executionTime = System.currentTimeMillis() - startTime;
 
-            LOGGER.log(Level.SEVERE, "Error executing query", e);
-            LOGGER.severe("Error details: " + e.getMessage());
+            Map<String, Object> timeout = JdbcUtils.isTimeout(e)
+                    ? executor.timedOut(lease, request.getTimeoutSeconds(), e, executionTime) : null;
+            if (lease != null) {
+                lease.close();
+            }
+            if (timeout != null) {
+                return executor.jsonError(504, timeout);
+            }
+            LOGGER.log(Level.SEVERE, "Error executing streaming query", e);
 
-            return ResponseEntity.status(400).body(Map.of(
+            return executor.jsonError(400, Map.of(
+                    "success", false,
+                    "error", "Query execution failed",
+                    "message", e.getMessage(),
+                    "executionTimeMs", executionTime
+            ));
+        }
+
+        // The lease is released by the streaming body once the rows have been written
+        String databaseType = conn.getDatabaseType();
+        ConnectionLease streamLease = lease;
+        if (reader != null) {
+            ClickHouseBinaryReader binaryReader = reader;
+            StreamingResponseBody body = out -> {
+                try {
+                    long rows = binaryReader.writeStream(out, databaseType, startTime);
+                    LOGGER.info("Streamed " + rows + " rows (RowBinary) in " + (System.currentTimeMillis() - startTime) + "ms");
+                } finally {
+                    // Kills the query if the client disconnected before the last row
+                    binaryReader.close();
+                    streamLease.close();
+                }
+            };
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(ResultStreamWriter.NDJSON_MEDIA_TYPE))
+                    .body(body);
+        }
+
+        ResultSet cursor = rs;
+        StreamingResponseBody body = out -> {
+            boolean completed = false;
+            try {
+                long rows = ResultStreamWriter.write(cursor, out, databaseType, startTime);
+                completed = true;
+                LOGGER.info("Streamed " + rows + " rows in " + (System.currentTimeMillis() - startTime) + "ms");
+            } finally {
+                if (!completed) {
+                    // Client disconnected: stop the query on the server side
+                    JdbcUtils.cancelQuietly(cursor);
+                }
+                JdbcUtils.closeQuietly(cursor);
+                streamLease.close();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ResultStreamWriter.NDJSON_MEDIA_TYPE))
+                .body(body);
+    }
+
+    /**
+     * Export a PostgreSQL query result with COPY (query) TO STDOUT, streamed to the response
+     * as a file download. The COPY data goes from the database socket to the HTTP response
+     * as it arrives, so exporting a multi-GB result uses constant memory.
+     *
+     * POST /api/v1/query/copy
+     * Body: {
+     *   "sql": "SELECT * FROM big_table",
+     *   "connectionId": "optional-connection-id",
+     *   "format": "csv" (default) or "binary" (PostgreSQL binary COPY format),
+     *   "header": true,              (CSV header line)
+     *   "timeoutSeconds": 3600
+     * }
+     *
+     * Errors before the first byte (invalid SQL, not a PostgreSQL connection) are reported
+     * as JSON; a failure during the transfer aborts the download.
+     */
+    @PostMapping("/copy")
+    public ResponseEntity<StreamingResponseBody> copyQuery(@RequestBody CopyRequest request,
+                                                           HttpServletRequest httpRequest) {
+        long startTime = System.currentTimeMillis();
+
+        LOGGER.info("=== COPY Export Started ===");
+        LOGGER.info("SQL: " + request.getSql());
+
+        if (request.getSql() == null || request.getSql().trim().isEmpty()) {
+            return executor.jsonError(400, Map.of(
+                    "success", false,
+                    "error", "SQL query is required"
+            ));
+        }
+        String format = (request.getFormat() != null) ? request.getFormat().toLowerCase(Locale.ROOT) : "csv";
+        if (!format.equals("csv") && !format.equals("binary")) {
+            return executor.jsonError(400, Map.of(
+                    "success", false,
+                    "error", "Unsupported COPY format: " + request.getFormat(),
+                    "message", "Use \"csv\" or \"binary\""
+            ));
+        }
+        boolean binary = format.equals("binary");
+
+        PostgresCopyOut copy;
+        ConnectionLease lease = null;
+        try {
+            lease = ConnectionManager.getInstance().lease(SessionIds.resolve(httpRequest), request.getConnectionId());
+            DatabaseConnection conn = lease.getConnection();
+            if (!(conn instanceof PostgresConnection)) {
+                lease.close();
+                return executor.jsonError(400, Map.of(
+                        "success", false,
+                        "error", "COPY export requires a PostgreSQL connection",
+                        "databaseType", conn.getDatabaseType()
+                ));
+            }
+
+            // Start the copy before committing to a streaming response so errors are reported as JSON
+            copy = ((PostgresConnection) conn).copyOut(request.getSql(), binary,
+                    request.getHeader() == null || request.getHeader(), executor.timeoutFor(request.getTimeoutSeconds()));
+
+        } catch (SessionQuotaExceededException e) {
+            return executor.jsonError(429, executor.quotaExceeded(e));
+        } catch (Exception e) {
+            long executionTime = System.currentTimeMillis() - startTime;
+
+            Map<String, Object> timeout = JdbcUtils.isTimeout(e)
+                    ? executor.timedOut(lease, request.getTimeoutSeconds(), e, executionTime) : null;
+            if (lease != null) {
+                lease.close();
+            }
+            if (timeout != null) {
+                return executor.jsonError(504, timeout);
+            }
+            LOGGER.log(Level.SEVERE, "Error starting COPY export", e);
+            return executor.jsonError(400, Map.of(
+                    "success", false,
+                    "error", "COPY export failed",
+                    "message", e.getMessage(),
+                    "executionTimeMs", executionTime
+            ));
+        }
+
+        ConnectionLease copyLease = lease;
+        StreamingResponseBody body = out -> {
+            try {
+                long bytes = copy.transferTo(out);
+                LOGGER.info("COPY exported " + copy.getRowCount() + " rows (" + bytes + " bytes) in " +
+                        (System.currentTimeMillis() - startTime) + "ms");
+            } catch (IOException e) {
+                if (JdbcUtils.isTimeout(e)) {
+                    QueryMetrics.getInstance().recordTimeout(copyLease.getConnection());
+                }
+                LOGGER.warning("COPY export aborted: " + e.getMessage());
+                throw e;
+            } finally {
+                // Cancels the copy on the server if the client went away
+                copy.close();
+                copyLease.close();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(binary ? MediaType.APPLICATION_OCTET_STREAM : MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(binary ? "export.bin" : "export.csv").build().toString())
+                .body(body);
+    }
+
+    /**
+     * Export a query result as a CSV, TSV or Parquet file download.
+     * The query is re-run with a forward-only cursor (fetchSize rows per round trip)
+     * and each row is written to the response as it is read, so the export is not
+     * limited by queryapp.results.max-rows and never holds the whole result.
+     * Parquet is written by the ClickHouse server (FORMAT Parquet) and passed through;
+     * it is not available for PostgreSQL.
+     *
+     * POST /api/v1/query/export?format=csv|tsv|parquet&header=true
+     * Body: {
+     *   "sql": "SELECT * FROM big_table",
+     *   "connectionId": "optional-connection-id",
+     *   "params": [...],             (CSV/TSV only)
+     *   "fetchSize": 1000,
+     *   "timeoutSeconds": 3600
+     * }
+     *
+     * Errors before the first row are reported as JSON; a failure during the transfer
+     * aborts the download.
+     */
+    @PostMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportQuery(@RequestBody ExecuteQueryRequest request,
+                                                             @RequestParam(defaultValue = "csv") String format,
+                                                             @RequestParam(defaultValue = "true") boolean header,
+                                                             HttpServletRequest httpRequest) {
+        long startTime = System.currentTimeMillis();
+
+        LOGGER.info("=== Export Started ===");
+        LOGGER.info("SQL: " + request.getSql());
+
+        if (request.getSql() == null || request.getSql().trim().isEmpty()) {
+            return executor.jsonError(400, Map.of(
+                    "success", false,
+                    "error", "SQL query is required"
+            ));
+        }
+        ExportFormat exportFormat = ExportFormat.fromName(format);
+        if (exportFormat == null) {
+            return executor.jsonError(400, Map.of(
+                    "success", false,
+                    "error", "Unsupported export format: " + format,
+                    "message", "Use \"csv\", \"tsv\" or \"parquet\""
+            ));
+        }
+
+        ResultSet rs = null;
+        ClickHouseFileExport fileExport = null;
+        DatabaseConnection conn;
+        ConnectionLease lease = null;
+        try {
+            lease = ConnectionManager.getInstance().lease(SessionIds.resolve(httpRequest), request.getConnectionId());
+            conn = lease.getConnection();
+
+            // Execute before committing to a file download so errors are reported as JSON
+            if (exportFormat == ExportFormat.PARQUET) {
+                if (!ClickHouseBinaryReader.supports(conn, request.getParams())) {
+                    lease.close();
+                    return executor.jsonError(400, Map.of(
+                            "success", false,
+                            "error", "Parquet export requires a ClickHouse connection and a query without params",
+                            "databaseType", conn.getDatabaseType()
+                    ));
+                }
+                fileExport = ClickHouseFileExport.open(conn, request.getSql(), ClickHouseFormat.Parquet,
+                        executor.timeoutFor(request.getTimeoutSeconds()));
+            } else {
+                int fetchSize = (request.getFetchSize() != null && request.getFetchSize() > 0)
+                        ? request.getFetchSize()
+                        : DEFAULT_STREAM_FETCH_SIZE;
+                QueryOptions options = new QueryOptions(fetchSize);
+                options.setParameters(request.getParams());
+                options.setTimeoutSeconds(executor.timeoutFor(request.getTimeoutSeconds()));
+                rs = conn.executeStreamingQuery(request.getSql(), options);
+            }
+
+        } catch (SessionQuotaExceededException e) {
+            return executor.jsonError(429, executor.quotaExceeded(e));
+        } catch (Exception e) {
+            long executionTime = System.currentTimeMillis() - startTime;
+
+            Map<String, Object> timeout = JdbcUtils.isTimeout(e)
+                    ? executor.timedOut(lease, request.getTimeoutSeconds(), e, executionTime) : null;
+            if (lease != null) {
+                lease.close();
+            }
+            if (timeout != null) {
+                return executor.jsonError(504, timeout);
+            }
+            LOGGER.log(Level.SEVERE, "Error executing export query", e);
+            return executor.jsonError(400, Map.of(
                     "success", false,
                     "error", "Query execution failed",
                     "message", e.getMessage(),
                     "executionTimeMs", executionTime
             ));
         }
+
+        ConnectionLease exportLease = lease;
+        StreamingResponseBody body;
+        if (fileExport != null) {
+            ClickHouseFileExport export = fileExport;
+            body = out -> {
+                try {
+                    long bytes = export.transferTo(out);
+                    LOGGER.info("Exported " + bytes + " bytes of Parquet in " + (System.currentTimeMillis() - startTime) + "ms");
+                } finally {
+                    // Kills the query if the client disconnected before the end
+                    export.close();
+                    exportLease.close();
+                }
+            };
+        } else {
+            ResultSet cursor = rs;
+            body = out -> {
+                long[] rowCount = {0};
+                boolean completed = false;
+                try {
+                    DelimitedExportWriter.write(cursor, out, exportFormat, header, rowCount);
+                    JdbcUtils.commit(cursor);
+                    completed = true;
+                    LOGGER.info("Exported " + rowCount[0] + " rows as " + exportFormat + " in " +
+                            (System.currentTimeMillis() - startTime) + "ms");
+                } catch (SQLException e) {
+                    if (JdbcUtils.isTimeout(e)) {
+                        QueryMetrics.getInstance().recordTimeout(exportLease.getConnection());
+                    }
+                    // The file is incomplete: fail the download rather than end it early
+                    LOGGER.warning("Export failed after " + rowCount[0] + " rows: " + e.getMessage());
+                    throw new IOException("Export failed after " + rowCount[0] + " rows: " + e.getMessage(), e);
+                } finally {
+                    if (!completed) {
+                        // Client disconnected: stop the query on the server side
+                        JdbcUtils.cancelQuietly(cursor);
+                    }
+                    JdbcUtils.closeQuietly(cursor);
+                    exportLease.close();
+                }
+            };
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("export." + exportFormat.getExtension()).build().toString())
+                .body(body);
+    }
+
+    /**
+     * Run a multi-statement script on one pooled connection and stream each
+     * statement's result set or update count as NDJSON, in order.
+     * The script is split at top-level semicolons; semicolons in literals, comments
+     * and PostgreSQL dollar-quoted bodies do not end a statement.
+     *
+     * POST /api/v1/query/script
+     * Body: {
+     *   "sql": "CREATE TEMP TABLE t AS SELECT 1 AS x; SELECT * FROM t;",
+     *   "connectionId": "optional-connection-id",
+     *   "maxRows": 1000,              (per result, capped by queryapp.results.max-rows)
+     *   "continueOnError": false,
+     *   "timeoutSeconds": 300         (per statement)
+     * }
+     *
+     * Statements run in autocommit mode, so a script may manage its own transactions
+     * with BEGIN/COMMIT. Before the connection returns to the pool an unfinished
+     * transaction is rolled back and PostgreSQL session state is discarded.
+     * See {@link ScriptRunner} for the stream layout.
+     */
+    @PostMapping("/script")
+    public ResponseEntity<StreamingResponseBody> runScript(@RequestBody ScriptRequest request,
+                                                           HttpServletRequest httpRequest) {
+        long startTime = System.currentTimeMillis();
+
+        LOGGER.info("=== Script Execution Started ===");
+
+        if (request.getSql() == null || request.getSql().trim().isEmpty()) {
+            return executor.jsonError(400, Map.of(
+                    "success", false,
+                    "error", "SQL script is required"
+            ));
+        }
+
+        DatabaseConnection conn;
+        List<String> statements;
+        Connection jdbcConn;
+        ConnectionLease lease = null;
+        try {
+            lease = ConnectionManager.getInstance().lease(SessionIds.resolve(httpRequest), request.getConnectionId());
+            conn = lease.getConnection();
+            LOGGER.info("Using connection: " + conn.getDatabaseType());
+
+            statements = SqlText.split(request.getSql(),
+                    ConnectionFactory.DatabaseType.fromString(conn.getDatabaseType()));
+            if (statements.isEmpty()) {
+                lease.close();
+                return executor.jsonError(400, Map.of(
+                        "success", false,
+                        "error", "Script contains no statements"
+                ));
+            }
+            LOGGER.info("Script split into " + statements.size() + " statements");
+
+            // Borrow before committing to a streaming response so errors are reported as JSON
+            jdbcConn = conn.openConnection();
+
+        } catch (SessionQuotaExceededException e) {
+            return executor.jsonError(429, executor.quotaExceeded(e));
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error starting script", e);
+            if (lease != null) {
+                lease.close();
+            }
+
+            return executor.jsonError(400, Map.of(
+                    "success", false,
+                    "error", "Script execution failed",
+                    "message", e.getMessage(),
+                    "executionTimeMs", System.currentTimeMillis() - startTime
+            ));
+        }
+
+        long maxRows = executor.limiter(request.getMaxRows(), null).getMaxRows();
+        int timeoutSeconds = executor.timeoutFor(request.getTimeoutSeconds());
+        ConnectionLease scriptLease = lease;
+        StreamingResponseBody body = out -> {
+            try {
+                int succeeded = ScriptRunner.run(jdbcConn, statements, out, conn, maxRows,
+                        request.isContinueOnError(), timeoutSeconds, startTime);
+                LOGGER.info("Script finished: " + succeeded + " of " + statements.size() +
+                        " statements succeeded in " + (System.currentTimeMillis() - startTime) + "ms");
+            } finally {
+                conn.resetSession(jdbcConn);
+                JdbcUtils.closeQuietly(null, null, jdbcConn);
+                scriptLease.close();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ResultStreamWriter.NDJSON_MEDIA_TYPE))
+                .body(body);
+    }
+
+    /**
+     * Result cache statistics: entries, size, hits, misses, evictions.
+     *
+     * GET /api/v1/query/cache
+     */
+    @GetMapping("/cache")
+    public ResponseEntity<?> getCacheStats() {
+        Map<String, Object> stats = ResultCache.getInstance().getStats();
+        stats.put("enabled", executor.isCacheEnabled());
+        stats.put("defaultTtlSeconds", executor.getCacheTtlSeconds());
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Aggregated latency per database type and phase (acquire, execute, fetch, serialize).
+     *
+     * GET /api/v1/query/metrics
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<?> getQueryMetrics() {
+        return ResponseEntity.ok(QueryMetrics.getInstance().snapshot());
+    }
+
+    /**
+     * Drop all cached results.
+     *
+     * DELETE /api/v1/query/cache
+     */
+    @DeleteMapping("/cache")
+    public ResponseEntity<?> clearCache() {
+        ResultCache.getInstance().clear();
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Result cache cleared"
+        ));
     }
 
     /**
@@ -124,16 +951,19 @@ public class QueryController {
      * POST /api/v1/query/update
      * Body: {
      *   "sql": "UPDATE table SET column = value WHERE id = 1",
-     *   "connectionId": "optional-connection-id"
+     *   "connectionId": "optional-connection-id",
+     *   "timeoutSeconds": 300
      * }
      */
     @PostMapping("/update")
-    public ResponseEntity<?> executeUpdate(@RequestBody ExecuteQueryRequest request) {
+    public ResponseEntity<?> executeUpdate(@RequestBody ExecuteQueryRequest request,
+                                          HttpServletRequest httpRequest) {
         long startTime = System.currentTimeMillis();
 
         LOGGER.info("=== Update Execution Started ===");
         LOGGER.info("SQL: " + request.getSql());
 
+        ConnectionLease lease = null;
         try {
             // Validate input
             if (request.getSql() == null || request.getSql().trim().isEmpty()) {
@@ -143,11 +973,12 @@ public class QueryController {
                 ));
             }
 
-            DatabaseConnection conn = getConnection(request.getConnectionId());
+            lease = ConnectionManager.getInstance().lease(SessionIds.resolve(httpRequest), request.getConnectionId());
+            DatabaseConnection conn = lease.getConnection();
             LOGGER.info("Using connection: " + conn.getDatabaseType());
 
             // Execute the update WITHOUT MODIFICATION
-            int rowsAffected = conn.executeUpdate(request.getSql());
+            int rowsAffected = conn.executeUpdate(request.getSql(), executor.timeoutFor(request.getTimeoutSeconds()));
 
             long executionTime = System.currentTimeMillis() - startTime;
 
@@ -161,9 +992,14 @@ public class QueryController {
                     "databaseType", conn.getDatabaseType()
             ));
 
+        } catch (SessionQuotaExceededException e) {
+            return ResponseEntity.status(429).body(executor.quotaExceeded(e));
         } catch (Exception e) {
             long executionTime = System.currentTimeMillis() - startTime;
 
+            if (JdbcUtils.isTimeout(e)) {
+                return ResponseEntity.status(504).body(executor.timedOut(lease, request.getTimeoutSeconds(), e, executionTime));
+            }
             LOGGER.log(Level.SEVERE, "Error executing update", e);
 
             return ResponseEntity.status(400).body(Map.of(
@@ -172,7 +1008,235 @@ public class QueryController {
                     "message", e.getMessage(),
                     "executionTimeMs", executionTime
             ));
+        } finally {
+            if (lease != null) {
+                lease.close();
+            }
+        }
+    }
+
+    /**
+     * Execute many INSERT/UPDATE/DELETE statements in one round trip.
+     * Statements are sent with JDBC addBatch/executeBatch on one pooled connection;
+     * on PostgreSQL the batch runs in a single transaction and is rolled back as a
+     * whole if any statement fails.
+     *
+     * POST /api/v1/query/batch
+     * Body, either a list of statements: {
+     *   "connectionId": "optional-connection-id",
+     *   "statements": ["INSERT INTO t VALUES (1)", "UPDATE t SET x = 2"]
+     * }
+     * or one parameterized statement plus parameter rows: {
+     *   "sql": "INSERT INTO t (id, name) VALUES (?, ?)",
+     *   "paramTypes": ["int", "string"],
+     *   "rows": [[1, "a"], [2, "b"]]
+     * }
+     * Both forms accept "timeoutSeconds", applied to each round trip of the batch.
+     *
+     * "counts" holds the update count per statement or row; -2 (SUCCESS_NO_INFO)
+     * means the driver executed it without reporting a count, as pgJDBC does for
+     * INSERTs it rewrote into multi-row INSERTs.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> executeBatch(@RequestBody BatchRequest request,
+                                          HttpServletRequest httpRequest) {
+        long startTime = System.currentTimeMillis();
+
+        LOGGER.info("=== Batch Execution Started ===");
+
+        ConnectionLease lease = null;
+        try {
+            boolean hasStatements = request.getStatements() != null && !request.getStatements().isEmpty();
+            boolean hasRows = request.getSql() != null && !request.getSql().trim().isEmpty();
+            if (hasStatements == hasRows) {
+                return ResponseEntity.status(400).body(Map.of(
+                        "success", false,
+                        "error", "Either statements or sql with parameter rows is required"
+                ));
+            }
+
+            List<List<QueryParameter>> rows = null;
+            if (hasRows) {
+                rows = toParameterRows(request.getParamTypes(), request.getRows());
+            }
+
+            lease = ConnectionManager.getInstance().lease(SessionIds.resolve(httpRequest), request.getConnectionId());
+            DatabaseConnection conn = lease.getConnection();
+            LOGGER.info("Using connection: " + conn.getDatabaseType());
+
+            int timeoutSeconds = executor.timeoutFor(request.getTimeoutSeconds());
+            int[] counts = hasRows
+                    ? conn.executeBatch(request.getSql(), rows, timeoutSeconds)
+                    : conn.executeBatch(request.getStatements(), timeoutSeconds);
+
+            long totalRowsAffected = 0;
+            for (int count : counts) {
+                if (count > 0) {
+                    totalRowsAffected += count;
+                }
+            }
+
+            long executionTime = System.currentTimeMillis() - startTime;
+
+            LOGGER.info("Batch of " + counts.length + " executed successfully in " + executionTime + "ms");
+
+            return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "statementCount", counts.length,
+                    "counts", counts,
+                    "rowsAffected", totalRowsAffected,
+                    "executionTimeMs", executionTime,
+                    "databaseType", conn.getDatabaseType()
+            ));
+
+        } catch (SessionQuotaExceededException e) {
+            return ResponseEntity.status(429).body(executor.quotaExceeded(e));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(Map.of(
+                    "success", false,
+                    "error", "Invalid batch",
+                    "message", e.getMessage()
+            ));
+        } catch (Exception e) {
+            long executionTime = System.currentTimeMillis() - startTime;
+
+            if (JdbcUtils.isTimeout(e)) {
+                return ResponseEntity.status(504).body(executor.timedOut(lease, request.getTimeoutSeconds(), e, executionTime));
+            }
+            LOGGER.log(Level.SEVERE, "Error executing batch", e);
+
+            return ResponseEntity.status(400).body(Map.of(
+                    "success", false,
+                    "error", "Batch execution failed",
+                    "message", e.getMessage(),
+                    "executionTimeMs", executionTime
+            ));
+        } finally {
+            if (lease != null) {
+                lease.close();
+            }
+        }
+    }
+
+    /**
+     * Turn positional value rows into typed parameter rows.
+     *
+     * @throws IllegalArgumentException if types are missing or a row has the wrong width
+     */
+    private List<List<QueryParameter>> toParameterRows(List<String> types, List<List<Object>> values) {
+        if (types == null || types.isEmpty()) {
+            throw new IllegalArgumentException("paramTypes is required with sql");
+        }
+        if (values == null || values.isEmpty()) {
+            throw new IllegalArgumentException("rows is required with sql");
+        }
+        for (String type : types) {
+            new QueryParameter(type, null).validateType();
+        }
+
+        List<List<QueryParameter>> rows = new ArrayList<>(values.size());
+        for (int i = 0; i < values.size(); i++) {
+            List<Object> row = values.get(i);
+            if (row == null || row.size() != types.size()) {
+                throw new IllegalArgumentException("Row " + i + " has " + (row == null ? 0 : row.size()) +
+                        " values, expected " + types.size());
+            }
+            List<QueryParameter> params = new ArrayList<>(row.size());
+            for (int j = 0; j < row.size(); j++) {
+                params.add(new QueryParameter(types.get(j), row.get(j)));
+            }
+            rows.add(params);
+        }
+        return rows;
+    }
+
+    /**
+     * Bulk-load a CSV, TSV or NDJSON file into a table and stream the progress as NDJSON.
+     * PostgreSQL: COPY table (columns) FROM STDIN
+     * ClickHouse: INSERT INTO table FORMAT CSVWithNames / TabSeparatedWithNames / JSONEachRow
+     *
+     * POST /api/v1/query/import?table=events&format=csv&connectionId=...&timeoutSeconds=600
+     * Body: the file, either as the raw request body (streamed, no size limit) or as
+     * the "file" part of a multipart upload. Its first line names the columns.
+     *
+     * Response lines: start, progress (about once per second), then end with the
+     * row count, or an error line.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<StreamingResponseBody> importData(@RequestParam String table,
+                                                            @RequestParam(defaultValue = "csv") String format,
+                                                            @RequestParam(required = false) String connectionId,
+                                                            @RequestParam(required = false) Integer timeoutSeconds,
+                                                            @RequestParam(value = "file", required = false) MultipartFile file,
+                                                            HttpServletRequest httpRequest) {
+        long startTime = System.currentTimeMillis();
+
+        LOGGER.info("=== Bulk Import Started ===");
+        LOGGER.info("Table: " + table + ", format: " + format);
+
+        if (!TABLE_NAME.matcher(table).matches()) {
+            return executor.jsonError(400, Map.of(
+                    "success", false,
+                    "error", "Invalid table name: " + table,
+                    "message", "Use table or schema.table (letters, digits, _ and $)"
+            ));
+        }
+        ImportFormat importFormat = ImportFormat.fromName(format);
+        if (importFormat == null) {
+            return executor.jsonError(400, Map.of(
+                    "success", false,
+                    "error", "Unsupported import format: " + format,
+                    "message", "Use \"csv\", \"tsv\" or \"ndjson\""
+            ));
+        }
+
+        ConnectionLease lease;
+        InputStream in;
+        try {
+            lease = ConnectionManager.getInstance().lease(SessionIds.resolve(httpRequest), connectionId);
+        } catch (SessionQuotaExceededException e) {
+            return executor.jsonError(429, executor.quotaExceeded(e));
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error starting import", e);
+            return executor.jsonError(400, Map.of(
+                    "success", false,
+                    "error", "Import failed",
+                    "message", e.getMessage()
+            ));
+        }
+        DatabaseConnection conn = lease.getConnection();
+        try {
+            if (!BulkImport.supports(conn)) {
+                lease.close();
+                return executor.jsonError(400, Map.of(
+                        "success", false,
+                        "error", "Bulk import is not supported for " + conn.getDatabaseType()
+                ));
+            }
+            // A multipart file is spooled by the servlet container; a raw body is read as it arrives
+            in = (file != null) ? file.getInputStream() : httpRequest.getInputStream();
+        } catch (IOException e) {
+            lease.close();
+            return executor.jsonError(400, Map.of(
+                    "success", false,
+                    "error", "Cannot read the upload",
+                    "message", e.getMessage()
+            ));
         }
+
+        int timeout = executor.timeoutFor(timeoutSeconds);
+        StreamingResponseBody body = out -> {
+            try {
+                BulkImport.run(conn, table, importFormat, in, timeout, out, startTime);
+            } finally {
+                in.close();
+                lease.close();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ResultStreamWriter.NDJSON_MEDIA_TYPE))
+                .body(body);
     }
 
     /**
@@ -183,16 +1247,19 @@ public class QueryController {
      * POST /api/v1/query/explain
      * Body: {
      *   "sql": "SELECT * FROM table",
-     *   "connectionId": "optional-connection-id"
+     *   "connectionId": "optional-connection-id",
+     *   "timeoutSeconds": 300       (EXPLAIN ANALYZE runs the query)
      * }
      */
     @PostMapping("/explain")
-    public ResponseEntity<?> explainQuery(@RequestBody ExecuteQueryRequest request) {
+    public ResponseEntity<?> explainQuery(@RequestBody ExecuteQueryRequest request,
+                                          HttpServletRequest httpRequest) {
         long startTime = System.currentTimeMillis();
 
         LOGGER.info("=== EXPLAIN Execution Started ===");
         LOGGER.info("SQL: " + request.getSql());
 
+        ConnectionLease lease = null;
         try {
             // Validate input
             if (request.getSql() == null || request.getSql().trim().isEmpty()) {
@@ -202,13 +1269,14 @@ public class QueryController {
                 ));
             }
 
-            DatabaseConnection conn = getConnection(request.getConnectionId());
+            lease = ConnectionManager.getInstance().lease(SessionIds.resolve(httpRequest), request.getConnectionId());
+            DatabaseConnection conn = lease.getConnection();
             LOGGER.info("Using connection: " + conn.getDatabaseType());
 
             // Execute EXPLAIN using the appropriate database syntax
-            ResultSet rs = conn.explainQuery(request.getSql());
+            ResultSet rs = conn.explainQuery(request.getSql(), executor.timeoutFor(request.getTimeoutSeconds()));
 
-            QueryResultSet resultSet = resultSetToJson(rs);
+            QueryResultSet resultSet = QueryExecutor.resultSetToJson(rs, new ResultLimiter(0, 0));
 
             // Now close resources in correct order: ResultSet -> Statement -> Connection
             Statement stmt = rs.getStatement();
@@ -234,9 +1302,14 @@ public class QueryController {
                     "queryType", conn.getDatabaseType().equals("PostgreSQL") ? "EXPLAIN ANALYZE" : "EXPLAIN"
             ));
 
+        } catch (SessionQuotaExceededException e) {
+            return ResponseEntity.status(429).body(executor.quotaExceeded(e));
         } catch (Exception e) {
             long executionTime = System.currentTimeMillis() - startTime;
 
+            if (JdbcUtils.isTimeout(e)) {
+                return ResponseEntity.status(504).body(executor.timedOut(lease, request.getTimeoutSeconds(), e, executionTime));
+            }
             LOGGER.log(Level.SEVERE, "Error executing EXPLAIN", e);
 
             return ResponseEntity.status(400).body(Map.of(
@@ -245,91 +1318,184 @@ public class QueryController {
                     "message", e.getMessage(),
                     "executionTimeMs", executionTime
             ));
+        } finally {
+            if (lease != null) {
+                lease.close();
+            }
         }
     }
+}
 
-    /**
-     * Get the database connection to use.
-     * If no connectionId is provided, uses the current connection.
-     */
-    private DatabaseConnection getConnection(String connectionId) throws Exception {
-        ConnectionManager manager = ConnectionManager.getInstance();
+/**
+ * Request body for query execution.
+ */
+class ExecuteQueryRequest {
+    private String sql;
+    private String connectionId;
+    private Integer fetchSize;
+    private String format;
+    private boolean paged;
+    private Integer pageSize;
+    private Long maxRows;
+    private Long maxBytes;
+    private boolean bypassCache;
+    private Long cacheTtlSeconds;
+    private Integer timeoutSeconds;
+    private List<QueryParameter> params;
 
-        if (connectionId != null && !connectionId.isEmpty()) {
-            DatabaseConnection conn = manager.getConnection(connectionId);
-            if (conn == null) {
-                throw new Exception("Connection not found: " + connectionId);
-            }
-            return conn;
-        }
+    public String getSql() { return sql; }
+    public void setSql(String sql) { this.sql = sql; }
 
-        return manager.getCurrentConnection();
-    }
+    public String getConnectionId() { return connectionId; }
+    public void setConnectionId(String connectionId) { this.connectionId = connectionId; }
 
-    /**
-     * Convert a JDBC ResultSet to a JSON-compatible format.
-     * Preserves data types from the database.
-     * IMPORTANT: This must be called BEFORE closing the ResultSet!
-     */
-    private QueryResultSet resultSetToJson(ResultSet rs) throws Exception {
-        List<Map<String, Object>> rows = new ArrayList<>();
-        List<String> columnNames = new ArrayList<>();
+    public Integer getFetchSize() { return fetchSize; }
+    public void setFetchSize(Integer fetchSize) { this.fetchSize = fetchSize; }
 
-        try {
-            ResultSetMetaData metadata = rs.getMetaData();
-            int columnCount = metadata.getColumnCount();
-
-            LOGGER.info("Processing ResultSet with " + columnCount + " columns");
-
-            // Extract column names and types
-            for (int i = 1; i <= columnCount; i++) {
-                String columnName = metadata.getColumnName(i);
-                columnNames.add(columnName);
-                LOGGER.fine("Column " + i + ": " + columnName + " (Type: " + metadata.getColumnTypeName(i) + ")");
-            }
-
-            // Extract rows - read all data before closing
-            int rowCount = 0;
-            while (rs.next()) {
-                Map<String, Object> row = new LinkedHashMap<>();
-                for (int i = 1; i <= columnCount; i++) {
-                    String columnName = columnNames.get(i - 1);
-                    Object value = rs.getObject(i);
-
-                    // Convert to JSON-friendly types
-                    if (value != null) {
-                        row.put(columnName, value.toString());
-                    } else {
-                        row.put(columnName, null);
-                    }
-                }
-                rows.add(row);
-                rowCount++;
-            }
+    public String getFormat() { return format; }
+    public void setFormat(String format) { this.format = format; }
 
-            LOGGER.info("Read " + rowCount + " rows from ResultSet");
+    public boolean isCompactFormat() { return CompactResultSet.FORMAT.equalsIgnoreCase(format); }
 
-            return new QueryResultSet(columnNames, rows, rows.size());
+    public boolean isPaged() { return paged; }
+    public void setPaged(boolean paged) { this.paged = paged; }
 
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Error converting ResultSet to JSON", e);
-            throw new Exception("Failed to process query results: " + e.getMessage(), e);
-        }
-    }
+    public Integer getPageSize() { return pageSize; }
+    public void setPageSize(Integer pageSize) { this.pageSize = pageSize; }
+
+    public Long getMaxRows() { return maxRows; }
+    public void setMaxRows(Long maxRows) { this.maxRows = maxRows; }
+
+    public Long getMaxBytes() { return maxBytes; }
+    public void setMaxBytes(Long maxBytes) { this.maxBytes = maxBytes; }
+
+    public boolean isBypassCache() { return bypassCache; }
+    public void setBypassCache(boolean bypassCache) { this.bypassCache = bypassCache; }
+
+    public Long getCacheTtlSeconds() { return cacheTtlSeconds; }
+    public void setCacheTtlSeconds(Long cacheTtlSeconds) { this.cacheTtlSeconds = cacheTtlSeconds; }
+
+    public Integer getTimeoutSeconds() { return timeoutSeconds; }
+    public void setTimeoutSeconds(Integer timeoutSeconds) { this.timeoutSeconds = timeoutSeconds; }
+
+    public List<QueryParameter> getParams() { return params; }
+    public void setParams(List<QueryParameter> params) { this.params = params; }
 }
 
 /**
- * Request body for query execution.
+ * Request body for fan-out execution across connections.
  */
-class ExecuteQueryRequest {
+class FanOutRequest {
+    private String sql;
+    private List<String> connectionIds;
+    private Integer maxParallel;
+    private Integer timeoutSeconds;
+    private Long maxRows;
+    private Long maxBytes;
+    private List<QueryParameter> params;
+
+    public String getSql() { return sql; }
+    public void setSql(String sql) { this.sql = sql; }
+
+    public List<String> getConnectionIds() { return connectionIds; }
+    public void setConnectionIds(List<String> connectionIds) { this.connectionIds = connectionIds; }
+
+    public Integer getMaxParallel() { return maxParallel; }
+    public void setMaxParallel(Integer maxParallel) { this.maxParallel = maxParallel; }
+
+    public Integer getTimeoutSeconds() { return timeoutSeconds; }
+    public void setTimeoutSeconds(Integer timeoutSeconds) { this.timeoutSeconds = timeoutSeconds; }
+
+    public Long getMaxRows() { return maxRows; }
+    public void setMaxRows(Long maxRows) { this.maxRows = maxRows; }
+
+    public Long getMaxBytes() { return maxBytes; }
+    public void setMaxBytes(Long maxBytes) { this.maxBytes = maxBytes; }
+
+    public List<QueryParameter> getParams() { return params; }
+    public void setParams(List<QueryParameter> params) { this.params = params; }
+}
+
+/**
+ * Request body for script execution.
+ */
+class ScriptRequest {
+    private String sql;
+    private String connectionId;
+    private Long maxRows;
+    private boolean continueOnError;
+    private Integer timeoutSeconds;
+
+    public String getSql() { return sql; }
+    public void setSql(String sql) { this.sql = sql; }
+
+    public String getConnectionId() { return connectionId; }
+    public void setConnectionId(String connectionId) { this.connectionId = connectionId; }
+
+    public Long getMaxRows() { return maxRows; }
+    public void setMaxRows(Long maxRows) { this.maxRows = maxRows; }
+
+    public boolean isContinueOnError() { return continueOnError; }
+    public void setContinueOnError(boolean continueOnError) { this.continueOnError = continueOnError; }
+
+    public Integer getTimeoutSeconds() { return timeoutSeconds; }
+    public void setTimeoutSeconds(Integer timeoutSeconds) { this.timeoutSeconds = timeoutSeconds; }
+}
+
+/**
+ * Request body for a PostgreSQL COPY export.
+ */
+class CopyRequest {
     private String sql;
     private String connectionId;
+    private String format;
+    private Boolean header;
+    private Integer timeoutSeconds;
 
     public String getSql() { return sql; }
     public void setSql(String sql) { this.sql = sql; }
 
     public String getConnectionId() { return connectionId; }
     public void setConnectionId(String connectionId) { this.connectionId = connectionId; }
+
+    public String getFormat() { return format; }
+    public void setFormat(String format) { this.format = format; }
+
+    public Boolean getHeader() { return header; }
+    public void setHeader(Boolean header) { this.header = header; }
+
+    public Integer getTimeoutSeconds() { return timeoutSeconds; }
+    public void setTimeoutSeconds(Integer timeoutSeconds) { this.timeoutSeconds = timeoutSeconds; }
+}
+
+/**
+ * Request body for batch execution.
+ */
+class BatchRequest {
+    private String connectionId;
+    private List<String> statements;
+    private String sql;
+    private List<String> paramTypes;
+    private List<List<Object>> rows;
+    private Integer timeoutSeconds;
+
+    public String getConnectionId() { return connectionId; }
+    public void setConnectionId(String connectionId) { this.connectionId = connectionId; }
+
+    public List<String> getStatements() { return statements; }
+    public void setStatements(List<String> statements) { this.statements = statements; }
+
+    public String getSql() { return sql; }
+    public void setSql(String sql) { this.sql = sql; }
+
+    public List<String> getParamTypes() { return paramTypes; }
+    public void setParamTypes(List<String> paramTypes) { this.paramTypes = paramTypes; }
+
+    public List<List<Object>> getRows() { return rows; }
+    public void setRows(List<List<Object>> rows) { this.rows = rows; }
+
+    public Integer getTimeoutSeconds() { return timeoutSeconds; }
+    public void setTimeoutSeconds(Integer timeoutSeconds) { this.timeoutSeconds = timeoutSeconds; }
 }
 
 /**
@@ -337,11 +1503,16 @@ class ExecuteQueryRequest {
  */
 class ExecuteQueryResponse {
     private boolean success;
-    private QueryResultSet data;
+    private Object data;
     private long executionTimeMs;
     private String databaseType;
+    private boolean cached;
+    private QueryTimings timings;
 
-    public ExecuteQueryResponse(boolean success, QueryResultSet data, long executionTimeMs, String databaseType) {
+    /**
+     * @param data QueryResultSet ("rows"), CompactResultSet ("compact") or ResultPage ("paged")
+     */
+    public ExecuteQueryResponse(boolean success, Object data, long executionTimeMs, String databaseType) {
         this.success = success;
         this.data = data;
         this.executionTimeMs = executionTimeMs;
@@ -349,9 +1520,15 @@ class ExecuteQueryResponse {
     }
 
     public boolean isSuccess() { return success; }
-    public QueryResultSet getData() { return data; }
+    public Object getData() { return data; }
     public long getExecutionTimeMs() { return executionTimeMs; }
     public String getDatabaseType() { return databaseType; }
+
+    public boolean isCached() { return cached; }
+    public void setCached(boolean cached) { this.cached = cached; }
+
+    public QueryTimings getTimings() { return timings; }
+    public void setTimings(QueryTimings timings) { this.timings = timings; }
 }
 
 /**
@@ -361,14 +1538,22 @@ class QueryResultSet {
     private List<String> columns;
     private List<Map<String, Object>> rows;
     private int rowCount;
+    private String truncatedBy;
+    private long byteCount;
 
-    public QueryResultSet(List<String> columns, List<Map<String, Object>> rows, int rowCount) {
+    public QueryResultSet(List<String> columns, List<Map<String, Object>> rows, int rowCount,
+                          String truncatedBy, long byteCount) {
         this.columns = columns;
         this.rows = rows;
         this.rowCount = rowCount;
+        this.truncatedBy = truncatedBy;
+        this.byteCount = byteCount;
     }
 
     public List<String> getColumns() { return columns; }
     public List<Map<String, Object>> getRows() { return rows; }
     public int getRowCount() { return rowCount; }
+    public boolean isTruncated() { return truncatedBy != null; }
+    public String getTruncatedBy() { return truncatedBy; }
+    public long getByteCount() { return byteCount; }
 }
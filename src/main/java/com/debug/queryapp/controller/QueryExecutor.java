@@ -0,0 +1,445 @@
+// src/main/java/com/debug/queryapp/controller/QueryExecutor.java
+
+package com.debug.queryapp.controller;
+
+import com.debug.queryapp.connection.*;
+import com.debug.queryapp.model.CompactResultSet;
+import com.debug.queryapp.model.QueryTimings;
+import com.debug.queryapp.service.ClickHouseBinaryReader;
+import com.debug.queryapp.service.CountingOutputStream;
+import com.debug.queryapp.service.QueryMetrics;
+import com.debug.queryapp.service.ResultCache;
+import com.debug.queryapp.service.ResultLimiter;
+import com.debug.queryapp.service.ResultSetReader;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The execute path shared by /api/v1/query/execute and /api/v1/queries/execute:
+ * result caps, query timeouts, the result cache, the ClickHouse RowBinary fetch,
+ * metrics and the JSON response and error bodies.
+ *
+ * Holding the configuration in one place keeps both endpoints (and the other query
+ * endpoints that use its caps and timeouts) behaving the same way.
+ */
+@Component
+class QueryExecutor {
+    private static final Logger LOGGER = Logger.getLogger(QueryExecutor.class.getName());
+
+    // Rows fetched per driver round trip when reading or streaming a result
+    static final int DEFAULT_FETCH_SIZE = 1000;
+
+    // Global caps for results collected in memory (0 = unlimited); requests may only lower them
+    @Value("${queryapp.results.max-rows:100000}")
+    private long globalMaxRows;
+
+    @Value("${queryapp.results.max-bytes:104857600}")
+    private long globalMaxBytes;
+
+    // Opt-in result cache for /execute
+    @Value("${queryapp.cache.enabled:false}")
+    private boolean cacheEnabled;
+
+    @Value("${queryapp.cache.ttl-seconds:60}")
+    private long cacheTtlSeconds;
+
+    @Value("${queryapp.cache.max-bytes:268435456}")
+    private long cacheMaxBytes;
+
+    // Query timeout when the request sets none, and the most a request may ask for (0 = none)
+    @Value("${queryapp.query.timeout-seconds:300}")
+    private int defaultTimeoutSeconds;
+
+    @Value("${queryapp.query.max-timeout-seconds:3600}")
+    private int maxTimeoutSeconds;
+
+    // Read ClickHouse compact and streamed results as RowBinary instead of through JDBC
+    @Value("${queryapp.clickhouse.binary-fetch:true}")
+    private boolean clickHouseBinaryFetch;
+
+    // Spring-configured mapper (modules, date handling, indentation) for all JSON bodies
+    private final ObjectMapper objectMapper;
+
+    QueryExecutor(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void configureCache() {
+        ResultCache.getInstance().setMaxBytes(cacheMaxBytes);
+        LOGGER.info("Result cache " + (cacheEnabled ? "enabled" : "disabled") +
+                " (ttl=" + cacheTtlSeconds + "s, budget=" + cacheMaxBytes + " bytes)");
+    }
+
+    /**
+     * Run a query and collect its result in memory, within the row/byte caps, and write
+     * it as the response ("rows" or "compact" format). Served from the result cache when
+     * enabled; compact ClickHouse results without params are read as RowBinary.
+     * The lease stays with the caller, which closes it; the response body takes its own.
+     *
+     * @param lease Lease on the connection to run on
+     * @param request SQL, format, caps, timeout, cache options and bind parameters
+     * @throws Exception if execution fails (see {@link #failed})
+     */
+    ResponseEntity<StreamingResponseBody> execute(ConnectionLease lease, ExecuteQueryRequest request,
+                                                  long startTime, long startNanos) throws Exception {
+        DatabaseConnection conn = lease.getConnection();
+        ResultLimiter limiter = limiter(request.getMaxRows(), request.getMaxBytes());
+
+        String cacheKey = null;
+        if (cacheEnabled) {
+            String variant = (request.isCompactFormat() ? CompactResultSet.FORMAT : "rows") +
+                    ":" + limiter.getMaxRows() + ":" + limiter.getMaxBytes() +
+                    ":" + paramsKey(request.getParams());
+            cacheKey = ResultCache.key(conn, request.getSql(), variant);
+
+            if (!request.isBypassCache()) {
+                Object cached = ResultCache.getInstance().get(cacheKey);
+                if (cached != null) {
+                    long executionTime = System.currentTimeMillis() - startTime;
+                    LOGGER.info("Result served from cache in " + executionTime + "ms");
+
+                    return writeResult(lease, cached, -1, executionTime,
+                            new QueryTimings(0, 0, 0, 0, 0), startNanos);
+                }
+            }
+        }
+
+        // Execute the query WITHOUT MODIFICATION using JDBC driver.
+        // A forward-only cursor lets reading stop at the limits before the
+        // driver has buffered the whole result; the driver also gets the row cap.
+        QueryOptions options = new QueryOptions(DEFAULT_FETCH_SIZE);
+        options.setMaxRows(limiter.getDriverMaxRows());
+        options.setParameters(request.getParams());
+        options.setTimeoutSeconds(timeoutFor(request.getTimeoutSeconds()));
+        if (request.isCompactFormat() && useBinaryFetch(conn, request.getParams())) {
+            return executeBinary(request, lease, options, limiter, cacheKey, startTime, startNanos);
+        }
+        ResultSet rs = conn.executeStreamingQuery(request.getSql(), options);
+        long fetchStart = System.nanoTime();
+
+        // Convert ResultSet to JSON - MUST be done before closing
+        Object resultSet;
+        int rowCount;
+        int columnCount;
+        try {
+            if (request.isCompactFormat()) {
+                CompactResultSet compact = ResultSetReader.readCompact(rs, limiter);
+                resultSet = compact;
+                rowCount = compact.getRowCount();
+                columnCount = compact.getColumns().size();
+                LOGGER.info("Columns: " + compact.getColumns());
+            } else {
+                QueryResultSet rows = resultSetToJson(rs, limiter);
+                resultSet = rows;
+                rowCount = rows.getRowCount();
+                columnCount = rows.getColumns().size();
+                LOGGER.info("Column names: " + rows.getColumns());
+                if (rowCount > 0) {
+                    LOGGER.info("First row sample: " + rows.getRows().get(0));
+                }
+            }
+            JdbcUtils.commit(rs);
+
+            if (limiter.isTruncated()) {
+                // Stop the server from producing rows nobody will read
+                JdbcUtils.cancelQuietly(rs);
+            }
+        } finally {
+            // Close resources in correct order: ResultSet -> Statement -> Connection
+            JdbcUtils.closeQuietly(rs);
+        }
+        long fetchNanos = System.nanoTime() - fetchStart;
+
+        cache(cacheKey, request, resultSet, limiter);
+
+        long executionTime = System.currentTimeMillis() - startTime;
+
+        LOGGER.info("Query executed successfully in " + executionTime + "ms");
+        LOGGER.info("Rows returned: " + rowCount + (limiter.isTruncated()
+                ? " (truncated by " + limiter.getTruncatedBy() + ")" : ""));
+        LOGGER.info("Response data: format=" + request.getFormat() + ", columns=" + columnCount +
+                ", rows=" + rowCount);
+
+        return writeResult(lease, resultSet, rowCount, executionTime, new QueryTimings(
+                options.getAcquireNanos(), options.getExecuteNanos(), fetchNanos, 0, 0), startNanos);
+    }
+
+    /**
+     * Cache key part for the bind parameters. Each type and value is length-prefixed, so
+     * values containing separators cannot make two different parameter lists collide.
+     */
+    static String paramsKey(List<QueryParameter> params) {
+        if (params == null || params.isEmpty()) {
+            return "";
+        }
+        StringBuilder key = new StringBuilder();
+        for (QueryParameter param : params) {
+            String type = param.normalizedType();
+            key.append(type.length()).append(':').append(type);
+            if (param.getValue() == null) {
+                key.append("-;");
+            } else {
+                String value = param.getValue().toString();
+                key.append(value.length()).append(':').append(value).append(';');
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Compact execution over the ClickHouse RowBinary path; same response as the JDBC path.
+     */
+    private ResponseEntity<StreamingResponseBody> executeBinary(ExecuteQueryRequest request, ConnectionLease lease,
+                                                                QueryOptions options, ResultLimiter limiter,
+                                                                String cacheKey, long startTime,
+                                                                long startNanos) throws Exception {
+        DatabaseConnection conn = lease.getConnection();
+        CompactResultSet compact;
+        long fetchNanos;
+        ClickHouseBinaryReader reader = ClickHouseBinaryReader.open(conn, request.getSql(), options);
+        try {
+            long fetchStart = System.nanoTime();
+            compact = reader.readCompact(limiter);
+            fetchNanos = System.nanoTime() - fetchStart;
+        } finally {
+            reader.close();
+        }
+
+        cache(cacheKey, request, compact, limiter);
+
+        long executionTime = System.currentTimeMillis() - startTime;
+        LOGGER.info("Query executed (RowBinary) in " + executionTime + "ms - rows: " + compact.getRowCount() +
+                (limiter.isTruncated() ? " (truncated by " + limiter.getTruncatedBy() + ")" : ""));
+
+        return writeResult(lease, compact, compact.getRowCount(), executionTime, new QueryTimings(
+                reader.getAcquireNanos(), reader.getExecuteNanos(), fetchNanos, 0, 0), startNanos);
+    }
+
+    private void cache(String cacheKey, ExecuteQueryRequest request, Object result, ResultLimiter limiter) {
+        if (cacheKey != null) {
+            long ttlSeconds = (request.getCacheTtlSeconds() != null && request.getCacheTtlSeconds() > 0)
+                    ? request.getCacheTtlSeconds()
+                    : cacheTtlSeconds;
+            ResultCache.getInstance().put(cacheKey, result, limiter.getHeapBytes(), ttlSeconds * 1000L);
+        }
+    }
+
+    /**
+     * Write a collected result as the execute response, serialized with the application's
+     * ObjectMapper straight into the response body. "timings" is written after "data", so
+     * it includes the serialize phase; serialize time and the bytes actually written are
+     * also recorded in the query metrics. The body holds its own lease until it is done,
+     * so the pool (and its meters) stay open while the metrics are recorded.
+     *
+     * @param rowCount Rows in the result, or -1 for a cached result (not recorded in the metrics)
+     * @param timings Acquire, execute and fetch durations; serialize and total are filled in here
+     */
+    private ResponseEntity<StreamingResponseBody> writeResult(ConnectionLease lease, Object result, long rowCount,
+                                                              long executionTime, QueryTimings timings,
+                                                              long startNanos) {
+        DatabaseConnection conn = lease.getConnection();
+        String databaseType = conn.getDatabaseType();
+        ConnectionLease bodyLease = lease.retain();
+        StreamingResponseBody body = out -> {
+            try {
+                CountingOutputStream counter = new CountingOutputStream(out);
+                QueryTimings measured;
+                try (JsonGenerator gen = objectMapper.createGenerator(counter)) {
+                    gen.writeStartObject();
+                    gen.writeBooleanField("success", true);
+
+                    long serializeStart = System.nanoTime();
+                    gen.writeFieldName("data");
+                    objectMapper.writeValue(gen, result);
+                    gen.flush();
+                    long serializeNanos = System.nanoTime() - serializeStart;
+                    measured = timings.withSerialize(serializeNanos, System.nanoTime() - startNanos);
+
+                    gen.writeNumberField("executionTimeMs", executionTime);
+                    gen.writeStringField("databaseType", databaseType);
+                    gen.writeBooleanField("cached", rowCount < 0);
+                    gen.writeObjectField("timings", measured);
+                    gen.writeEndObject();
+                }
+                if (rowCount >= 0) {
+                    QueryMetrics.getInstance().record(conn, measured, rowCount, counter.getCount());
+                }
+                LOGGER.info("Response written: " + counter.getCount() + " bytes, timings: " + measured);
+            } finally {
+                bodyLease.close();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * Turn an execution failure into its response: 429 when the session is at its quota,
+     * 504 when the query ran past its timeout, 400 otherwise.
+     *
+     * @param lease Lease the query ran on (null if none was obtained)
+     * @param requestedTimeout Timeout from the request, reported in the 504 body
+     */
+    ResponseEntity<StreamingResponseBody> failed(Exception e, ConnectionLease lease, Integer requestedTimeout,
+                                                 long startTime) {
+        if (e instanceof SessionQuotaExceededException) {
+            return jsonError(429, quotaExceeded((SessionQuotaExceededException) e));
+        }
+        long executionTime = System.currentTimeMillis() - startTime;
+
+        if (JdbcUtils.isTimeout(e)) {
+            return jsonError(504, timedOut(lease, requestedTimeout, e, executionTime));
+        }
+
+        LOGGER.log(Level.SEVERE, "Error executing query", e);
+        LOGGER.severe("Error details: " + e.getMessage());
+
+        return jsonError(400, Map.of(
+                "success", false,
+                "error", "Query execution failed",
+                "message", e.getMessage(),
+                "executionTimeMs", executionTime
+        ));
+    }
+
+    /**
+     * Combine per-request result caps with the global ones (see {@link ResultLimiter#of}).
+     */
+    ResultLimiter limiter(Long maxRows, Long maxBytes) {
+        return ResultLimiter.of(maxRows, maxBytes, globalMaxRows, globalMaxBytes);
+    }
+
+    /**
+     * Effective timeout for a request (see {@link QueryOptions#resolveTimeout}).
+     */
+    int timeoutFor(Integer requested) {
+        return QueryOptions.resolveTimeout(requested, defaultTimeoutSeconds, maxTimeoutSeconds);
+    }
+
+    /**
+     * Check whether a query can bypass JDBC row materialization (ClickHouse, no bind parameters).
+     */
+    boolean useBinaryFetch(DatabaseConnection conn, List<QueryParameter> params) {
+        return clickHouseBinaryFetch && ClickHouseBinaryReader.supports(conn, params);
+    }
+
+    boolean isCacheEnabled() { return cacheEnabled; }
+    long getCacheTtlSeconds() { return cacheTtlSeconds; }
+
+    /**
+     * Error body for a session that already runs its maximum number of concurrent queries.
+     */
+    Map<String, Object> quotaExceeded(SessionQuotaExceededException e) {
+        return Map.of(
+                "success", false,
+                "error", "Too many concurrent queries",
+                "message", e.getMessage(),
+                "maxConcurrentQueries", e.getMaxConcurrentQueries()
+        );
+    }
+
+    /**
+     * Error body for a query stopped by its timeout (sent with 504); the timeout is
+     * also counted in the query metrics of the connection it ran on.
+     */
+    Map<String, Object> timedOut(ConnectionLease lease, Integer requested, Exception e, long executionTime) {
+        int timeoutSeconds = timeoutFor(requested);
+        LOGGER.warning("Query timed out after " + timeoutSeconds + "s: " + e.getMessage());
+        if (lease != null) {
+            QueryMetrics.getInstance().recordTimeout(lease.getConnection());
+        }
+        return Map.of(
+                "success", false,
+                "error", "Query timed out",
+                "timedOut", true,
+                "timeoutSeconds", timeoutSeconds,
+                "message", e.getMessage(),
+                "executionTimeMs", executionTime
+        );
+    }
+
+    /**
+     * Build a JSON error response for endpoints that otherwise return a streaming body.
+     */
+    ResponseEntity<StreamingResponseBody> jsonError(int status, Map<String, Object> error) {
+        return json(status, error);
+    }
+
+    /**
+     * Build a JSON response for endpoints that otherwise return a streaming body.
+     */
+    ResponseEntity<StreamingResponseBody> json(int status, Object body) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, body));
+    }
+
+    /**
+     * Convert a JDBC ResultSet to a JSON-compatible format.
+     * Preserves data types from the database.
+     * Stops reading once the limiter's row or byte cap is reached.
+     * IMPORTANT: This must be called BEFORE closing the ResultSet!
+     */
+    static QueryResultSet resultSetToJson(ResultSet rs, ResultLimiter limiter) throws Exception {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        List<String> columnNames = new ArrayList<>();
+
+        try {
+            ResultSetMetaData metadata = rs.getMetaData();
+            int columnCount = metadata.getColumnCount();
+
+            LOGGER.info("Processing ResultSet with " + columnCount + " columns");
+
+            // Extract column names and types
+            for (int i = 1; i <= columnCount; i++) {
+                String columnName = metadata.getColumnName(i);
+                columnNames.add(columnName);
+                LOGGER.fine("Column " + i + ": " + columnName + " (Type: " + metadata.getColumnTypeName(i) + ")");
+            }
+
+            // Extract rows - read all data before closing
+            int rowCount = 0;
+            while (rs.next() && limiter.canReadRow()) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                for (int i = 1; i <= columnCount; i++) {
+                    String columnName = columnNames.get(i - 1);
+                    Object value = rs.getObject(i);
+
+                    // Convert to JSON-friendly types
+                    if (value != null) {
+                        row.put(columnName, value.toString());
+                    } else {
+                        row.put(columnName, null);
+                    }
+                }
+                if (!limiter.accept(row)) {
+                    break;
+                }
+                rows.add(row);
+                rowCount++;
+            }
+
+            LOGGER.info("Read " + rowCount + " rows from ResultSet");
+
+            return new QueryResultSet(columnNames, rows, rows.size(),
+                    limiter.getTruncatedBy(), limiter.getByteCount());
+
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error converting ResultSet to JSON", e);
+            throw new Exception("Failed to process query results: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+// src/main/java/com/debug/queryapp/controller/QueryJobController.java
+
+package com.debug.queryapp.controller;
+
+import com.debug.queryapp.connection.*;
+import com.debug.queryapp.service.QueryJob;
+import com.debug.queryapp.service.QueryJobManager;
+import com.debug.queryapp.service.ResultLimiter;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * REST controller for asynchronous query jobs.
+ * A job runs on a worker thread: the submit call returns immediately with a job ID,
+ * clients poll its status, fetch the result when done, or cancel it.
+ * A running job counts against its session's concurrent-query quota.
+ * Queries are executed WITHOUT MODIFICATION using the JDBC drivers.
+ */
+@RestController
+@RequestMapping("/api/v1/query/jobs")
+@CrossOrigin(origins = "*")
+public class QueryJobController {
+    private static final Logger LOGGER = Logger.getLogger(QueryJobController.class.getName());
+
+    // Same switch that moves Tomcat and streaming responses to virtual threads (Java 21+)
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    // Same result caps and timeouts as /api/v1/query/execute
+    private final QueryExecutor executor;
+
+    public QueryJobController(QueryExecutor executor) {
+        this.executor = executor;
+    }
+
+    @PostConstruct
+    void configureWorkers() {
+        if (virtualThreadsEnabled) {
+            QueryJobManager.getInstance().useVirtualThreads();
+        }
+    }
+
+    /**
+     * Submit a SELECT query as an asynchronous job.
+     *
+     * POST /api/v1/query/jobs
+     * Body: {
+     *   "sql": "SELECT * FROM big_table",
+     *   "connectionId": "optional-connection-id",
+     *   "maxRows": 1000,
+     *   "maxBytes": 1048576,
+     *   "timeoutSeconds": 300,
+     *   "params": [{"type": "date", "value": "2024-01-01"}]   (optional, binds ? placeholders)
+     * }
+     *
+     * A job that runs past its timeout ends in state TIMED_OUT.
+     */
+    @PostMapping
+    public ResponseEntity<?> submitJob(@RequestBody ExecuteQueryRequest request,
+                                       HttpServletRequest httpRequest) {
+        ConnectionLease lease = null;
+        try {
+            if (request.getSql() == null || request.getSql().trim().isEmpty()) {
+                return ResponseEntity.status(400).body(Map.of(
+                        "success", false,
+                        "error", "SQL query is required",
+                        "message", "Please provide a valid SQL query"
+                ));
+            }
+
+            lease = ConnectionManager.getInstance().lease(SessionIds.resolve(httpRequest), request.getConnectionId());
+            DatabaseConnection conn = lease.getConnection();
+            ResultLimiter limiter = executor.limiter(request.getMaxRows(), request.getMaxBytes());
+
+            // The job takes ownership of the lease and releases it when it finishes
+            int timeoutSeconds = executor.timeoutFor(request.getTimeoutSeconds());
+            QueryJob job = QueryJobManager.getInstance().submit(lease, request.getSql(), request.getParams(),
+                    limiter, timeoutSeconds);
+            lease = null;
+
+            LOGGER.info("Query job submitted: " + job.getId());
+
+            return ResponseEntity.status(202).body(Map.of(
+                    "success", true,
+                    "jobId", job.getId(),
+                    "state", job.getState().name(),
+                    "databaseType", conn.getDatabaseType()
+            ));
+
+        } catch (SessionQuotaExceededException e) {
+            return ResponseEntity.status(429).body(executor.quotaExceeded(e));
+        } catch (Exception e) {
+            return ResponseEntity.status(400).body(Map.of(
+                    "success", false,
+                    "error", "Job submission failed",
+                    "message", e.getMessage()
+            ));
+        } finally {
+            if (lease != null) {
+                lease.close();
+            }
+        }
+    }
+
+    /**
+     * List known jobs (running and recently finished).
+     *
+     * GET /api/v1/query/jobs
+     */
+    @GetMapping
+    public ResponseEntity<?> listJobs() {
+        List<Map<String, Object>> jobs = new ArrayList<>();
+        for (QueryJob job : QueryJobManager.getInstance().getJobs()) {
+            jobs.add(job.toStatus());
+        }
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "jobs", jobs
+        ));
+    }
+
+    /**
+     * Get job status: state, rows fetched so far and elapsed time.
+     *
+     * GET /api/v1/query/jobs/{jobId}
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> getJobStatus(@PathVariable String jobId) {
+        QueryJob job = QueryJobManager.getInstance().getJob(jobId);
+        if (job == null) {
+            return jobNotFound(jobId);
+        }
+
+        Map<String, Object> status = job.toStatus();
+        status.put("success", true);
+        return ResponseEntity.ok(status);
+    }
+
+    /**
+     * Get the result of a completed job.
+     *
+     * GET /api/v1/query/jobs/{jobId}/result
+     */
+    @GetMapping("/{jobId}/result")
+    public ResponseEntity<?> getJobResult(@PathVariable String jobId) {
+        QueryJob job = QueryJobManager.getInstance().getJob(jobId);
+        if (job == null) {
+            return jobNotFound(jobId);
+        }
+
+        switch (job.getState()) {
+            case COMPLETED:
+                return ResponseEntity.ok(new ExecuteQueryResponse(
+                        true,
+                        job.getResult(),
+                        job.getElapsedMs(),
+                        job.getDatabaseType()
+                ));
+
+            case FAILED:
+                return ResponseEntity.status(400).body(Map.of(
+                        "success", false,
+                        "error", "Query execution failed",
+                        "message", job.getError(),
+                        "executionTimeMs", job.getElapsedMs()
+                ));
+
+            case TIMED_OUT:
+                return ResponseEntity.status(504).body(Map.of(
+                        "success", false,
+                        "error", "Query timed out",
+                        "timedOut", true,
+                        "message", job.getError(),
+                        "executionTimeMs", job.getElapsedMs()
+                ));
+
+            case CANCELLED:
+                return ResponseEntity.status(410).body(Map.of(
+                        "success", false,
+                        "error", "Query cancelled",
+                        "message", "Job " + jobId + " was cancelled"
+                ));
+
+            default:
+                return ResponseEntity.status(409).body(Map.of(
+                        "success", false,
+                        "error", "Result not ready",
+                        "message", "Job " + jobId + " is " + job.getState().name()
+                ));
+        }
+    }
+
+    /**
+     * Cancel a queued or running job.
+     * PostgreSQL: Statement.cancel(); ClickHouse: KILL QUERY by query_id.
+     *
+     * POST /api/v1/query/jobs/{jobId}/cancel
+     */
+    @PostMapping("/{jobId}/cancel")
+    public ResponseEntity<?> cancelJob(@PathVariable String jobId) {
+        QueryJob job = QueryJobManager.getInstance().getJob(jobId);
+        if (job == null) {
+            return jobNotFound(jobId);
+        }
+
+        boolean cancelled = job.cancel();
+        LOGGER.info("Cancel requested for job " + jobId + ": " + (cancelled ? "cancelled" : "already finished"));
+
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "cancelled", cancelled,
+                "state", job.getState().name()
+        ));
+    }
+
+    /**
+     * Cancel (if running) and discard a job and its result.
+     *
+     * DELETE /api/v1/query/jobs/{jobId}
+     */
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<?> deleteJob(@PathVariable String jobId) {
+        if (!QueryJobManager.getInstance().remove(jobId)) {
+            return jobNotFound(jobId);
+        }
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Job removed"
+        ));
+    }
+
+    private ResponseEntity<?> jobNotFound(String jobId) {
+        return ResponseEntity.status(404).body(Map.of(
+                "success", false,
+                "error", "Job not found",
+                "message", "Job " + jobId + " does not exist or has expired"
+        ));
+    }
+}
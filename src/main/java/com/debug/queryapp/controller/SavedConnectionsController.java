@@ -1,5 +1,6 @@
 package com.debug.queryapp.controller;
 
+import com.debug.queryapp.connection.PoolSettings;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.w3c.dom.*;
@@ -55,6 +56,7 @@ public class SavedConnectionsController {
                 connection.put("port", getElementText(connectionElement, "port"));
                 connection.put("database", getElementText(connectionElement, "database"));
                 connection.put("username", getElementText(connectionElement, "username"));
+                connection.put("pool", readPoolSettings(connectionElement));
                 // Don't send password to frontend for security
 
                 connections.add(connection);
@@ -78,17 +80,21 @@ public class SavedConnectionsController {
     /**
      * Save a new connection.
      * POST /api/v1/connections
+     *
+     * Optional "pool" object: maximumPoolSize, minimumIdle, connectionTimeoutMs, idleTimeoutMs,
+     * maxLifetimeMs, leakDetectionThresholdMs, connectionInitSql, driverProperties.
      */
     @PostMapping
-    public ResponseEntity<?> saveConnection(@RequestBody Map<String, String> request) {
+    public ResponseEntity<?> saveConnection(@RequestBody Map<String, Object> request) {
         try {
-            String name = request.get("name");
-            String type = request.get("type");
-            String host = request.get("host");
-            String port = request.get("port");
-            String database = request.get("database");
-            String username = request.get("username");
-            String password = request.get("password");
+            String name = getString(request, "name");
+            String type = getString(request, "type");
+            String host = getString(request, "host");
+            String port = getString(request, "port");
+            String database = getString(request, "database");
+            String username = getString(request, "username");
+            String password = getString(request, "password");
+            PoolSettings pool = getPoolSettings(request);
 
             if (name == null || name.trim().isEmpty()) {
                 return ResponseEntity.status(400).body(Map.of(
@@ -138,6 +144,7 @@ public class SavedConnectionsController {
             addElement(doc, connectionElement, "database", database);
             addElement(doc, connectionElement, "username", username);
             addElement(doc, connectionElement, "password", password); // Note: In production, encrypt this!
+            writePoolSettings(doc, connectionElement, pool);
 
             doc.getDocumentElement().appendChild(connectionElement);
 
@@ -166,7 +173,7 @@ public class SavedConnectionsController {
      * PUT /api/v1/connections/{id}
      */
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateConnection(@PathVariable String id, @RequestBody Map<String, String> request) {
+    public ResponseEntity<?> updateConnection(@PathVariable String id, @RequestBody Map<String, Object> request) {
         try {
             File xmlFile = getConnectionsXmlFile();
 
@@ -189,23 +196,28 @@ public class SavedConnectionsController {
                 Element connectionElement = (Element) connectionNodes.item(i);
                 if (connectionElement.getAttribute("id").equals(id)) {
                     // Update connection attributes
-                    String name = request.get("name");
+                    String name = getString(request, "name");
                     if (name != null && !name.trim().isEmpty()) {
                         connectionElement.setAttribute("name", name.trim());
                     }
 
                     // Update child elements
-                    updateElementText(doc, connectionElement, "type", request.get("type"));
-                    updateElementText(doc, connectionElement, "host", request.get("host"));
-                    updateElementText(doc, connectionElement, "port", request.get("port"));
-                    updateElementText(doc, connectionElement, "database", request.get("database"));
-                    updateElementText(doc, connectionElement, "username", request.get("username"));
+                    updateElementText(doc, connectionElement, "type", getString(request, "type"));
+                    updateElementText(doc, connectionElement, "host", getString(request, "host"));
+                    updateElementText(doc, connectionElement, "port", getString(request, "port"));
+                    updateElementText(doc, connectionElement, "database", getString(request, "database"));
+                    updateElementText(doc, connectionElement, "username", getString(request, "username"));
 
-                    String password = request.get("password");
+                    String password = getString(request, "password");
                     if (password != null && !password.isEmpty()) {
                         updateElementText(doc, connectionElement, "password", password);
                     }
 
+                    // Pool settings are replaced as a whole when present in the request
+                    if (request.containsKey("pool")) {
+                        writePoolSettings(doc, connectionElement, getPoolSettings(request));
+                    }
+
                     found = true;
                     break;
                 }
@@ -331,6 +343,7 @@ public class SavedConnectionsController {
                     connection.put("database", getElementText(connectionElement, "database"));
                     connection.put("username", getElementText(connectionElement, "username"));
                     connection.put("password", getElementText(connectionElement, "password"));
+                    connection.put("pool", readPoolSettings(connectionElement));
 
                     return ResponseEntity.ok(Map.of(
                         "success", true,
@@ -383,6 +396,81 @@ public class SavedConnectionsController {
         return new File(resourcesPath);
     }
 
+    private String getString(Map<String, Object> request, String key) {
+        Object value = request.get(key);
+        return (value != null) ? value.toString() : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private PoolSettings getPoolSettings(Map<String, Object> request) {
+        Object pool = request.get("pool");
+        return PoolSettings.fromMap((pool instanceof Map) ? (Map<String, Object>) pool : null);
+    }
+
+    /**
+     * Read the optional &lt;pool&gt; element of a saved connection.
+     */
+    private Map<String, Object> readPoolSettings(Element connectionElement) {
+        Map<String, Object> pool = new LinkedHashMap<>();
+        NodeList poolNodes = connectionElement.getElementsByTagName("pool");
+        if (poolNodes.getLength() == 0) {
+            return pool;
+        }
+
+        NodeList children = poolNodes.item(0).getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            if (!(children.item(i) instanceof Element)) {
+                continue;
+            }
+            Element child = (Element) children.item(i);
+            if (child.getTagName().equals("driverProperties")) {
+                Map<String, String> properties = new LinkedHashMap<>();
+                NodeList propertyNodes = child.getElementsByTagName("property");
+                for (int j = 0; j < propertyNodes.getLength(); j++) {
+                    Element property = (Element) propertyNodes.item(j);
+                    properties.put(property.getAttribute("name"), property.getTextContent());
+                }
+                pool.put("driverProperties", properties);
+            } else {
+                pool.put(child.getTagName(), child.getTextContent().trim());
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Replace the &lt;pool&gt; element of a saved connection. Nothing is written if no setting is set.
+     */
+    @SuppressWarnings("unchecked")
+    private void writePoolSettings(Document doc, Element connectionElement, PoolSettings settings) {
+        NodeList existing = connectionElement.getElementsByTagName("pool");
+        for (int i = existing.getLength() - 1; i >= 0; i--) {
+            connectionElement.removeChild(existing.item(i));
+        }
+
+        Map<String, Object> values = settings.toMap();
+        if (values.isEmpty()) {
+            return;
+        }
+
+        Element poolElement = doc.createElement("pool");
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            if (entry.getKey().equals("driverProperties")) {
+                Element propertiesElement = doc.createElement("driverProperties");
+                for (Map.Entry<String, String> property : ((Map<String, String>) entry.getValue()).entrySet()) {
+                    Element propertyElement = doc.createElement("property");
+                    propertyElement.setAttribute("name", property.getKey());
+                    propertyElement.setTextContent(property.getValue());
+                    propertiesElement.appendChild(propertyElement);
+                }
+                poolElement.appendChild(propertiesElement);
+            } else {
+                addElement(doc, poolElement, entry.getKey(), String.valueOf(entry.getValue()));
+            }
+        }
+        connectionElement.appendChild(poolElement);
+    }
+
     private String getElementText(Element parent, String tagName) {
         NodeList nodes = parent.getElementsByTagName(tagName);
         if (nodes.getLength() > 0) {
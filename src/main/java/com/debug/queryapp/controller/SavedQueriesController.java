@@ -1,16 +1,21 @@
 package com.debug.queryapp.controller;
 
+import com.debug.queryapp.connection.*;
+import com.debug.queryapp.model.CompactResultSet;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.w3c.dom.*;
 import javax.xml.parsers.*;
 import javax.xml.transform.*;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import java.io.*;
+import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.*;
@@ -20,6 +25,15 @@ import java.util.logging.Level;
 /**
  * REST controller for managing saved queries.
  * Reads query templates from queries.xml file.
+ *
+ * A query may declare typed parameters that are referenced as :name in its SQL:
+ * <pre>
+ * &lt;query name="Orders by customer"&gt;
+ *     &lt;sql&gt;&lt;![CDATA[SELECT * FROM orders WHERE customer_id = :customer AND created_at &gt;= :since]]&gt;&lt;/sql&gt;
+ *     &lt;param name="customer" type="bigint"/&gt;
+ *     &lt;param name="since" type="date" default="2024-01-01"/&gt;
+ * &lt;/query&gt;
+ * </pre>
  */
 @RestController
 @RequestMapping("/api/v1/queries")
@@ -27,6 +41,13 @@ import java.util.logging.Level;
 public class SavedQueriesController {
     private static final Logger LOGGER = Logger.getLogger(SavedQueriesController.class.getName());
 
+    // Same execute path (caps, timeouts, cache, metrics) as /api/v1/query/execute
+    private final QueryExecutor executor;
+
+    public SavedQueriesController(QueryExecutor executor) {
+        this.executor = executor;
+    }
+
     /**
      * Get all saved queries from XML file.
      * Returns a tree structure of folders and queries.
@@ -82,6 +103,12 @@ public class SavedQueriesController {
                                 query.put("description", descNodes.item(0).getTextContent().trim());
                             }
 
+                            // Get typed parameters
+                            List<Map<String, Object>> params = readParams(queryElement);
+                            if (!params.isEmpty()) {
+                                query.put("params", params);
+                            }
+
                             queries.add(query);
                         }
                     }
@@ -179,17 +206,18 @@ public class SavedQueriesController {
      * Body: {
      *   "folderName": "test-postgres",
      *   "queryName": "My Query",
-     *   "sql": "SELECT * FROM table",
-     *   "description": "Optional description"
+     *   "sql": "SELECT * FROM table WHERE id = :id",
+     *   "description": "Optional description",
+     *   "params": [{"name": "id", "type": "int", "default": "1"}]     (optional)
      * }
      */
     @PostMapping
-    public ResponseEntity<?> addQuery(@RequestBody Map<String, String> request) {
+    public ResponseEntity<?> addQuery(@RequestBody Map<String, Object> request) {
         try {
-            String folderName = request.get("folderName");
-            String queryName = request.get("queryName");
-            String sql = request.get("sql");
-            String description = request.get("description");
+            String folderName = getString(request, "folderName");
+            String queryName = getString(request, "queryName");
+            String sql = getString(request, "sql");
+            String description = getString(request, "description");
 
             if (folderName == null || folderName.trim().isEmpty()) {
                 return ResponseEntity.status(400).body(Map.of(
@@ -253,6 +281,8 @@ public class SavedQueriesController {
                 newQuery.appendChild(descElement);
             }
 
+            writeParams(doc, newQuery, request.get("params"));
+
             targetFolder.appendChild(newQuery);
 
             // Save XML
@@ -265,6 +295,12 @@ public class SavedQueriesController {
                 "message", "Query added successfully"
             ));
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(Map.of(
+                "success", false,
+                "error", "Invalid query parameters",
+                "message", e.getMessage()
+            ));
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error adding query", e);
             return ResponseEntity.status(500).body(Map.of(
@@ -593,16 +629,17 @@ public class SavedQueriesController {
      *   "folderName": "test-postgres",
      *   "queryName": "My Query",
      *   "sql": "SELECT * FROM updated_table",
-     *   "description": "Updated description"
+     *   "description": "Updated description",
+     *   "params": [...]     (optional, replaces the declared parameters when present)
      * }
      */
     @PutMapping("/content")
-    public ResponseEntity<?> updateQueryContent(@RequestBody Map<String, String> request) {
+    public ResponseEntity<?> updateQueryContent(@RequestBody Map<String, Object> request) {
         try {
-            String folderName = request.get("folderName");
-            String queryName = request.get("queryName");
-            String sql = request.get("sql");
-            String description = request.get("description");
+            String folderName = getString(request, "folderName");
+            String queryName = getString(request, "queryName");
+            String sql = getString(request, "sql");
+            String description = getString(request, "description");
 
             if (folderName == null || queryName == null || sql == null) {
                 return ResponseEntity.status(400).body(Map.of(
@@ -665,6 +702,10 @@ public class SavedQueriesController {
                                 }
                             }
 
+                            if (request.containsKey("params")) {
+                                writeParams(doc, queryElement, request.get("params"));
+                            }
+
                             found = true;
                             break;
                         }
@@ -690,6 +731,12 @@ public class SavedQueriesController {
                 "message", "Query content updated successfully"
             ));
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(Map.of(
+                "success", false,
+                "error", "Invalid query parameters",
+                "message", e.getMessage()
+            ));
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error updating query content", e);
             return ResponseEntity.status(500).body(Map.of(
@@ -700,6 +747,258 @@ public class SavedQueriesController {
         }
     }
 
+    /**
+     * Execute a saved query by name, binding its declared parameters.
+     *
+     * POST /api/v1/queries/execute
+     * Body: {
+     *   "folderName": "test-postgres",
+     *   "queryName": "Orders by customer",
+     *   "connectionId": "optional-connection-id",
+     *   "values": {"customer": 42},
+     *   "maxRows": 1000,
+     *   "maxBytes": 1048576,
+     *   "timeoutSeconds": 30
+     * }
+     *
+     * :name placeholders are rewritten to ? and the values are bound through a
+     * PreparedStatement with the declared types; a declared parameter without a value
+     * takes its default. Because the rewritten SQL text is the same on every call,
+     * PostgreSQL reuses the server-side prepared statement (and its plan) once the
+     * driver's prepare threshold is reached. The result uses the compact format and goes
+     * through the same caps, timeouts, result cache and metrics as /api/v1/query/execute.
+     */
+    @PostMapping("/execute")
+    public ResponseEntity<StreamingResponseBody> executeSavedQuery(@RequestBody Map<String, Object> request,
+                                                                   HttpServletRequest httpRequest) {
+        long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+
+        ExecuteQueryRequest query = new ExecuteQueryRequest();
+        ConnectionLease lease = null;
+        try {
+            String folderName = getString(request, "folderName");
+            String queryName = getString(request, "queryName");
+            if (folderName == null || queryName == null) {
+                return executor.jsonError(400, Map.of(
+                    "success", false,
+                    "error", "Folder name and query name are required"
+                ));
+            }
+
+            Document doc = parseQueriesXml();
+            Element queryElement = findQuery(doc, folderName, queryName);
+            if (queryElement == null) {
+                return executor.jsonError(404, Map.of(
+                    "success", false,
+                    "error", "Query not found"
+                ));
+            }
+
+            NodeList sqlNodes = queryElement.getElementsByTagName("sql");
+            String sql = (sqlNodes.getLength() > 0) ? sqlNodes.item(0).getTextContent().trim() : "";
+            if (sql.isEmpty()) {
+                return executor.jsonError(400, Map.of(
+                    "success", false,
+                    "error", "Saved query has no SQL"
+                ));
+            }
+
+            Map<String, QueryParameter> bound;
+            try {
+                bound = bindValues(readParams(queryElement), request.get("values"));
+            } catch (IllegalArgumentException e) {
+                return executor.jsonError(400, Map.of(
+                    "success", false,
+                    "error", "Invalid parameter values",
+                    "message", e.getMessage()
+                ));
+            }
+
+            LOGGER.info("Executing saved query: " + folderName + "/" + queryName + " with " + bound);
+
+            try {
+                query.setTimeoutSeconds(getInteger(request, "timeoutSeconds"));
+                query.setMaxRows(getLong(request, "maxRows"));
+                query.setMaxBytes(getLong(request, "maxBytes"));
+            } catch (IllegalArgumentException e) {
+                return executor.jsonError(400, Map.of(
+                    "success", false,
+                    "error", "Invalid query limits",
+                    "message", e.getMessage()
+                ));
+            }
+            query.setFormat(CompactResultSet.FORMAT);
+
+            lease = ConnectionManager.getInstance().lease(SessionIds.resolve(httpRequest),
+                    getString(request, "connectionId"));
+            DatabaseConnection conn = lease.getConnection();
+
+            SqlText.NamedSql positional = SqlText.toPositional(sql,
+                    ConnectionFactory.DatabaseType.fromString(conn.getDatabaseType()), bound.keySet());
+            List<QueryParameter> params = new ArrayList<>();
+            for (String name : positional.getParameterNames()) {
+                params.add(bound.get(name));
+            }
+            query.setSql(positional.getSql());
+            query.setParams(params);
+
+            return executor.execute(lease, query, startTime, startNanos);
+        } catch (Exception e) {
+            return executor.failed(e, lease, query.getTimeoutSeconds(), startTime);
+        } finally {
+            if (lease != null) {
+                lease.close();
+            }
+        }
+    }
+
+    /**
+     * Resolve the value of each declared parameter: the supplied value, else the default.
+     *
+     * @throws IllegalArgumentException if a value is given for an undeclared parameter
+     *         or a parameter without default has no value
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, QueryParameter> bindValues(List<Map<String, Object>> declared, Object valuesObject) {
+        Map<String, Object> values = (valuesObject instanceof Map) ? (Map<String, Object>) valuesObject : Map.of();
+
+        Map<String, QueryParameter> bound = new LinkedHashMap<>();
+        for (Map<String, Object> param : declared) {
+            String name = (String) param.get("name");
+            Object value;
+            if (values.containsKey(name)) {
+                value = values.get(name);
+            } else if (param.containsKey("default")) {
+                value = param.get("default");
+            } else {
+                throw new IllegalArgumentException("Missing value for parameter: " + name);
+            }
+            bound.put(name, new QueryParameter((String) param.get("type"), value));
+        }
+
+        for (String name : values.keySet()) {
+            if (!bound.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown parameter: " + name);
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * Read the &lt;param name type default&gt; declarations of a query.
+     * "default" is only present when the attribute is set.
+     */
+    private List<Map<String, Object>> readParams(Element queryElement) {
+        List<Map<String, Object>> params = new ArrayList<>();
+        NodeList paramNodes = queryElement.getElementsByTagName("param");
+        for (int i = 0; i < paramNodes.getLength(); i++) {
+            Element paramElement = (Element) paramNodes.item(i);
+            Map<String, Object> param = new LinkedHashMap<>();
+            param.put("name", paramElement.getAttribute("name"));
+            param.put("type", paramElement.hasAttribute("type") ? paramElement.getAttribute("type") : "string");
+            if (paramElement.hasAttribute("default")) {
+                param.put("default", paramElement.getAttribute("default"));
+            }
+            params.add(param);
+        }
+        return params;
+    }
+
+    /**
+     * Replace the &lt;param&gt; declarations of a query with the given list of
+     * {"name", "type", "default"} objects.
+     *
+     * @throws IllegalArgumentException if a parameter has no name, a duplicate name or an unknown type
+     */
+    @SuppressWarnings("unchecked")
+    private void writeParams(Document doc, Element queryElement, Object paramsObject) {
+        NodeList existing = queryElement.getElementsByTagName("param");
+        for (int i = existing.getLength() - 1; i >= 0; i--) {
+            queryElement.removeChild(existing.item(i));
+        }
+        if (!(paramsObject instanceof List)) {
+            return;
+        }
+
+        Set<String> names = new HashSet<>();
+        for (Object item : (List<Object>) paramsObject) {
+            if (!(item instanceof Map)) {
+                continue;
+            }
+            Map<String, Object> param = (Map<String, Object>) item;
+            String name = getString(param, "name");
+            if (name == null || !name.trim().matches("[A-Za-z_][A-Za-z0-9_]*")) {
+                throw new IllegalArgumentException("Invalid parameter name: " + name);
+            }
+            if (!names.add(name.trim())) {
+                throw new IllegalArgumentException("Duplicate parameter: " + name);
+            }
+            String type = getString(param, "type");
+            new QueryParameter(type, null).validateType();
+
+            Element paramElement = doc.createElement("param");
+            paramElement.setAttribute("name", name.trim());
+            paramElement.setAttribute("type", (type != null && !type.trim().isEmpty()) ? type.trim() : "string");
+            String defaultValue = getString(param, "default");
+            if (defaultValue != null) {
+                paramElement.setAttribute("default", defaultValue);
+            }
+            queryElement.appendChild(paramElement);
+        }
+    }
+
+    private Element findQuery(Document doc, String folderName, String queryName) {
+        NodeList folderNodes = doc.getElementsByTagName("folder");
+        for (int i = 0; i < folderNodes.getLength(); i++) {
+            Element folderElement = (Element) folderNodes.item(i);
+            if (folderElement.getAttribute("name").equals(folderName)) {
+                NodeList queryNodes = folderElement.getElementsByTagName("query");
+                for (int j = 0; j < queryNodes.getLength(); j++) {
+                    Element queryElement = (Element) queryNodes.item(j);
+                    if (queryElement.getAttribute("name").equals(queryName)) {
+                        return queryElement;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private Document parseQueriesXml() throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        DocumentBuilder builder = factory.newDocumentBuilder();
+        Document doc = builder.parse(getQueriesXmlFile());
+        doc.getDocumentElement().normalize();
+        return doc;
+    }
+
+    private String getString(Map<String, Object> request, String key) {
+        Object value = request.get(key);
+        return (value != null) ? value.toString() : null;
+    }
+
+    // Fractions and out-of-range values are rejected (IllegalArgumentException), never truncated
+    private Long getLong(Map<String, Object> request, String key) {
+        Object value = request.get(key);
+        if (value == null || value.toString().trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.toString().trim()).longValueExact();
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + key + ": " + value);
+        }
+    }
+
+    private Integer getInteger(Map<String, Object> request, String key) {
+        Long value = getLong(request, key);
+        if (value != null && (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)) {
+            throw new IllegalArgumentException("Invalid " + key + ": " + value);
+        }
+        return (value != null) ? value.intValue() : null;
+    }
+
     /**
      * Get the queries.xml file from the classpath or resources folder.
      */
@@ -0,0 +1,32 @@
+// src/main/java/com/debug/queryapp/controller/SessionIds.java
+
+package com.debug.queryapp.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Resolves the client session a request belongs to.
+ *
+ * Clients identify themselves with the X-Session-Id header (the UI sends one per
+ * browser tab); otherwise the HTTP session cookie is used.
+ */
+final class SessionIds {
+    static final String HEADER = "X-Session-Id";
+
+    private static final int MAX_LENGTH = 128;
+
+    private SessionIds() {
+    }
+
+    /**
+     * @return The session ID for the request
+     */
+    static String resolve(HttpServletRequest request) {
+        String header = request.getHeader(HEADER);
+        if (header != null && !header.trim().isEmpty()) {
+            String id = header.trim();
+            return (id.length() > MAX_LENGTH) ? id.substring(0, MAX_LENGTH) : id;
+        }
+        return request.getSession(true).getId();
+    }
+}
@@ -0,0 +1,32 @@
+// src/main/java/com/debug/queryapp/model/ColumnInfo.java
+
+package com.debug.queryapp.model;
+
+/**
+ * Column metadata sent once per result instead of repeating column names on every row.
+ */
+public class ColumnInfo {
+    private final String name;
+    private final String type;
+    private final String jdbcType;
+
+    /**
+     * @param name Column label as returned by the driver
+     * @param type Database-specific type name (e.g. "int8", "Nullable(String)")
+     * @param jdbcType Generic JDBC type name (e.g. "BIGINT", "VARCHAR")
+     */
+    public ColumnInfo(String name, String type, String jdbcType) {
+        this.name = name;
+        this.type = type;
+        this.jdbcType = jdbcType;
+    }
+
+    public String getName() { return name; }
+    public String getType() { return type; }
+    public String getJdbcType() { return jdbcType; }
+
+    @Override
+    public String toString() {
+        return name + " (" + type + ")";
+    }
+}
@@ -0,0 +1,52 @@
+// src/main/java/com/debug/queryapp/model/CompactResultSet.java
+
+package com.debug.queryapp.model;
+
+import java.util.List;
+
+/**
+ * Compact, array-based result payload.
+ *
+ * Column metadata is sent once; every row is a positional array whose values keep
+ * their JSON types (numbers, booleans, strings, null) instead of being stringified.
+ *
+ * JSON shape:
+ * <pre>
+ * {
+ *   "format": "compact",
+ *   "columns": [{"name": "id", "type": "int8", "jdbcType": "BIGINT"}, ...],
+ *   "rows": [[1, "alice", true], [2, "bob", false]],
+ *   "rowCount": 2
+ * }
+ * </pre>
+ */
+public class CompactResultSet {
+    public static final String FORMAT = "compact";
+
+    private final List<ColumnInfo> columns;
+    private final List<Object[]> rows;
+    private final int rowCount;
+    private final String truncatedBy;
+    private final long byteCount;
+
+    /**
+     * @param truncatedBy Limit that stopped reading ("maxRows" / "maxBytes"), or null if complete
+     * @param byteCount Estimated serialized size of the rows
+     */
+    public CompactResultSet(List<ColumnInfo> columns, List<Object[]> rows, int rowCount,
+                            String truncatedBy, long byteCount) {
+        this.columns = columns;
+        this.rows = rows;
+        this.rowCount = rowCount;
+        this.truncatedBy = truncatedBy;
+        this.byteCount = byteCount;
+    }
+
+    public String getFormat() { return FORMAT; }
+    public List<ColumnInfo> getColumns() { return columns; }
+    public List<Object[]> getRows() { return rows; }
+    public int getRowCount() { return rowCount; }
+    public boolean isTruncated() { return truncatedBy != null; }
+    public String getTruncatedBy() { return truncatedBy; }
+    public long getByteCount() { return byteCount; }
+}
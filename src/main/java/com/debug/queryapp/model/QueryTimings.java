@@ -0,0 +1,62 @@
+// src/main/java/com/debug/queryapp/model/QueryTimings.java
+
+package com.debug.queryapp.model;
+
+/**
+ * Per-request latency breakdown, measured with System.nanoTime().
+ *
+ * <ul>
+ *   <li>acquire - waiting for a connection from the pool</li>
+ *   <li>execute - sending the query until the driver returned the first rows</li>
+ *   <li>fetch - reading and converting the remaining rows</li>
+ *   <li>serialize - building the JSON payload</li>
+ * </ul>
+ *
+ * Durations are exposed in milliseconds with microsecond precision.
+ */
+public class QueryTimings {
+    private final long acquireNanos;
+    private final long executeNanos;
+    private final long fetchNanos;
+    private final long serializeNanos;
+    private final long totalNanos;
+
+    public QueryTimings(long acquireNanos, long executeNanos, long fetchNanos,
+                        long serializeNanos, long totalNanos) {
+        this.acquireNanos = acquireNanos;
+        this.executeNanos = executeNanos;
+        this.fetchNanos = fetchNanos;
+        this.serializeNanos = serializeNanos;
+        this.totalNanos = totalNanos;
+    }
+
+    public double getAcquireMs() { return toMillis(acquireNanos); }
+    public double getExecuteMs() { return toMillis(executeNanos); }
+    public double getFetchMs() { return toMillis(fetchNanos); }
+    public double getSerializeMs() { return toMillis(serializeNanos); }
+    public double getTotalMs() { return toMillis(totalNanos); }
+
+    public long acquireNanos() { return acquireNanos; }
+    public long executeNanos() { return executeNanos; }
+    public long fetchNanos() { return fetchNanos; }
+    public long serializeNanos() { return serializeNanos; }
+    public long totalNanos() { return totalNanos; }
+
+    /**
+     * Copy with the serialize and total durations filled in, for payloads that are
+     * serialized after the other phases were measured.
+     */
+    public QueryTimings withSerialize(long serializeNanos, long totalNanos) {
+        return new QueryTimings(acquireNanos, executeNanos, fetchNanos, serializeNanos, totalNanos);
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
+
+    @Override
+    public String toString() {
+        return "acquire=" + getAcquireMs() + "ms, execute=" + getExecuteMs() + "ms, fetch=" +
+                getFetchMs() + "ms, serialize=" + getSerializeMs() + "ms, total=" + getTotalMs() + "ms";
+    }
+}
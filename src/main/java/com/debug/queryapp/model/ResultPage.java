@@ -0,0 +1,52 @@
+// src/main/java/com/debug/queryapp/model/ResultPage.java
+
+package com.debug.queryapp.model;
+
+import java.util.List;
+
+/**
+ * One page of a server-side cursor held open under a result handle.
+ *
+ * JSON shape:
+ * <pre>
+ * {
+ *   "format": "paged",
+ *   "resultHandle": "uuid or null when the result fit in the first page",
+ *   "columns": [{"name": "id", "type": "int8", "jdbcType": "BIGINT"}, ...],
+ *   "rows": [[1, "alice"], ...],
+ *   "page": 0,
+ *   "pageSize": 500,
+ *   "rowCount": 500,
+ *   "hasMore": true
+ * }
+ * </pre>
+ */
+public class ResultPage {
+    public static final String FORMAT = "paged";
+
+    private final String resultHandle;
+    private final List<ColumnInfo> columns;
+    private final List<Object[]> rows;
+    private final int page;
+    private final int pageSize;
+    private final boolean hasMore;
+
+    public ResultPage(String resultHandle, List<ColumnInfo> columns, List<Object[]> rows,
+                      int page, int pageSize, boolean hasMore) {
+        this.resultHandle = resultHandle;
+        this.columns = columns;
+        this.rows = rows;
+        this.page = page;
+        this.pageSize = pageSize;
+        this.hasMore = hasMore;
+    }
+
+    public String getFormat() { return FORMAT; }
+    public String getResultHandle() { return resultHandle; }
+    public List<ColumnInfo> getColumns() { return columns; }
+    public List<Object[]> getRows() { return rows; }
+    public int getPage() { return page; }
+    public int getPageSize() { return pageSize; }
+    public int getRowCount() { return rows.size(); }
+    public boolean isHasMore() { return hasMore; }
+}
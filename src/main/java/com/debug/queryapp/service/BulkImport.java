@@ -0,0 +1,175 @@
+// src/main/java/com/debug/queryapp/service/BulkImport.java
+
+package com.debug.queryapp.service;
+
+import com.debug.queryapp.connection.ClickhouseConnection;
+import com.debug.queryapp.connection.DatabaseConnection;
+import com.debug.queryapp.connection.ImportFormat;
+import com.debug.queryapp.connection.JdbcUtils;
+import com.debug.queryapp.connection.PostgresConnection;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.logging.Logger;
+
+/**
+ * Loads an uploaded file into a table and reports progress as NDJSON.
+ *
+ * PostgreSQL receives the file through COPY ... FROM STDIN, ClickHouse through
+ * INSERT ... FORMAT CSVWithNames (TabSeparatedWithNames, JSONEachRow). Either way
+ * the file is read in fixed-size chunks while it is sent, so memory use does not
+ * depend on its size.
+ *
+ * Output lines:
+ * {"type":"start","table":"t","format":"CSV","databaseType":"PostgreSQL"}
+ * {"type":"progress","bytes":4194304,"lines":52000,"elapsedMs":1000}   (about once per second)
+ * {"type":"end","rowCount":1000000,"bytes":80000000,"executionTimeMs":5400}
+ * or {"type":"error","message":"...","timedOut":true} if the import fails.
+ */
+public final class BulkImport {
+    private static final Logger LOGGER = Logger.getLogger(BulkImport.class.getName());
+
+    private static final long PROGRESS_INTERVAL_MILLIS = 1000;
+
+    private BulkImport() {
+    }
+
+    /**
+     * Check whether files can be imported through this connection.
+     */
+    public static boolean supports(DatabaseConnection connection) {
+        return connection instanceof PostgresConnection || connection instanceof ClickhouseConnection;
+    }
+
+    /**
+     * Import the file and write the progress lines.
+     * The input stream is NOT closed by this method.
+     *
+     * @param connection PostgreSQL or ClickHouse connection (see {@link #supports})
+     * @param table Target table, optionally schema-qualified
+     * @param in The uploaded file
+     * @param timeoutSeconds Maximum duration of the load, including the upload (0 = none)
+     * @param out Destination stream (typically the HTTP response body)
+     * @param startTime Request start time, used for the executionTimeMs in the trailer
+     * @return Number of rows imported, or -1 if the import failed
+     * @throws IOException if the client disconnects
+     */
+    public static long run(DatabaseConnection connection, String table, ImportFormat format, InputStream in,
+                           int timeoutSeconds, OutputStream out, long startTime) throws IOException {
+        JsonGenerator gen = ResultStreamWriter.createGenerator(out);
+        ProgressInputStream progress = new ProgressInputStream(in, gen, startTime);
+        try {
+            gen.writeStartObject();
+            gen.writeStringField("type", "start");
+            gen.writeStringField("table", table);
+            gen.writeStringField("format", format.name());
+            gen.writeStringField("databaseType", connection.getDatabaseType());
+            gen.writeEndObject();
+            ResultStreamWriter.newLine(gen);
+            gen.flush();
+
+            long rows = (connection instanceof PostgresConnection)
+                    ? ((PostgresConnection) connection).copyIn(table, format, progress, timeoutSeconds)
+                    : ((ClickhouseConnection) connection).insertFormatted(table, format, progress, timeoutSeconds);
+
+            long executionTime = System.currentTimeMillis() - startTime;
+            LOGGER.info("Imported " + rows + " rows (" + progress.bytes + " bytes) into " + table +
+                    " in " + executionTime + "ms");
+
+            synchronized (gen) {
+                gen.writeStartObject();
+                gen.writeStringField("type", "end");
+                gen.writeNumberField("rowCount", rows);
+                gen.writeNumberField("bytes", progress.bytes);
+                gen.writeNumberField("executionTimeMs", executionTime);
+                gen.writeEndObject();
+                ResultStreamWriter.newLine(gen);
+            }
+            return rows;
+
+        } catch (IOException e) {
+            // Client went away - nothing more can be written
+            LOGGER.info("Import into " + table + " aborted after " + progress.bytes + " bytes: " + e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            boolean timedOut = JdbcUtils.isTimeout(e);
+            if (timedOut) {
+                QueryMetrics.getInstance().recordTimeout(connection);
+            }
+            LOGGER.warning("Import into " + table + " failed after " + progress.bytes + " bytes: " + e.getMessage());
+            synchronized (gen) {
+                ResultStreamWriter.writeError(gen, null, e.getMessage(), timedOut);
+            }
+            return -1;
+        } finally {
+            gen.close();
+        }
+    }
+
+    /**
+     * Counts the bytes and lines read by the driver and writes a progress line
+     * whenever {@link #PROGRESS_INTERVAL_MILLIS} have passed. Lines are counted by
+     * line breaks, so quoted multi-line CSV values make the count an estimate.
+     */
+    private static final class ProgressInputStream extends FilterInputStream {
+        private final JsonGenerator gen;
+        private final long startTime;
+        private volatile long bytes;
+        private long lines;
+        private long lastReport;
+
+        ProgressInputStream(InputStream in, JsonGenerator gen, long startTime) {
+            super(in);
+            this.gen = gen;
+            this.startTime = startTime;
+            this.lastReport = System.currentTimeMillis();
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                counted(b == '\n' ? 1 : 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            int n = super.read(buffer, off, len);
+            if (n > 0) {
+                int newLines = 0;
+                for (int i = off; i < off + n; i++) {
+                    if (buffer[i] == '\n') {
+                        newLines++;
+                    }
+                }
+                counted(newLines, n);
+            }
+            return n;
+        }
+
+        private void counted(int newLines, int n) throws IOException {
+            bytes += n;
+            lines += newLines;
+            long now = System.currentTimeMillis();
+            if (now - lastReport < PROGRESS_INTERVAL_MILLIS) {
+                return;
+            }
+            lastReport = now;
+            // The ClickHouse client may read the upload on its own thread
+            synchronized (gen) {
+                gen.writeStartObject();
+                gen.writeStringField("type", "progress");
+                gen.writeNumberField("bytes", bytes);
+                gen.writeNumberField("lines", lines);
+                gen.writeNumberField("elapsedMs", now - startTime);
+                gen.writeEndObject();
+                ResultStreamWriter.newLine(gen);
+                gen.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,429 @@
+// src/main/java/com/debug/queryapp/service/ClickHouseBinaryReader.java
+
+package com.debug.queryapp.service;
+
+import com.clickhouse.client.ClickHouseException;
+import com.clickhouse.client.ClickHouseRequest;
+import com.clickhouse.client.ClickHouseResponse;
+import com.clickhouse.data.ClickHouseColumn;
+import com.clickhouse.data.ClickHouseFormat;
+import com.clickhouse.data.ClickHouseRecord;
+import com.clickhouse.data.ClickHouseValue;
+import com.clickhouse.jdbc.ClickHouseStatement;
+import com.clickhouse.jdbc.JdbcTypeMapping;
+import com.debug.queryapp.connection.ClickhouseConnection;
+import com.debug.queryapp.connection.DatabaseConnection;
+import com.debug.queryapp.connection.JdbcUtils;
+import com.debug.queryapp.connection.QueryOptions;
+import com.debug.queryapp.connection.QueryParameter;
+import com.debug.queryapp.model.ColumnInfo;
+import com.debug.queryapp.model.CompactResultSet;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fast path for ClickHouse SELECTs that skips JDBC row materialization.
+ *
+ * The query is sent through the ClickHouse client request behind a pooled JDBC
+ * statement, as FORMAT RowBinaryWithNamesAndTypes. The client's RowBinary processor
+ * decodes each row into reusable value holders, which are copied a batch at a time
+ * into per-column buffers: long[] for integers and booleans, double[] for Float64,
+ * Object[] only for strings, wide integers and other types. The JDBC path instead boxes every cell
+ * through ResultSet.getObject() and converts it again for JSON.
+ *
+ * The output matches the JDBC path: {@link #readCompact} builds the same compact result
+ * as {@link ResultSetReader}, {@link #writeStream} writes the same NDJSON as
+ * {@link ResultStreamWriter}: UInt64 and wider integers follow the same safe-integer rule,
+ * arrays and tuples become JSON arrays and maps JSON objects.
+ * Only plain statements are supported; queries with bind parameters use JDBC.
+ */
+public class ClickHouseBinaryReader implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ClickHouseBinaryReader.class.getName());
+
+    // "Code: 159. DB::Exception: ..." in errors the server sends after the header
+    private static final Pattern ERROR_CODE = Pattern.compile("Code: (\\d+)");
+
+    private final Connection conn;
+    private final Statement stmt;
+    private final ClickHouseResponse response;
+    private final String queryId;
+    private final Iterator<ClickHouseRecord> records;
+    private final List<ColumnInfo> columns;
+    private final ColumnBuffer[] buffers;
+    private final long acquireNanos;
+    private final long executeNanos;
+    private boolean exhausted = false;
+
+    private ClickHouseBinaryReader(Connection conn, Statement stmt, ClickHouseResponse response, String queryId,
+                                   int batchSize, long acquireNanos, long executeNanos) {
+        this.conn = conn;
+        this.stmt = stmt;
+        this.response = response;
+        this.queryId = queryId;
+        this.acquireNanos = acquireNanos;
+        this.executeNanos = executeNanos;
+
+        List<ClickHouseColumn> responseColumns = response.getColumns();
+        List<ColumnInfo> infos = new ArrayList<>(responseColumns.size());
+        buffers = new ColumnBuffer[responseColumns.size()];
+        for (int i = 0; i < buffers.length; i++) {
+            ClickHouseColumn column = responseColumns.get(i);
+            infos.add(new ColumnInfo(column.getColumnName(), column.getOriginalTypeName(), ResultSetReader.jdbcTypeName(
+                    JdbcTypeMapping.getDefaultMapping().toSqlType(column, Collections.emptyMap()))));
+            buffers[i] = new ColumnBuffer(Kind.of(column), batchSize);
+        }
+        this.columns = Collections.unmodifiableList(infos);
+        this.records = response.records().iterator();
+    }
+
+    /**
+     * Check whether a query can take the binary path.
+     *
+     * @param params Bind parameters of the query (the binary path runs plain statements only)
+     */
+    public static boolean supports(DatabaseConnection connection, List<QueryParameter> params) {
+        return connection instanceof ClickhouseConnection && (params == null || params.isEmpty());
+    }
+
+    /**
+     * Execute the query and read the column header.
+     * The reader holds a pooled connection until it is closed.
+     *
+     * @param connection ClickHouse connection (see {@link #supports})
+     * @param sql The exact SQL query to execute
+     * @param options Fetch size (rows per batch), row cap and timeout
+     * @return Reader positioned before the first row
+     * @throws Exception if execution fails
+     */
+    public static ClickHouseBinaryReader open(DatabaseConnection connection, String sql, QueryOptions options)
+            throws Exception {
+        long acquireStart = System.nanoTime();
+        Connection conn = connection.openConnection();
+        long executeStart = System.nanoTime();
+
+        Statement stmt = null;
+        ClickHouseResponse response = null;
+        try {
+            // The statement's request carries the server, credentials and settings of the pool;
+            // row cap and timeout are applied to it as max_result_rows and max_execution_time
+            stmt = conn.createStatement();
+            JdbcUtils.applyMaxRows(stmt, options.getMaxRows());
+            JdbcUtils.applyTimeout(stmt, options.getTimeoutSeconds());
+            ClickHouseRequest<?> request = stmt.unwrap(ClickHouseStatement.class).getRequest();
+
+            String queryId = UUID.randomUUID().toString();
+            LOGGER.info("Executing ClickHouse binary query " + queryId + ": " + sql.substring(0, Math.min(50, sql.length())));
+            response = request.format(ClickHouseFormat.RowBinaryWithNamesAndTypes)
+                    .query(sql, queryId)
+                    .executeAndWait();
+
+            int batchSize = (options.getFetchSize() > 0) ? options.getFetchSize() : 1000;
+            return new ClickHouseBinaryReader(conn, stmt, response, queryId, batchSize,
+                    executeStart - acquireStart, System.nanoTime() - executeStart);
+
+        } catch (ClickHouseException | SQLException | RuntimeException e) {
+            if (response != null) {
+                response.close();
+            }
+            JdbcUtils.closeQuietly(null, stmt, conn);
+            throw new Exception("ClickHouse query execution failed: " + e.getMessage(), toSqlException(e));
+        }
+    }
+
+    public List<ColumnInfo> getColumns() { return columns; }
+    public long getAcquireNanos() { return acquireNanos; }
+    public long getExecuteNanos() { return executeNanos; }
+
+    /**
+     * Decode the next batch of rows into the column buffers.
+     *
+     * @return Number of rows in the batch (0 once the result is exhausted)
+     * @throws SQLException if the server reports an error while the rows arrive
+     */
+    int nextBatch() throws SQLException {
+        int rows = 0;
+        try {
+            int batchSize = (buffers.length > 0) ? buffers[0].capacity : 1000;
+            while (rows < batchSize && records.hasNext()) {
+                ClickHouseRecord record = records.next();
+                for (int i = 0; i < buffers.length; i++) {
+                    buffers[i].read(rows, record.getValue(i));
+                }
+                rows++;
+            }
+        } catch (RuntimeException e) {
+            throw toSqlException(e);
+        }
+        if (rows == 0) {
+            exhausted = true;
+        }
+        return rows;
+    }
+
+    /**
+     * Read the remaining rows into the compact format, stopping at the limiter's caps.
+     */
+    public CompactResultSet readCompact(ResultLimiter limiter) throws Exception {
+        try {
+            List<Object[]> rows = new ArrayList<>();
+            int batch;
+            reading:
+            while ((batch = nextBatch()) > 0) {
+                for (int r = 0; r < batch; r++) {
+                    if (!limiter.canReadRow()) {
+                        break reading;
+                    }
+                    Object[] row = new Object[buffers.length];
+                    for (int i = 0; i < buffers.length; i++) {
+                        row[i] = buffers[i].value(r);
+                    }
+                    if (!limiter.accept(row)) {
+                        break reading;
+                    }
+                    rows.add(row);
+                }
+            }
+
+            LOGGER.info("Read " + rows.size() + " rows (compact, RowBinary) from ClickHouse" +
+                    (limiter.isTruncated() ? ", truncated by " + limiter.getTruncatedBy() : ""));
+            return new CompactResultSet(columns, rows, rows.size(),
+                    limiter.getTruncatedBy(), limiter.getByteCount());
+
+        } catch (Exception e) {
+            throw new Exception("Failed to process query results: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stream all rows as NDJSON in the {@link ResultStreamWriter} layout.
+     * Values are written straight from the column buffers, without boxing.
+     *
+     * @param out Destination stream (typically the HTTP response body)
+     * @param databaseType Database type reported in the header line
+     * @param startTime Request start time, used for the executionTimeMs in the trailer
+     * @return Number of rows written
+     * @throws IOException if the client disconnects or the stream fails
+     */
+    public long writeStream(OutputStream out, String databaseType, long startTime) throws IOException {
+        JsonGenerator gen = ResultStreamWriter.createGenerator(out);
+
+        long rowCount = 0;
+        try {
+            ResultStreamWriter.writeColumns(gen, columns, databaseType);
+
+            int batch;
+            while ((batch = nextBatch()) > 0) {
+                for (int r = 0; r < batch; r++) {
+                    gen.writeStartArray();
+                    for (ColumnBuffer buffer : buffers) {
+                        buffer.write(gen, r);
+                    }
+                    gen.writeEndArray();
+                    ResultStreamWriter.newLine(gen);
+                }
+                rowCount += batch;
+                // One flush per decoded batch
+                gen.flush();
+            }
+
+            gen.writeStartObject();
+            gen.writeStringField("type", "end");
+            gen.writeNumberField("rowCount", rowCount);
+            gen.writeNumberField("executionTimeMs", System.currentTimeMillis() - startTime);
+            gen.writeEndObject();
+            ResultStreamWriter.newLine(gen);
+
+        } catch (IOException e) {
+            LOGGER.info("Binary result stream aborted after " + rowCount + " rows: " + e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            LOGGER.warning("Error while streaming binary results after " + rowCount + " rows: " + e.getMessage());
+            ResultStreamWriter.writeError(gen, null, e.getMessage(), JdbcUtils.isTimeout(e));
+        } finally {
+            gen.close();
+        }
+        return rowCount;
+    }
+
+    /**
+     * Close the response and return the connection to the pool. If rows were left
+     * unread the query is killed on the server first, so it stops producing them.
+     */
+    @Override
+    public void close() {
+        if (!exhausted) {
+            try (Statement kill = conn.createStatement()) {
+                kill.execute("KILL QUERY WHERE query_id = '" + queryId + "' ASYNC");
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Could not kill ClickHouse query " + queryId, e);
+            }
+        }
+        try {
+            response.close();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.FINE, "Error closing ClickHouse response", e);
+        }
+        JdbcUtils.closeQuietly(null, stmt, conn);
+    }
+
+    /**
+     * Turn a client exception into a SQLException that keeps the server error code,
+     * so timeouts (TIMEOUT_EXCEEDED) are recognized like on the JDBC path.
+     */
+    static SQLException toSqlException(Throwable e) {
+        for (Throwable t = e; t != null; t = (t.getCause() != t) ? t.getCause() : null) {
+            if (t instanceof SQLException) {
+                return (SQLException) t;
+            }
+            if (t instanceof ClickHouseException) {
+                return new SQLException(t.getMessage(), null, ((ClickHouseException) t).getErrorCode(), e);
+            }
+        }
+        String message = String.valueOf(e.getMessage());
+        Matcher code = ERROR_CODE.matcher(message);
+        return new SQLException(message, null, code.find() ? Integer.parseInt(code.group(1)) : 0, e);
+    }
+
+    private enum Kind {
+        INTEGER, BIG_INTEGER, FLOAT64, BOOLEAN, STRING, OTHER;
+
+        static Kind of(ClickHouseColumn column) {
+            if (column.isArray() || column.isMap() || column.isTuple() || column.isNested()) {
+                return OTHER;
+            }
+            switch (column.getDataType()) {
+                case Int8: case Int16: case Int32: case Int64:
+                case UInt8: case UInt16: case UInt32:
+                    return INTEGER;
+                // Do not fit a signed long (UInt64 would come back as an UnsignedLong)
+                case UInt64: case Int128: case UInt128: case Int256: case UInt256:
+                    return BIG_INTEGER;
+                case Float64:
+                    return FLOAT64;
+                case Bool:
+                    return BOOLEAN;
+                case String: case FixedString: case Enum8: case Enum16: case UUID:
+                    return STRING;
+                default:
+                    return OTHER;
+            }
+        }
+    }
+
+    /**
+     * Values of one column for the current batch.
+     */
+    private static final class ColumnBuffer {
+        final Kind kind;
+        final int capacity;
+        final boolean[] nulls;
+        final long[] longs;
+        final double[] doubles;
+        final Object[] objects;
+
+        ColumnBuffer(Kind kind, int capacity) {
+            this.kind = kind;
+            this.capacity = capacity;
+            this.nulls = new boolean[capacity];
+            this.longs = (kind == Kind.INTEGER || kind == Kind.BOOLEAN) ? new long[capacity] : null;
+            this.doubles = (kind == Kind.FLOAT64) ? new double[capacity] : null;
+            this.objects = (longs == null && doubles == null) ? new Object[capacity] : null;
+        }
+
+        void read(int row, ClickHouseValue value) {
+            // Empty strings, arrays and maps are "empty" too, but not null
+            nulls[row] = value.isNullOrEmpty() && value.asObject() == null;
+            if (nulls[row]) {
+                if (objects != null) {
+                    objects[row] = null;
+                }
+                return;
+            }
+            switch (kind) {
+                case INTEGER:
+                    longs[row] = value.asLong();
+                    break;
+                case BOOLEAN:
+                    longs[row] = value.asBoolean() ? 1 : 0;
+                    break;
+                case FLOAT64:
+                    doubles[row] = value.asDouble();
+                    break;
+                case STRING:
+                    objects[row] = value.asString();
+                    break;
+                default:
+                    try {
+                        objects[row] = ResultSetReader.toJsonValue(
+                                (kind == Kind.BIG_INTEGER) ? value.asBigInteger() : value.asObject());
+                    } catch (SQLException e) {
+                        objects[row] = value.asString();
+                    }
+            }
+        }
+
+        /**
+         * JSON-friendly value, typed as {@link ResultSetReader#toJsonValue(Object)} would type it.
+         */
+        Object value(int row) {
+            if (nulls[row]) {
+                return null;
+            }
+            switch (kind) {
+                case INTEGER:
+                    long l = longs[row];
+                    return ResultSetReader.isSafeInteger(l) ? (Object) l : Long.toString(l);
+                case BOOLEAN:
+                    return longs[row] != 0;
+                case FLOAT64:
+                    double d = doubles[row];
+                    return Double.isFinite(d) ? (Object) d : Double.toString(d);
+                default:
+                    return objects[row];
+            }
+        }
+
+        void write(JsonGenerator gen, int row) throws IOException {
+            if (nulls[row]) {
+                gen.writeNull();
+                return;
+            }
+            switch (kind) {
+                case INTEGER:
+                    long l = longs[row];
+                    if (ResultSetReader.isSafeInteger(l)) {
+                        gen.writeNumber(l);
+                    } else {
+                        gen.writeString(Long.toString(l));
+                    }
+                    break;
+                case BOOLEAN:
+                    gen.writeBoolean(longs[row] != 0);
+                    break;
+                case FLOAT64:
+                    double d = doubles[row];
+                    if (Double.isFinite(d)) {
+                        gen.writeNumber(d);
+                    } else {
+                        gen.writeString(Double.toString(d));
+                    }
+                    break;
+                default:
+                    ResultSetReader.writeJsonValue(gen, objects[row]);
+            }
+        }
+    }
+}
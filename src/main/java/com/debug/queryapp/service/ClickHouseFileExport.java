@@ -0,0 +1,123 @@
+// src/main/java/com/debug/queryapp/service/ClickHouseFileExport.java
+
+package com.debug.queryapp.service;
+
+import com.clickhouse.client.ClickHouseException;
+import com.clickhouse.client.ClickHouseRequest;
+import com.clickhouse.client.ClickHouseResponse;
+import com.clickhouse.data.ClickHouseFormat;
+import com.clickhouse.jdbc.ClickHouseStatement;
+import com.debug.queryapp.connection.DatabaseConnection;
+import com.debug.queryapp.connection.JdbcUtils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A ClickHouse query result in one of the server's file output formats (e.g. Parquet),
+ * passed through to the client byte for byte.
+ *
+ * The server writes Parquet in row groups of column chunks with dictionary encoding,
+ * so the JVM only copies bytes from the HTTP response to the download, a buffer at a time.
+ */
+public class ClickHouseFileExport implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ClickHouseFileExport.class.getName());
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Connection conn;
+    private final Statement stmt;
+    private final ClickHouseResponse response;
+    private final String queryId;
+    private boolean exhausted = false;
+
+    private ClickHouseFileExport(Connection conn, Statement stmt, ClickHouseResponse response, String queryId) {
+        this.conn = conn;
+        this.stmt = stmt;
+        this.response = response;
+        this.queryId = queryId;
+    }
+
+    /**
+     * Execute the query with the given output format.
+     * The export holds a pooled connection until it is closed.
+     *
+     * @param connection ClickHouse connection (see {@link ClickHouseBinaryReader#supports})
+     * @param sql The exact SQL query to execute
+     * @param format Output format the server writes
+     * @param timeoutSeconds Maximum execution time (0 = none)
+     * @return Export ready to be transferred
+     * @throws Exception if execution fails
+     */
+    public static ClickHouseFileExport open(DatabaseConnection connection, String sql, ClickHouseFormat format,
+                                            int timeoutSeconds) throws Exception {
+        Connection conn = connection.openConnection();
+        Statement stmt = null;
+        ClickHouseResponse response = null;
+        try {
+            stmt = conn.createStatement();
+            JdbcUtils.applyTimeout(stmt, timeoutSeconds);
+            ClickHouseRequest<?> request = stmt.unwrap(ClickHouseStatement.class).getRequest();
+
+            String queryId = UUID.randomUUID().toString();
+            LOGGER.info("Executing ClickHouse " + format + " export " + queryId + ": " + sql.substring(0, Math.min(50, sql.length())));
+            response = request.format(format)
+                    .query(sql, queryId)
+                    .executeAndWait();
+            return new ClickHouseFileExport(conn, stmt, response, queryId);
+
+        } catch (ClickHouseException | SQLException | RuntimeException e) {
+            if (response != null) {
+                response.close();
+            }
+            JdbcUtils.closeQuietly(null, stmt, conn);
+            throw new Exception("ClickHouse export failed: " + e.getMessage(), ClickHouseBinaryReader.toSqlException(e));
+        }
+    }
+
+    /**
+     * Copy the whole file to the output stream.
+     *
+     * @return Number of bytes written
+     * @throws IOException if the client disconnects or the server fails mid-result
+     */
+    public long transferTo(OutputStream out) throws IOException {
+        InputStream in = response.getInputStream();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long bytes = 0;
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+            bytes += n;
+        }
+        exhausted = true;
+        return bytes;
+    }
+
+    /**
+     * Close the response and return the connection to the pool. If the file was not
+     * read to the end the query is killed on the server first.
+     */
+    @Override
+    public void close() {
+        if (!exhausted) {
+            try (Statement kill = conn.createStatement()) {
+                kill.execute("KILL QUERY WHERE query_id = '" + queryId + "' ASYNC");
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Could not kill ClickHouse query " + queryId, e);
+            }
+        }
+        try {
+            response.close();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.FINE, "Error closing ClickHouse response", e);
+        }
+        JdbcUtils.closeQuietly(null, stmt, conn);
+    }
+}
@@ -0,0 +1,38 @@
+// src/main/java/com/debug/queryapp/service/CountingOutputStream.java
+
+package com.debug.queryapp.service;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream wrapper that counts the bytes written through it,
+ * e.g. to report the encoded size of a response body.
+ */
+public class CountingOutputStream extends FilterOutputStream {
+    private long count = 0;
+
+    public CountingOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        count += len;
+    }
+
+    /**
+     * @return Bytes written so far
+     */
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,140 @@
+// src/main/java/com/debug/queryapp/service/DelimitedExportWriter.java
+
+package com.debug.queryapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a JDBC ResultSet to an output stream as CSV or TSV, one row at a time.
+ *
+ * Only the current row and a fixed-size write buffer are held, so the file can be
+ * any size. Values are formatted like the JSON results (ISO dates and timestamps,
+ * hex for binary, arrays and maps as JSON text).
+ *
+ * - CSV (RFC 4180, as PostgreSQL COPY ... CSV writes it): NULL is an empty unquoted
+ *   field and an empty string is ""; fields with a comma, quote or line break are
+ *   quoted, with quotes doubled
+ * - TSV (PostgreSQL text / ClickHouse TabSeparated): NULL is \N; backslash, tab and
+ *   line breaks are escaped with a backslash
+ */
+public final class DelimitedExportWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    private DelimitedExportWriter() {
+    }
+
+    /**
+     * Write all rows of the ResultSet.
+     * The ResultSet is NOT closed by this method.
+     *
+     * @param rs Open ResultSet positioned before the first row
+     * @param out Destination stream (typically the HTTP response body)
+     * @param format CSV or TSV
+     * @param header Start with a line of column names
+     * @param rowCount Single-element counter, updated as rows are written so the
+     *                 caller knows how far it got if reading fails
+     * @throws IOException if the client disconnects or the stream fails
+     * @throws SQLException if reading the rows fails
+     */
+    public static void write(ResultSet rs, OutputStream out, ExportFormat format, boolean header, long[] rowCount)
+            throws IOException, SQLException {
+        boolean csv = format == ExportFormat.CSV;
+        char delimiter = csv ? ',' : '\t';
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        if (header) {
+            for (int i = 1; i <= columnCount; i++) {
+                if (i > 1) {
+                    writer.write(delimiter);
+                }
+                writeField(writer, metaData.getColumnLabel(i), csv);
+            }
+            writer.write('\n');
+        }
+
+        while (rs.next()) {
+            for (int i = 1; i <= columnCount; i++) {
+                if (i > 1) {
+                    writer.write(delimiter);
+                }
+                writeField(writer, toText(rs.getObject(i)), csv);
+            }
+            writer.write('\n');
+            rowCount[0]++;
+        }
+        writer.flush();
+    }
+
+    private static String toText(Object value) throws IOException, SQLException {
+        Object converted = ResultSetReader.toJsonValue(value);
+        if (converted == null) {
+            return null;
+        }
+        if (converted instanceof List || converted instanceof Map) {
+            return JSON_MAPPER.writeValueAsString(converted);
+        }
+        if (converted instanceof BigDecimal) {
+            return ((BigDecimal) converted).toPlainString();
+        }
+        return converted.toString();
+    }
+
+    private static void writeField(Writer writer, String text, boolean csv) throws IOException {
+        if (text == null) {
+            if (!csv) {
+                writer.write("\\N");
+            }
+            return;
+        }
+        if (csv) {
+            // An empty string is quoted so it reads back differently from NULL
+            boolean quote = text.isEmpty();
+            for (int i = 0; i < text.length() && !quote; i++) {
+                char c = text.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(text);
+                return;
+            }
+            writer.write('"');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"') {
+                    writer.write('"');
+                }
+                writer.write(c);
+            }
+            writer.write('"');
+            return;
+        }
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\': writer.write("\\\\"); break;
+                case '\t': writer.write("\\t"); break;
+                case '\n': writer.write("\\n"); break;
+                case '\r': writer.write("\\r"); break;
+                default: writer.write(c);
+            }
+        }
+    }
+}
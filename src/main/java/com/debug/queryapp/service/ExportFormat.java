@@ -0,0 +1,51 @@
+// src/main/java/com/debug/queryapp/service/ExportFormat.java
+
+package com.debug.queryapp.service;
+
+import java.util.Locale;
+
+/**
+ * File formats of the query export.
+ */
+public enum ExportFormat {
+    CSV("text/csv", "csv"),
+    TSV("text/tab-separated-values", "tsv"),
+    PARQUET("application/vnd.apache.parquet", "parquet");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Convert a format name (csv, tsv, parquet; case-insensitive) to an ExportFormat.
+     *
+     * @return The format, or null if the name is not supported
+     */
+    public static ExportFormat fromName(String name) {
+        if (name == null) {
+            return null;
+        }
+        switch (name.trim().toLowerCase(Locale.ROOT)) {
+            case "csv":
+                return CSV;
+            case "tsv":
+                return TSV;
+            case "parquet":
+                return PARQUET;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,403 @@
+// src/main/java/com/debug/queryapp/service/FanOutQuery.java
+
+package com.debug.queryapp.service;
+
+import com.debug.queryapp.connection.ConnectionLease;
+import com.debug.queryapp.connection.ConnectionManager;
+import com.debug.queryapp.connection.DatabaseConnection;
+import com.debug.queryapp.connection.JdbcUtils;
+import com.debug.queryapp.connection.QueryOptions;
+import com.debug.queryapp.connection.QueryParameter;
+import com.debug.queryapp.model.ColumnInfo;
+import com.debug.queryapp.model.CompactResultSet;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs the same query against several connections concurrently and merges the
+ * results into one compact result whose first column names the source connection.
+ *
+ * At most maxParallel targets run at once (on virtual threads when the runtime
+ * supports them). Each target has its own timeout, counted from the moment it
+ * starts: an overdue query is cancelled on its server and reported as timed out,
+ * so a fleet-wide check takes about as long as the slowest target.
+ */
+public class FanOutQuery {
+    private static final Logger LOGGER = Logger.getLogger(FanOutQuery.class.getName());
+
+    public static final String SOURCE_COLUMN = "source_connection";
+
+    private static final int FETCH_SIZE = 1000;
+
+    // How often overdue targets are looked for
+    private static final long WATCH_INTERVAL_MILLIS = 100;
+
+    // Time a cancelled target gets to return before it is abandoned
+    private static final long CANCEL_GRACE_MILLIS = 5000;
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    public enum Status {
+        PENDING, RUNNING, SUCCEEDED, FAILED, TIMED_OUT
+    }
+
+    private final String sessionId;
+    private final String sql;
+    private final List<QueryParameter> params;
+    private final int maxParallel;
+    private final int timeoutSeconds;
+    private final long timeoutMillis;
+    private final long maxRowsPerTarget;
+    private final long maxBytesPerTarget;
+
+    /**
+     * @param sessionId Session the leases are taken for (counts against its quota), or null
+     * @param params Bind parameters for the SQL's placeholders, or null for a plain statement
+     * @param maxParallel Maximum number of targets queried at once
+     * @param timeoutSeconds Per-target timeout (0 = none)
+     * @param maxRowsPerTarget Row cap per target (0 = unlimited)
+     * @param maxBytesPerTarget Byte cap per target (0 = unlimited)
+     */
+    public FanOutQuery(String sessionId, String sql, List<QueryParameter> params, int maxParallel,
+                       int timeoutSeconds, long maxRowsPerTarget, long maxBytesPerTarget) {
+        this.sessionId = sessionId;
+        this.sql = sql;
+        this.params = params;
+        this.maxParallel = Math.max(1, maxParallel);
+        this.timeoutSeconds = timeoutSeconds;
+        this.timeoutMillis = timeoutSeconds * 1000L;
+        this.maxRowsPerTarget = maxRowsPerTarget;
+        this.maxBytesPerTarget = maxBytesPerTarget;
+    }
+
+    /**
+     * Query all targets and wait until each has finished, failed or timed out.
+     *
+     * @param connectionIds Connections to query; the merged rows keep this order
+     * @return One outcome per connection id, in the same order
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public List<Target> run(List<String> connectionIds) throws InterruptedException {
+        List<Target> targets = new ArrayList<>();
+        for (String connectionId : connectionIds) {
+            targets.add(new Target(connectionId));
+        }
+
+        ExecutorService executor = VirtualThreads.newPerTaskExecutor("fan-out-");
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(Math.min(maxParallel, targets.size()), r -> {
+                Thread t = new Thread(r, "fan-out-" + THREAD_COUNTER.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        Semaphore slots = new Semaphore(maxParallel);
+        CountDownLatch done = new CountDownLatch(targets.size());
+        try {
+            for (Target target : targets) {
+                executor.execute(() -> {
+                    try {
+                        slots.acquire();
+                        try {
+                            target.execute();
+                        } finally {
+                            slots.release();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        target.fail("Interrupted");
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+
+            while (!done.await(WATCH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                long now = System.currentTimeMillis();
+                boolean waiting = false;
+                for (Target target : targets) {
+                    waiting |= target.checkTimeout(now);
+                }
+                if (!waiting) {
+                    // Only cancelled targets that ignore the cancel are left
+                    break;
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return targets;
+    }
+
+    /**
+     * Merge the rows of all successful targets, prefixed with the source connection id.
+     * Targets whose columns differ from the first successful target are marked failed.
+     * Rows are added target by target until the limiter's row or byte cap is reached;
+     * targets whose rows were cut are reported as truncated by that cap.
+     *
+     * @param limiter Caps for the merged result (typically the global ones)
+     */
+    public static CompactResultSet merge(List<Target> targets, ResultLimiter limiter) {
+        List<ColumnInfo> columns = null;
+        List<Object[]> rows = new ArrayList<>();
+        String truncatedBy = null;
+
+        for (Target target : targets) {
+            CompactResultSet result = target.result;
+            if (target.status != Status.SUCCEEDED || result == null) {
+                continue;
+            }
+            if (columns == null) {
+                columns = new ArrayList<>();
+                columns.add(new ColumnInfo(SOURCE_COLUMN, "text", "VARCHAR"));
+                columns.addAll(result.getColumns());
+            } else if (!sameColumnNames(columns, result.getColumns())) {
+                target.reject("Result columns differ from the other connections: " + result.getColumns());
+                continue;
+            }
+
+            int merged = 0;
+            for (Object[] row : result.getRows()) {
+                if (!limiter.canReadRow()) {
+                    break;
+                }
+                Object[] tagged = new Object[row.length + 1];
+                tagged[0] = target.connectionId;
+                System.arraycopy(row, 0, tagged, 1, row.length);
+                if (!limiter.accept(tagged)) {
+                    break;
+                }
+                rows.add(tagged);
+                merged++;
+            }
+            target.merged(merged, (merged < result.getRowCount())
+                    ? limiter.getTruncatedBy() : result.getTruncatedBy());
+            if (target.truncatedBy != null) {
+                truncatedBy = target.truncatedBy;
+            }
+        }
+
+        if (limiter.isTruncated()) {
+            truncatedBy = limiter.getTruncatedBy();
+        }
+        if (columns == null) {
+            columns = new ArrayList<>();
+            columns.add(new ColumnInfo(SOURCE_COLUMN, "text", "VARCHAR"));
+        }
+        return new CompactResultSet(columns, rows, rows.size(), truncatedBy, limiter.getByteCount());
+    }
+
+    private static boolean sameColumnNames(List<ColumnInfo> merged, List<ColumnInfo> columns) {
+        if (merged.size() != columns.size() + 1) {
+            return false;
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            if (!merged.get(i + 1).getName().equalsIgnoreCase(columns.get(i).getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * One connection's part of the fan-out.
+     */
+    public final class Target {
+        private final String connectionId;
+        private volatile Status status = Status.PENDING;
+        private volatile long startedAt;
+        private volatile long finishedAt;
+        private volatile DatabaseConnection connection;
+        private volatile Statement statement;
+        private volatile CompactResultSet result;
+        private volatile String error;
+        private volatile long mergedRowCount = -1;
+        private volatile String truncatedBy;
+
+        Target(String connectionId) {
+            this.connectionId = connectionId;
+        }
+
+        private void execute() {
+            synchronized (this) {
+                if (status != Status.PENDING) {
+                    return;
+                }
+                status = Status.RUNNING;
+                startedAt = System.currentTimeMillis();
+            }
+
+            ResultSet rs = null;
+            try (ConnectionLease lease = ConnectionManager.getInstance().lease(sessionId, connectionId)) {
+                connection = lease.getConnection();
+                if (status != Status.RUNNING) {
+                    // Timed out while waiting for the pool
+                    return;
+                }
+
+                ResultLimiter limiter = new ResultLimiter(maxRowsPerTarget, maxBytesPerTarget);
+                QueryOptions options = new QueryOptions(FETCH_SIZE);
+                options.setMaxRows(limiter.getDriverMaxRows());
+                options.setParameters(params);
+                options.setStatementListener(this::attachStatement);
+                // Let the server stop the query too, not only the cancel from the watch loop
+                options.setTimeoutSeconds(timeoutSeconds);
+
+                try {
+                    rs = connection.executeStreamingQuery(sql, options);
+                    CompactResultSet read = ResultSetReader.readCompact(rs, limiter);
+                    JdbcUtils.commit(rs);
+                    if (limiter.isTruncated()) {
+                        JdbcUtils.cancelQuietly(rs);
+                    }
+                    succeed(read);
+                } finally {
+                    statement = null;
+                    JdbcUtils.closeQuietly(rs);
+                }
+            } catch (Exception e) {
+                LOGGER.log(Level.FINE, "Fan-out query failed on " + connectionId, e);
+                if (JdbcUtils.isTimeout(e)) {
+                    timeOut("Timed out: " + e.getMessage());
+                } else {
+                    fail(e.getMessage());
+                }
+            }
+        }
+
+        private void attachStatement(Statement stmt) {
+            statement = stmt;
+            if (status == Status.TIMED_OUT) {
+                // The deadline passed while the statement was being prepared
+                cancel(stmt);
+            }
+        }
+
+        private void cancel(Statement running) {
+            try {
+                connection.cancelQuery(running);
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Error cancelling fan-out query on " + connectionId, e);
+            }
+        }
+
+        /**
+         * Cancel the query if it has run longer than the timeout.
+         *
+         * @return true if the caller should keep waiting for this target
+         */
+        private boolean checkTimeout(long now) {
+            Statement running;
+            synchronized (this) {
+                if (status == Status.TIMED_OUT) {
+                    return now - finishedAt < CANCEL_GRACE_MILLIS && statement != null;
+                }
+                if (status != Status.RUNNING || timeoutMillis <= 0 || now - startedAt < timeoutMillis) {
+                    return status == Status.PENDING || status == Status.RUNNING;
+                }
+                finish(Status.TIMED_OUT, "Timed out after " + timeoutMillis + "ms");
+                running = statement;
+            }
+            if (connection != null) {
+                QueryMetrics.getInstance().recordTimeout(connection);
+            }
+
+            LOGGER.warning("Fan-out query on " + connectionId + " timed out after " + timeoutMillis + "ms");
+            if (running != null && connection != null) {
+                cancel(running);
+            }
+            return true;
+        }
+
+        // Stopped by the server-side timeout before the watch loop noticed
+        private void timeOut(String message) {
+            synchronized (this) {
+                if (status != Status.RUNNING) {
+                    return;
+                }
+                finish(Status.TIMED_OUT, message);
+            }
+            QueryMetrics.getInstance().recordTimeout(connection);
+        }
+
+        synchronized void succeed(CompactResultSet read) {
+            if (status == Status.PENDING || status == Status.RUNNING) {
+                result = read;
+                finish(Status.SUCCEEDED, null);
+            }
+        }
+
+        private synchronized void fail(String message) {
+            if (status == Status.PENDING || status == Status.RUNNING) {
+                finish(Status.FAILED, message);
+            }
+        }
+
+        // A successful result that cannot be merged
+        private synchronized void reject(String message) {
+            result = null;
+            status = Status.FAILED;
+            error = message;
+        }
+
+        // Rows taken into the merged result, and the cap (per target or merged) that cut them
+        private void merged(long rowCount, String cause) {
+            mergedRowCount = rowCount;
+            truncatedBy = cause;
+        }
+
+        private void finish(Status finalStatus, String message) {
+            status = finalStatus;
+            error = message;
+            finishedAt = System.currentTimeMillis();
+        }
+
+        /**
+         * Outcome summary for the response.
+         */
+        public Map<String, Object> toStatus() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("connectionId", connectionId);
+            summary.put("status", status.name());
+            if (connection != null) {
+                summary.put("databaseType", connection.getDatabaseType());
+            }
+            CompactResultSet read = result;
+            if (read != null) {
+                summary.put("rowCount", read.getRowCount());
+                String cause = (mergedRowCount >= 0) ? truncatedBy : read.getTruncatedBy();
+                if (mergedRowCount >= 0) {
+                    summary.put("mergedRowCount", mergedRowCount);
+                }
+                summary.put("truncated", cause != null);
+                if (cause != null) {
+                    summary.put("truncatedBy", cause);
+                }
+            }
+            long end = (finishedAt != 0) ? finishedAt : System.currentTimeMillis();
+            summary.put("executionTimeMs", (startedAt != 0) ? end - startedAt : 0);
+            if (error != null) {
+                summary.put("error", error);
+            }
+            return summary;
+        }
+
+        public String getConnectionId() { return connectionId; }
+        public Status getStatus() { return status; }
+        public CompactResultSet getResult() { return result; }
+        public String getError() { return error; }
+    }
+}
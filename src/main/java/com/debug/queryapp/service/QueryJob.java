@@ -0,0 +1,233 @@
+// src/main/java/com/debug/queryapp/service/QueryJob.java
+
+package com.debug.queryapp.service;
+
+import com.debug.queryapp.connection.ConnectionLease;
+import com.debug.queryapp.connection.DatabaseConnection;
+import com.debug.queryapp.connection.JdbcUtils;
+import com.debug.queryapp.connection.QueryOptions;
+import com.debug.queryapp.connection.QueryParameter;
+import com.debug.queryapp.model.ColumnInfo;
+import com.debug.queryapp.model.CompactResultSet;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.logging.Level;
+
+/**
+ * A query executed asynchronously on a worker thread.
+ *
+ * Tracks state, rows fetched so far and timing so clients can poll progress,
+ * and keeps a reference to the running Statement so the query can be cancelled.
+ * The job owns a connection lease, released when it finishes, so the pool is not
+ * closed underneath a queued or running job.
+ */
+public class QueryJob implements Runnable {
+    private static final Logger LOGGER = Logger.getLogger(QueryJob.class.getName());
+
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED, TIMED_OUT;
+
+        public boolean isFinished() {
+            return this == COMPLETED || this == FAILED || this == CANCELLED || this == TIMED_OUT;
+        }
+    }
+
+    private final String id;
+    private final String sql;
+    private final List<QueryParameter> params;
+    private final ConnectionLease lease;
+    private final DatabaseConnection connection;
+    private final ResultLimiter limiter;
+    private final int timeoutSeconds;
+    private final long submittedAt;
+
+    private final AtomicLong rowsFetched = new AtomicLong();
+    private volatile State state = State.QUEUED;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile Statement statement;
+    private volatile boolean cancelRequested = false;
+    private volatile CompactResultSet result;
+    private volatile String error;
+
+    /**
+     * @param lease Lease on the connection to run on; owned (and released) by the job
+     * @param params Bind parameters for the SQL's placeholders, or null for a plain statement
+     * @param limiter Row and byte caps for the in-memory result
+     * @param timeoutSeconds Maximum execution time (0 = no timeout)
+     */
+    public QueryJob(ConnectionLease lease, String sql, List<QueryParameter> params, ResultLimiter limiter,
+                    int timeoutSeconds) {
+        this.id = UUID.randomUUID().toString();
+        this.lease = lease;
+        this.connection = lease.getConnection();
+        this.sql = sql;
+        this.params = params;
+        this.limiter = limiter;
+        this.timeoutSeconds = timeoutSeconds;
+        this.submittedAt = System.currentTimeMillis();
+    }
+
+    @Override
+    public void run() {
+        synchronized (this) {
+            if (cancelRequested) {
+                finish(State.CANCELLED, null);
+                lease.close();
+                return;
+            }
+            state = State.RUNNING;
+            startedAt = System.currentTimeMillis();
+        }
+
+        LOGGER.info("Job " + id + " started on " + connection.getDatabaseType());
+
+        ResultSet rs = null;
+        try {
+            QueryOptions options = new QueryOptions();
+            options.setMaxRows(limiter.getDriverMaxRows());
+            options.setStatementListener(this::attachStatement);
+            options.setParameters(params);
+            options.setTimeoutSeconds(timeoutSeconds);
+
+            // Forward-only cursor so progress can be reported while rows arrive
+            rs = connection.executeStreamingQuery(sql, options);
+
+            List<ColumnInfo> columns = ResultSetReader.readColumns(rs.getMetaData());
+            int columnCount = columns.size();
+            List<Object[]> rows = new ArrayList<>();
+
+            while (!cancelRequested && rs.next() && limiter.canReadRow()) {
+                Object[] row = ResultSetReader.readRow(rs, columnCount);
+                if (!limiter.accept(row)) {
+                    break;
+                }
+                rows.add(row);
+                rowsFetched.incrementAndGet();
+            }
+
+            if (cancelRequested) {
+                finish(State.CANCELLED, null);
+            } else {
+                JdbcUtils.commit(rs);
+                if (limiter.isTruncated()) {
+                    // Stop the server from producing rows nobody will read
+                    JdbcUtils.cancelQuietly(rs);
+                }
+                result = new CompactResultSet(columns, rows, rows.size(),
+                        limiter.getTruncatedBy(), limiter.getByteCount());
+                finish(State.COMPLETED, null);
+            }
+
+        } catch (Exception e) {
+            if (cancelRequested) {
+                finish(State.CANCELLED, null);
+            } else if (JdbcUtils.isTimeout(e)) {
+                LOGGER.warning("Job " + id + " timed out after " + timeoutSeconds + "s");
+                QueryMetrics.getInstance().recordTimeout(connection);
+                finish(State.TIMED_OUT, "Query timed out after " + timeoutSeconds + "s: " + e.getMessage());
+            } else {
+                LOGGER.log(Level.WARNING, "Job " + id + " failed", e);
+                finish(State.FAILED, e.getMessage());
+            }
+        } finally {
+            statement = null;
+            JdbcUtils.closeQuietly(rs);
+            lease.close();
+        }
+
+        LOGGER.info("Job " + id + " " + state + " after " + getElapsedMs() + "ms, " + rowsFetched.get() + " rows");
+    }
+
+    /**
+     * Request cancellation. A queued job will not start; a running job has its
+     * statement cancelled on the database server.
+     *
+     * @return true if the job was still active
+     */
+    public boolean cancel() {
+        Statement running;
+        synchronized (this) {
+            if (state.isFinished()) {
+                return false;
+            }
+            cancelRequested = true;
+            if (state == State.QUEUED) {
+                finish(State.CANCELLED, null);
+                return true;
+            }
+            running = statement;
+        }
+
+        if (running != null) {
+            try {
+                connection.cancelQuery(running);
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Error cancelling job " + id, e);
+            }
+        }
+        return true;
+    }
+
+    private void attachStatement(Statement stmt) {
+        this.statement = stmt;
+    }
+
+    private synchronized void finish(State finalState, String errorMessage) {
+        if (state.isFinished()) {
+            return;
+        }
+        this.state = finalState;
+        this.error = errorMessage;
+        this.finishedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Milliseconds spent running so far (or in total once finished).
+     */
+    public long getElapsedMs() {
+        if (startedAt == 0) {
+            return 0;
+        }
+        long end = (finishedAt != 0) ? finishedAt : System.currentTimeMillis();
+        return end - startedAt;
+    }
+
+    /**
+     * Status snapshot for polling clients.
+     */
+    public Map<String, Object> toStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("jobId", id);
+        status.put("state", state.name());
+        status.put("databaseType", connection.getDatabaseType());
+        status.put("rowsFetched", rowsFetched.get());
+        status.put("truncated", limiter.isTruncated());
+        status.put("elapsedMs", getElapsedMs());
+        if (timeoutSeconds > 0) {
+            status.put("timeoutSeconds", timeoutSeconds);
+        }
+        status.put("submittedAt", submittedAt);
+        status.put("sql", sql.substring(0, Math.min(200, sql.length())));
+        if (error != null) {
+            status.put("error", error);
+        }
+        return status;
+    }
+
+    public String getId() { return id; }
+    public State getState() { return state; }
+    public long getSubmittedAt() { return submittedAt; }
+    public long getFinishedAt() { return finishedAt; }
+    public long getRowsFetched() { return rowsFetched.get(); }
+    public CompactResultSet getResult() { return result; }
+    public String getError() { return error; }
+    public String getDatabaseType() { return connection.getDatabaseType(); }
+}
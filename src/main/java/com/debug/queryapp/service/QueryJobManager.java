@@ -0,0 +1,172 @@
+// src/main/java/com/debug/queryapp/service/QueryJobManager.java
+
+package com.debug.queryapp.service;
+
+import com.debug.queryapp.connection.ConnectionLease;
+import com.debug.queryapp.connection.QueryParameter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Runs queries as asynchronous jobs so HTTP request threads are not held
+ * for the duration of long analytical queries.
+ *
+ * Jobs run on a bounded worker pool, or on one virtual thread each when enabled
+ * (Java 21+); finished jobs (and their results) are kept for a retention period
+ * so clients can fetch them, then discarded.
+ * Implements singleton pattern for application-wide access.
+ */
+public class QueryJobManager {
+    private static final Logger LOGGER = Logger.getLogger(QueryJobManager.class.getName());
+    private static final QueryJobManager INSTANCE = new QueryJobManager();
+
+    private static final int WORKER_THREADS = 16;
+    private static final long RETENTION_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private static final long SWEEP_INTERVAL_SECONDS = 60;
+
+    private final Map<String, QueryJob> jobs = new ConcurrentHashMap<>();
+    private volatile ExecutorService workers;
+    private final ScheduledExecutorService sweeper;
+
+    /**
+     * Private constructor for singleton pattern.
+     */
+    private QueryJobManager() {
+        AtomicInteger threadCounter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(WORKER_THREADS, r -> {
+            Thread t = new Thread(r, "query-job-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "query-job-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(this::removeExpired,
+                SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Get the singleton instance of QueryJobManager.
+     *
+     * @return The QueryJobManager instance
+     */
+    public static QueryJobManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Run jobs on virtual threads instead of the fixed worker pool. Blocking JDBC
+     * calls then do not tie up platform threads; the number of queries actually
+     * hitting a database is bounded by the per-pool limit in ConnectionManager.
+     * Call at startup, before jobs are submitted.
+     *
+     * @return true if virtual threads are in use, false if the runtime does not support them
+     */
+    public synchronized boolean useVirtualThreads() {
+        ExecutorService virtualWorkers = VirtualThreads.newPerTaskExecutor("query-job-");
+        if (virtualWorkers == null) {
+            LOGGER.warning("Virtual threads requested but not supported by this Java runtime; " +
+                    "keeping " + WORKER_THREADS + " worker threads");
+            return false;
+        }
+        ExecutorService previous = workers;
+        workers = virtualWorkers;
+        // Jobs already queued on the platform pool still run there
+        previous.shutdown();
+        LOGGER.info("Query jobs run on virtual threads");
+        return true;
+    }
+
+    /**
+     * Submit a query for asynchronous execution.
+     *
+     * @param lease Lease on the connection to run on; the job releases it when it finishes
+     * @param sql The SQL query (executed WITHOUT MODIFICATION)
+     * @param params Bind parameters for the SQL's placeholders, or null for a plain statement
+     * @param limiter Row and byte caps for the job's result
+     * @param timeoutSeconds Maximum execution time (0 = no timeout)
+     * @return The queued job
+     */
+    public QueryJob submit(ConnectionLease lease, String sql, List<QueryParameter> params, ResultLimiter limiter,
+                           int timeoutSeconds) {
+        QueryJob job = new QueryJob(lease, sql, params, limiter, timeoutSeconds);
+        jobs.put(job.getId(), job);
+        workers.execute(job);
+        LOGGER.info("Job submitted: " + job.getId() + " (" + job.getDatabaseType() + ")");
+        return job;
+    }
+
+    /**
+     * Get a job by ID.
+     *
+     * @return The job, or null if unknown or already discarded
+     */
+    public QueryJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    /**
+     * Get all known jobs, most recent first.
+     */
+    public List<QueryJob> getJobs() {
+        List<QueryJob> list = new ArrayList<>(jobs.values());
+        list.sort(Comparator.comparingLong(QueryJob::getSubmittedAt).reversed());
+        return list;
+    }
+
+    /**
+     * Cancel a job.
+     *
+     * @return true if the job was active and has been cancelled
+     */
+    public boolean cancel(String jobId) {
+        QueryJob job = jobs.get(jobId);
+        return job != null && job.cancel();
+    }
+
+    /**
+     * Cancel (if needed) and forget a job, releasing its result.
+     *
+     * @return true if the job existed
+     */
+    public boolean remove(String jobId) {
+        QueryJob job = jobs.remove(jobId);
+        if (job == null) {
+            return false;
+        }
+        job.cancel();
+        return true;
+    }
+
+    /**
+     * Cancel all running jobs and stop the workers. Called on application shutdown.
+     */
+    public void shutdown() {
+        for (QueryJob job : jobs.values()) {
+            job.cancel();
+        }
+        workers.shutdownNow();
+        sweeper.shutdownNow();
+    }
+
+    private void removeExpired() {
+        long now = System.currentTimeMillis();
+        for (QueryJob job : new ArrayList<>(jobs.values())) {
+            if (job.getState().isFinished() && now - job.getFinishedAt() > RETENTION_MILLIS) {
+                jobs.remove(job.getId());
+                LOGGER.info("Job expired: " + job.getId());
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+// src/main/java/com/debug/queryapp/service/QueryMetrics.java
+
+package com.debug.queryapp.service;
+
+import com.debug.queryapp.connection.DatabaseConnection;
+import com.debug.queryapp.connection.PoolRegistry;
+import com.debug.queryapp.model.QueryTimings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated query latency per database type and phase
+ * (pool acquire, execute, fetch, serialize, total).
+ *
+ * Tells a saturated pool (acquire) apart from a slow database (execute/fetch)
+ * and a slow serializer. Every measurement is also published to Micrometer's global
+ * registry (scraped at /actuator/prometheus), tagged by database type and pool:
+ * <ul>
+ *   <li>queryapp.query.latency - timer with percentile histogram, tag "phase"</li>
+ *   <li>queryapp.query.rows - rows returned per query</li>
+ *   <li>queryapp.query.bytes - bytes serialized per query</li>
+ *   <li>queryapp.query.timeouts - queries stopped by their timeout</li>
+ * </ul>
+ * Timed-out queries are counted separately and do not enter the latency figures,
+ * which would otherwise be dominated by the timeout value.
+ * Pool names are unique per pool instance, so the meters of a pool are removed from
+ * the registry when the pool is closed; reconnects do not accumulate series.
+ * Implements singleton pattern for application-wide access.
+ */
+public class QueryMetrics {
+    private static final QueryMetrics INSTANCE = new QueryMetrics();
+
+    static final String[] PHASES = {"acquire", "execute", "fetch", "serialize", "total"};
+
+    private final Map<String, DatabaseStats> stats = new ConcurrentHashMap<>();
+    private final Map<String, PoolMeters> meters = new ConcurrentHashMap<>();
+    private final MeterRegistry registry = Metrics.globalRegistry;
+
+    /**
+     * Private constructor for singleton pattern.
+     */
+    private QueryMetrics() {
+        PoolRegistry.getInstance().addCloseListener(this::removePool);
+    }
+
+    /**
+     * Get the singleton instance of QueryMetrics.
+     *
+     * @return The QueryMetrics instance
+     */
+    public static QueryMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Record a completed query.
+     *
+     * @param connection Connection the query ran on (database type and pool name)
+     * @param timings Phase breakdown of the request
+     * @param rows Rows returned
+     * @param bytes Bytes of JSON produced
+     */
+    public void record(DatabaseConnection connection, QueryTimings timings, long rows, long bytes) {
+        String databaseType = connection.getDatabaseType();
+        String poolName = connection.getPoolName();
+
+        PoolMeters pool = meters.computeIfAbsent(poolName, k -> new PoolMeters(registry, databaseType, poolName));
+        pool.phases[0].record(timings.acquireNanos(), TimeUnit.NANOSECONDS);
+        pool.phases[1].record(timings.executeNanos(), TimeUnit.NANOSECONDS);
+        pool.phases[2].record(timings.fetchNanos(), TimeUnit.NANOSECONDS);
+        pool.phases[3].record(timings.serializeNanos(), TimeUnit.NANOSECONDS);
+        pool.phases[4].record(timings.totalNanos(), TimeUnit.NANOSECONDS);
+        pool.rows.record(rows);
+        pool.bytes.record(bytes);
+
+        DatabaseStats db = stats.computeIfAbsent(databaseType, k -> new DatabaseStats());
+        db.phases[0].record(timings.acquireNanos());
+        db.phases[1].record(timings.executeNanos());
+        db.phases[2].record(timings.fetchNanos());
+        db.phases[3].record(timings.serializeNanos());
+        db.phases[4].record(timings.totalNanos());
+        db.rows.add(rows);
+        db.bytes.add(bytes);
+    }
+
+    /**
+     * Record a query that was stopped because it ran past its timeout.
+     *
+     * @param connection Connection the query ran on (database type and pool name)
+     */
+    public void recordTimeout(DatabaseConnection connection) {
+        String databaseType = connection.getDatabaseType();
+        String poolName = connection.getPoolName();
+
+        meters.computeIfAbsent(poolName, k -> new PoolMeters(registry, databaseType, poolName)).timeouts.increment();
+        stats.computeIfAbsent(databaseType, k -> new DatabaseStats()).timeouts.increment();
+    }
+
+    /**
+     * Drop the meters of a closed pool from the registry. The per-database-type
+     * aggregates are kept.
+     *
+     * @param connection Connection whose pool was closed
+     */
+    public void removePool(DatabaseConnection connection) {
+        PoolMeters pool = meters.remove(connection.getPoolName());
+        if (pool != null) {
+            pool.remove(registry);
+        }
+    }
+
+    /**
+     * Snapshot of all recorded metrics, keyed by database type.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new TreeMap<>();
+        stats.forEach((databaseType, db) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("queries", db.phases[4].count.sum());
+            entry.put("timeouts", db.timeouts.sum());
+            entry.put("rows", db.rows.sum());
+            entry.put("bytes", db.bytes.sum());
+            for (int i = 0; i < PHASES.length; i++) {
+                entry.put(PHASES[i], db.phases[i].toMap());
+            }
+            result.put(databaseType, entry);
+        });
+        return result;
+    }
+
+    private static final class PoolMeters {
+        final Timer[] phases = new Timer[PHASES.length];
+        final DistributionSummary rows;
+        final DistributionSummary bytes;
+        final Counter timeouts;
+
+        PoolMeters(MeterRegistry registry, String databaseType, String poolName) {
+            for (int i = 0; i < phases.length; i++) {
+                phases[i] = Timer.builder("queryapp.query.latency")
+                        .description("Query latency by phase")
+                        .tags("db", databaseType, "pool", poolName, "phase", PHASES[i])
+                        .publishPercentileHistogram()
+                        .register(registry);
+            }
+            rows = DistributionSummary.builder("queryapp.query.rows")
+                    .description("Rows returned per query")
+                    .baseUnit("rows")
+                    .tags("db", databaseType, "pool", poolName)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            bytes = DistributionSummary.builder("queryapp.query.bytes")
+                    .description("Bytes serialized per query")
+                    .baseUnit("bytes")
+                    .tags("db", databaseType, "pool", poolName)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            timeouts = Counter.builder("queryapp.query.timeouts")
+                    .description("Queries stopped by their timeout")
+                    .tags("db", databaseType, "pool", poolName)
+                    .register(registry);
+        }
+
+        void remove(MeterRegistry registry) {
+            for (Meter meter : phases) {
+                registry.remove(meter);
+            }
+            registry.remove(rows);
+            registry.remove(bytes);
+            registry.remove(timeouts);
+        }
+    }
+
+    private static final class DatabaseStats {
+        final PhaseStats[] phases = new PhaseStats[PHASES.length];
+        final LongAdder rows = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final LongAdder timeouts = new LongAdder();
+
+        DatabaseStats() {
+            for (int i = 0; i < phases.length; i++) {
+                phases[i] = new PhaseStats();
+            }
+        }
+    }
+
+    private static final class PhaseStats {
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        Map<String, Object> toMap() {
+            long n = count.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("count", n);
+            map.put("totalMs", totalNanos.sum() / 1_000_000.0);
+            map.put("avgMs", n > 0 ? totalNanos.sum() / 1_000_000.0 / n : 0.0);
+            map.put("maxMs", maxNanos.get() / 1_000_000.0);
+            return map;
+        }
+    }
+}
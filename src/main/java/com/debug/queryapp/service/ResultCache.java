@@ -0,0 +1,233 @@
+// src/main/java/com/debug/queryapp/service/ResultCache.java
+
+package com.debug.queryapp.service;
+
+import com.debug.queryapp.connection.DatabaseConnection;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * In-memory cache of query results, keyed by connection identity (JDBC URL + user)
+ * and the exact SQL text.
+ *
+ * Entries expire after their own TTL. The total estimated heap size of cached results
+ * (see {@link ResultLimiter#getHeapBytes()}) is bounded by a memory budget; when it is
+ * exceeded the least recently used entries are evicted first.
+ *
+ * Lookups, puts and evictions are also published to Micrometer's global registry:
+ * <ul>
+ *   <li>queryapp.cache.gets - lookups, tag "result" (hit / miss)</li>
+ *   <li>queryapp.cache.puts - results stored</li>
+ *   <li>queryapp.cache.evictions - entries removed, tag "cause" (size / expired)</li>
+ *   <li>queryapp.cache.size / queryapp.cache.bytes - current entries and estimated heap</li>
+ * </ul>
+ * Implements singleton pattern for application-wide access.
+ */
+public class ResultCache {
+    private static final Logger LOGGER = Logger.getLogger(ResultCache.class.getName());
+    private static final ResultCache INSTANCE = new ResultCache();
+
+    private static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long maxBytes = DEFAULT_MAX_BYTES;
+    private long currentBytes = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong puts = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    /**
+     * Private constructor for singleton pattern.
+     */
+    private ResultCache() {
+        this(Metrics.globalRegistry);
+    }
+
+    ResultCache(MeterRegistry registry) {
+        FunctionCounter.builder("queryapp.cache.gets", hits, AtomicLong::get)
+                .description("Result cache lookups")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("queryapp.cache.gets", misses, AtomicLong::get)
+                .description("Result cache lookups")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("queryapp.cache.puts", puts, AtomicLong::get)
+                .description("Results stored in the result cache")
+                .register(registry);
+        FunctionCounter.builder("queryapp.cache.evictions", evictions, AtomicLong::get)
+                .description("Result cache entries removed")
+                .tag("cause", "size")
+                .register(registry);
+        FunctionCounter.builder("queryapp.cache.evictions", expirations, AtomicLong::get)
+                .description("Result cache entries removed")
+                .tag("cause", "expired")
+                .register(registry);
+        Gauge.builder("queryapp.cache.size", this, ResultCache::size)
+                .description("Entries in the result cache")
+                .register(registry);
+        Gauge.builder("queryapp.cache.bytes", this, ResultCache::sizeBytes)
+                .description("Estimated heap retained by cached results")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * Get the singleton instance of ResultCache.
+     *
+     * @return The ResultCache instance
+     */
+    public static ResultCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Build the cache key for a query.
+     *
+     * @param connection Connection the query runs on (identified by JDBC URL and user)
+     * @param sql The exact SQL text
+     * @param variant Anything else that changes the result shape (format, limits)
+     */
+    public static String key(DatabaseConnection connection, String sql, String variant) {
+        return connection.getJdbcUrl() + '\u0000' + connection.getUsername() + '\u0000'
+                + variant + '\u0000' + sql;
+    }
+
+    /**
+     * Set the memory budget and evict entries until the cache fits in it.
+     *
+     * @param maxBytes Budget for the estimated heap size of all cached results
+     */
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        evictToBudget();
+    }
+
+    /**
+     * Look up a cached result.
+     *
+     * @return The cached result, or null on a miss or if the entry has expired
+     */
+    public synchronized Object get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            removeEntry(key, entry);
+            expirations.incrementAndGet();
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value;
+    }
+
+    /**
+     * Store a result. Results larger than the whole budget are not cached.
+     *
+     * @param key Key from {@link #key(DatabaseConnection, String, String)}
+     * @param value The result object (treated as immutable)
+     * @param sizeBytes Estimated heap retained by the result ({@link ResultLimiter#getHeapBytes()})
+     * @param ttlMillis Time to live of this entry
+     */
+    public synchronized void put(String key, Object value, long sizeBytes, long ttlMillis) {
+        // Entry, map node and the key string
+        long weight = sizeBytes + 96 + 2L * key.length();
+        if (ttlMillis <= 0 || weight > maxBytes) {
+            return;
+        }
+
+        Entry previous = entries.remove(key);
+        if (previous != null) {
+            currentBytes -= previous.weight;
+        }
+
+        entries.put(key, new Entry(value, weight, System.currentTimeMillis() + ttlMillis));
+        currentBytes += weight;
+        puts.incrementAndGet();
+
+        evictToBudget();
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+        LOGGER.info("Result cache cleared");
+    }
+
+    /**
+     * Hit/miss counters and current occupancy.
+     */
+    public synchronized Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long lookups = hitCount + misses.get();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("sizeBytes", currentBytes);
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hitCount);
+        stats.put("misses", misses.get());
+        stats.put("hitRatio", lookups > 0 ? (double) hitCount / lookups : 0.0);
+        stats.put("puts", puts.get());
+        stats.put("evictions", evictions.get());
+        stats.put("expirations", expirations.get());
+        return stats;
+    }
+
+    private synchronized double size() {
+        return entries.size();
+    }
+
+    private synchronized double sizeBytes() {
+        return currentBytes;
+    }
+
+    private void evictToBudget() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Entry> eldest = it.next();
+            it.remove();
+            currentBytes -= eldest.getValue().weight;
+            if (eldest.getValue().expiresAt <= now) {
+                expirations.incrementAndGet();
+            } else {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private void removeEntry(String key, Entry entry) {
+        entries.remove(key);
+        currentBytes -= entry.weight;
+    }
+
+    private static final class Entry {
+        final Object value;
+        final long weight;
+        final long expiresAt;
+
+        Entry(Object value, long weight, long expiresAt) {
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
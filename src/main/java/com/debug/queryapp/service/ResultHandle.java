@@ -0,0 +1,184 @@
+// src/main/java/com/debug/queryapp/service/ResultHandle.java
+
+package com.debug.queryapp.service;
+
+import com.debug.queryapp.connection.ConnectionLease;
+import com.debug.queryapp.connection.JdbcUtils;
+import com.debug.queryapp.model.ColumnInfo;
+import com.debug.queryapp.model.ResultPage;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * An open forward-only cursor that is read one page at a time.
+ *
+ * The handle owns the ResultSet together with its Statement and pooled Connection,
+ * and an idle lease (see {@link ConnectionLease#retainIdle()}) that keeps the connection
+ * pool open while the cursor is in use without counting against the session quota.
+ * JDBC resources are released as soon as the cursor is exhausted, when the handle
+ * is closed explicitly, or when it has been idle for longer than its TTL. The query's
+ * transaction is committed only once the cursor has been read to the end.
+ *
+ * With a {@link ResultSpillBuffer} every row read from the cursor is also kept
+ * (spilled to a temporary file past a memory threshold), so pages can be requested
+ * again in any order, also after the cursor is exhausted. The file is deleted when
+ * the handle is closed or expires.
+ */
+public class ResultHandle {
+    private final String id;
+    private final String databaseType;
+    private final int pageSize;
+    private final long ttlMillis;
+    private final List<ColumnInfo> columns;
+
+    private ResultSet rs;
+    private ConnectionLease lease;
+    private ResultSpillBuffer buffer;
+    private long rowsRead = 0;
+    private boolean exhausted = false;
+    private volatile long lastAccessTime;
+
+    /**
+     * @param rs Open forward-only ResultSet (ownership is transferred to the handle)
+     * @param lease Lease on the originating connection (ownership is transferred to the handle)
+     * @param pageSize Rows per page
+     * @param ttlMillis Idle time after which the handle expires
+     */
+    public ResultHandle(ResultSet rs, ConnectionLease lease, int pageSize, long ttlMillis) throws Exception {
+        this(rs, lease, pageSize, ttlMillis, null);
+    }
+
+    /**
+     * @param rs Open forward-only ResultSet (ownership is transferred to the handle)
+     * @param lease Lease on the originating connection (ownership is transferred to the handle)
+     * @param pageSize Rows per page
+     * @param ttlMillis Idle time after which the handle expires
+     * @param buffer Keeps the rows read so far for revisiting pages (null = forward-only;
+     *               ownership is transferred to the handle)
+     */
+    public ResultHandle(ResultSet rs, ConnectionLease lease, int pageSize, long ttlMillis,
+                        ResultSpillBuffer buffer) throws Exception {
+        this.id = UUID.randomUUID().toString();
+        this.rs = rs;
+        this.lease = lease;
+        this.buffer = buffer;
+        this.databaseType = lease.getConnection().getDatabaseType();
+        this.pageSize = pageSize;
+        this.ttlMillis = ttlMillis;
+        this.columns = ResultSetReader.readColumns(rs.getMetaData());
+        this.lastAccessTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Read the requested page.
+     * Pages after the last one read come from the cursor; pages after the next one skip
+     * the rows in between (still buffering them). Pages that were already read are served
+     * from the buffer; without one, or past its size limit, they can no longer be served.
+     *
+     * @param page Zero-based page number
+     * @return The page, with hasMore=false for the last page of the result
+     * @throws IllegalStateException if the page was already consumed and is not buffered
+     */
+    public synchronized ResultPage readPage(int page) throws Exception {
+        lastAccessTime = System.currentTimeMillis();
+
+        long first = (long) page * pageSize;
+        long end = first + pageSize;
+        if (first < rowsRead) {
+            if (buffer == null || buffer.getRowCount() < Math.min(end, rowsRead)) {
+                long nextPage = (rowsRead + pageSize - 1) / pageSize;
+                throw new IllegalStateException("Page " + page + " was already read from result " + id +
+                        "; the cursor is forward-only (next page is " + nextPage + ")");
+            }
+            List<Object[]> rows = buffer.readPage(page);
+            return new ResultPage(id, columns, rows, page, pageSize, end < rowsRead || !exhausted);
+        }
+
+        if (exhausted) {
+            return new ResultPage(id, columns, new ArrayList<>(), page, pageSize, false);
+        }
+
+        try {
+            int columnCount = columns.size();
+            List<Object[]> rows = new ArrayList<>(pageSize);
+            while (rowsRead < end && rs.next()) {
+                boolean wanted = rowsRead >= first;
+                rowsRead++;
+                if (!wanted && !isBuffering()) {
+                    // Skip pages the client jumped over
+                    continue;
+                }
+
+                Object[] row = new Object[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    row[i] = ResultSetReader.toJsonValue(rs.getObject(i + 1));
+                }
+                if (isBuffering()) {
+                    // Once the buffer is full, later pages are forward-only
+                    buffer.add(row);
+                }
+                if (wanted) {
+                    rows.add(row);
+                }
+            }
+
+            if (rowsRead < end) {
+                // Cursor drained: give the connection back to the pool right away
+                JdbcUtils.commit(rs);
+                exhausted = true;
+                release();
+            }
+
+            return new ResultPage(id, columns, rows, page, pageSize, !exhausted);
+
+        } catch (Exception e) {
+            exhausted = true;
+            release();
+            throw new Exception("Failed to read page " + page + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Rows are still added to the buffer as they are read
+    private boolean isBuffering() {
+        return buffer != null && !buffer.isFull();
+    }
+
+    /**
+     * Release the cursor, statement and pooled connection.
+     */
+    public synchronized void close() {
+        exhausted = true;
+        release();
+        if (buffer != null) {
+            buffer.close();
+            buffer = null;
+        }
+    }
+
+    private void release() {
+        if (rs != null) {
+            JdbcUtils.closeQuietly(rs);
+            rs = null;
+        }
+        if (lease != null) {
+            lease.close();
+            lease = null;
+        }
+    }
+
+    public boolean isExpired(long now) {
+        return now - lastAccessTime > ttlMillis;
+    }
+
+    public String getId() { return id; }
+    public String getDatabaseType() { return databaseType; }
+    public int getPageSize() { return pageSize; }
+    public synchronized boolean isExhausted() { return exhausted; }
+
+    /**
+     * Check whether pages that were already read can be requested again.
+     */
+    public synchronized boolean isBuffered() { return buffer != null && buffer.getRowCount() > 0; }
+}
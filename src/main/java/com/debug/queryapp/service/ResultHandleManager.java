@@ -0,0 +1,108 @@
+// src/main/java/com/debug/queryapp/service/ResultHandleManager.java
+
+package com.debug.queryapp.service;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Keeps track of open result handles (server-side cursors).
+ *
+ * Idle handles are closed by a background sweeper once their TTL elapses,
+ * so abandoned cursors do not keep pooled connections checked out.
+ * Implements singleton pattern for application-wide access.
+ */
+public class ResultHandleManager {
+    private static final Logger LOGGER = Logger.getLogger(ResultHandleManager.class.getName());
+    private static final ResultHandleManager INSTANCE = new ResultHandleManager();
+
+    private static final long SWEEP_INTERVAL_SECONDS = 15;
+
+    private final Map<String, ResultHandle> handles = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService sweeper;
+
+    /**
+     * Private constructor for singleton pattern.
+     */
+    private ResultHandleManager() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "result-handle-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(this::closeExpired,
+                SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Get the singleton instance of ResultHandleManager.
+     *
+     * @return The ResultHandleManager instance
+     */
+    public static ResultHandleManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Register an open handle so later page requests can find it.
+     */
+    public void register(ResultHandle handle) {
+        handles.put(handle.getId(), handle);
+        LOGGER.info("Result handle opened: " + handle.getId() + " (" + handles.size() + " open)");
+    }
+
+    /**
+     * Get a handle by ID.
+     *
+     * @return The handle, or null if it does not exist or has expired
+     */
+    public ResultHandle getHandle(String handleId) {
+        return handles.get(handleId);
+    }
+
+    /**
+     * Close a handle and release its connection.
+     *
+     * @return true if the handle existed
+     */
+    public boolean close(String handleId) {
+        ResultHandle handle = handles.remove(handleId);
+        if (handle == null) {
+            return false;
+        }
+        handle.close();
+        LOGGER.info("Result handle closed: " + handleId);
+        return true;
+    }
+
+    /**
+     * Close all open handles. Called on application shutdown.
+     */
+    public void closeAll() {
+        for (String handleId : new ArrayList<>(handles.keySet())) {
+            close(handleId);
+        }
+    }
+
+    /**
+     * Get the number of open handles.
+     */
+    public int getOpenHandleCount() {
+        return handles.size();
+    }
+
+    private void closeExpired() {
+        long now = System.currentTimeMillis();
+        for (ResultHandle handle : new ArrayList<>(handles.values())) {
+            if (handle.isExpired(now)) {
+                LOGGER.info("Result handle expired: " + handle.getId());
+                close(handle.getId());
+            }
+        }
+    }
+}
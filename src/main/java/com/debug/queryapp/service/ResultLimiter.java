@@ -0,0 +1,210 @@
+// src/main/java/com/debug/queryapp/service/ResultLimiter.java
+
+package com.debug.queryapp.service;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Enforces row and byte caps while a result is being read into memory.
+ *
+ * Bytes are an estimate of the serialized JSON size of the row values, which is
+ * what actually ends up on the heap and on the wire. Once a cap is reached reading
+ * stops and the result is flagged as truncated.
+ *
+ * Alongside the JSON size the limiter keeps an estimate of the heap retained by the
+ * accepted rows (object headers, boxed values, strings), which is what a cached
+ * result really costs; it is typically several times the JSON size.
+ */
+public class ResultLimiter {
+    public static final String BY_ROWS = "maxRows";
+    public static final String BY_BYTES = "maxBytes";
+
+    private final long maxRows;
+    private final long maxBytes;
+
+    private long rowCount = 0;
+    private long byteCount = 0;
+    private long heapBytes = 0;
+    private String truncatedBy;
+
+    // Rough HotSpot sizes (64-bit, compressed oops)
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int STRING_OVERHEAD = 24 + 16;   // String + its byte[] header
+    private static final int MAP_ENTRY = 40;              // LinkedHashMap.Entry
+
+    /**
+     * @param maxRows Row cap (0 = unlimited)
+     * @param maxBytes Byte cap (0 = unlimited)
+     */
+    public ResultLimiter(long maxRows, long maxBytes) {
+        this.maxRows = Math.max(0, maxRows);
+        this.maxBytes = Math.max(0, maxBytes);
+    }
+
+    /**
+     * Combine per-request limits with the global ones.
+     * A request may lower the global caps but never raise them.
+     *
+     * @param requestedRows Row cap from the request (null or &lt;= 0 = use global)
+     * @param requestedBytes Byte cap from the request (null or &lt;= 0 = use global)
+     * @param globalRows Global row cap (0 = unlimited)
+     * @param globalBytes Global byte cap (0 = unlimited)
+     */
+    public static ResultLimiter of(Long requestedRows, Long requestedBytes, long globalRows, long globalBytes) {
+        return new ResultLimiter(effective(requestedRows, globalRows), effective(requestedBytes, globalBytes));
+    }
+
+    private static long effective(Long requested, long global) {
+        if (requested == null || requested <= 0) {
+            return global;
+        }
+        return (global > 0) ? Math.min(requested, global) : requested;
+    }
+
+    /**
+     * Row cap to hand to the driver: one more than the limit so that
+     * the reader can tell "exactly maxRows rows" from "more rows available".
+     *
+     * @return Driver row cap (0 = none)
+     */
+    public long getDriverMaxRows() {
+        return (maxRows > 0 && maxRows < Long.MAX_VALUE) ? maxRows + 1 : 0;
+    }
+
+    /**
+     * Check before reading the values of the current row.
+     *
+     * @return false if the row cap has been reached; the result is then truncated
+     */
+    public boolean canReadRow() {
+        if (truncatedBy != null) {
+            return false;
+        }
+        if (maxRows > 0 && rowCount >= maxRows) {
+            truncatedBy = BY_ROWS;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Account for a row that has been read.
+     *
+     * @param values Row values as produced by {@link ResultSetReader#toJsonValue(Object)}
+     * @return false if the row would exceed the byte cap; it must then be dropped
+     */
+    public boolean accept(Object[] values) {
+        long rowBytes = 2; // [ ]
+        long rowHeap = OBJECT_HEADER + (long) REFERENCE * values.length + REFERENCE;
+        for (Object value : values) {
+            rowBytes += estimateJsonSize(value) + 1;
+            rowHeap += estimateHeapSize(value);
+        }
+        return accept(rowBytes, rowHeap);
+    }
+
+    /**
+     * Account for a row that has been read as a column name to value map.
+     *
+     * @return false if the row would exceed the byte cap; it must then be dropped
+     */
+    public boolean accept(Map<String, Object> row) {
+        long rowBytes = 2; // { }
+        // LinkedHashMap with its table; the key strings are shared column names
+        long rowHeap = 56 + OBJECT_HEADER + (long) REFERENCE * Math.max(16, row.size() * 2) + REFERENCE;
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            rowBytes += entry.getKey().length() + 4 + estimateJsonSize(entry.getValue());
+            rowHeap += MAP_ENTRY + estimateHeapSize(entry.getValue());
+        }
+        return accept(rowBytes, rowHeap);
+    }
+
+    private boolean accept(long rowBytes, long rowHeap) {
+        if (maxBytes > 0 && byteCount + rowBytes > maxBytes) {
+            truncatedBy = BY_BYTES;
+            return false;
+        }
+        rowCount++;
+        byteCount += rowBytes;
+        heapBytes += rowHeap;
+        return true;
+    }
+
+    /**
+     * Approximate serialized JSON size of a value (string escapes are not counted).
+     */
+    static long estimateJsonSize(Object value) {
+        if (value == null) {
+            return 4;
+        }
+        if (value instanceof String) {
+            return ((String) value).length() + 2;
+        }
+        if (value instanceof Collection) {
+            long size = 2;
+            for (Object element : (Collection<?>) value) {
+                size += estimateJsonSize(element) + 1;
+            }
+            return size;
+        }
+        if (value instanceof Map) {
+            long size = 2;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                size += String.valueOf(entry.getKey()).length() + 4 + estimateJsonSize(entry.getValue());
+            }
+            return size;
+        }
+        return value.toString().length();
+    }
+
+    /**
+     * Approximate heap retained by a value as produced by {@link ResultSetReader#toJsonValue(Object)}.
+     * Strings are counted at two bytes per char, which covers non-Latin-1 text.
+     */
+    static long estimateHeapSize(Object value) {
+        if (value == null || value instanceof Boolean) {
+            return 0; // Boolean.TRUE / FALSE are shared
+        }
+        if (value instanceof String) {
+            return STRING_OVERHEAD + 2L * ((String) value).length();
+        }
+        if (value instanceof Long || value instanceof Double) {
+            return 24;
+        }
+        if (value instanceof BigDecimal || value instanceof BigInteger) {
+            return 40 + 8 + value.toString().length() / 2;
+        }
+        if (value instanceof Number) {
+            return 16;
+        }
+        if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            long size = 24 + OBJECT_HEADER + (long) REFERENCE * collection.size();
+            for (Object element : collection) {
+                size += estimateHeapSize(element);
+            }
+            return size;
+        }
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            long size = 56 + OBJECT_HEADER + (long) REFERENCE * Math.max(16, map.size() * 2);
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += MAP_ENTRY + estimateHeapSize(entry.getKey()) + estimateHeapSize(entry.getValue());
+            }
+            return size;
+        }
+        return STRING_OVERHEAD + 2L * value.toString().length();
+    }
+
+    public boolean isTruncated() { return truncatedBy != null; }
+    public String getTruncatedBy() { return truncatedBy; }
+    public long getRowCount() { return rowCount; }
+    public long getByteCount() { return byteCount; }
+    public long getHeapBytes() { return heapBytes; }
+    public long getMaxRows() { return maxRows; }
+    public long getMaxBytes() { return maxBytes; }
+}
@@ -0,0 +1,271 @@
+// src/main/java/com/debug/queryapp/service/ResultSetReader.java
+
+package com.debug.queryapp.service;
+
+import com.debug.queryapp.model.ColumnInfo;
+import com.debug.queryapp.model.CompactResultSet;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Array;
+import java.sql.JDBCType;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Converts JDBC results into the compact, typed result format.
+ *
+ * Values keep their JSON type where one exists (numbers, booleans) and fall back to
+ * ISO-8601 / string representations for temporal and driver-specific objects.
+ * Integers outside the JavaScript safe range (2^53), and decimals a double cannot
+ * carry exactly, are sent as strings so the browser does not silently round them.
+ */
+public class ResultSetReader {
+    private static final Logger LOGGER = Logger.getLogger(ResultSetReader.class.getName());
+
+    // Largest integer a JavaScript number holds exactly (2^53 - 1)
+    private static final long MAX_SAFE_INTEGER = 9007199254740991L;
+    private static final BigInteger MAX_SAFE_BIG = BigInteger.valueOf(MAX_SAFE_INTEGER);
+    private static final BigInteger MIN_SAFE_BIG = BigInteger.valueOf(-MAX_SAFE_INTEGER);
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private ResultSetReader() {
+    }
+
+    /**
+     * Read column metadata from a ResultSet.
+     */
+    public static List<ColumnInfo> readColumns(ResultSetMetaData metadata) throws SQLException {
+        int columnCount = metadata.getColumnCount();
+        List<ColumnInfo> columns = new ArrayList<>(columnCount);
+        for (int i = 1; i <= columnCount; i++) {
+            columns.add(new ColumnInfo(
+                    metadata.getColumnName(i),
+                    metadata.getColumnTypeName(i),
+                    jdbcTypeName(metadata.getColumnType(i))
+            ));
+        }
+        return columns;
+    }
+
+    /**
+     * Read the remaining rows into the compact format, stopping at the limiter's caps.
+     * IMPORTANT: This must be called BEFORE closing the ResultSet!
+     */
+    public static CompactResultSet readCompact(ResultSet rs, ResultLimiter limiter) throws Exception {
+        try {
+            List<ColumnInfo> columns = readColumns(rs.getMetaData());
+            int columnCount = columns.size();
+
+            List<Object[]> rows = new ArrayList<>();
+            while (rs.next() && limiter.canReadRow()) {
+                Object[] row = readRow(rs, columnCount);
+                if (!limiter.accept(row)) {
+                    break;
+                }
+                rows.add(row);
+            }
+
+            LOGGER.info("Read " + rows.size() + " rows (compact) from ResultSet" +
+                    (limiter.isTruncated() ? ", truncated by " + limiter.getTruncatedBy() : ""));
+            return new CompactResultSet(columns, rows, rows.size(),
+                    limiter.getTruncatedBy(), limiter.getByteCount());
+
+        } catch (Exception e) {
+            throw new Exception("Failed to process query results: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Read the current row as JSON-friendly values.
+     */
+    public static Object[] readRow(ResultSet rs, int columnCount) throws SQLException {
+        Object[] row = new Object[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            row[i] = toJsonValue(rs.getObject(i + 1));
+        }
+        return row;
+    }
+
+    /**
+     * Convert a value returned by ResultSet.getObject into a JSON-friendly value.
+     *
+     * Arrays and collections (SQL arrays, ClickHouse tuples) become lists and maps
+     * become maps with string keys, their elements converted the same way.
+     *
+     * @return null, Boolean, Number, String, List or Map
+     */
+    public static Object toJsonValue(Object value) throws SQLException {
+        if (value == null || value instanceof Boolean || value instanceof String) {
+            return value;
+        }
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return value;
+        }
+        if (value instanceof BigDecimal) {
+            BigDecimal d = (BigDecimal) value;
+            return isExactDouble(d) ? value : d.toPlainString();
+        }
+        if (value instanceof Long) {
+            long l = (Long) value;
+            return isSafeInteger(l) ? value : value.toString();
+        }
+        if (value instanceof BigInteger) {
+            BigInteger b = (BigInteger) value;
+            return (b.compareTo(MAX_SAFE_BIG) <= 0 && b.compareTo(MIN_SAFE_BIG) >= 0) ? b.longValue() : b.toString();
+        }
+        if (value instanceof Double || value instanceof Float) {
+            double d = ((Number) value).doubleValue();
+            // JSON has no representation for NaN / Infinity
+            return Double.isFinite(d) ? value : value.toString();
+        }
+        if (value instanceof java.sql.Timestamp) {
+            return ((java.sql.Timestamp) value).toLocalDateTime().toString();
+        }
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate().toString();
+        }
+        if (value instanceof java.sql.Time) {
+            return ((java.sql.Time) value).toLocalTime().toString();
+        }
+        if (value instanceof TemporalAccessor) {
+            return value.toString();
+        }
+        if (value instanceof byte[]) {
+            return toHex((byte[]) value);
+        }
+        if (value instanceof Array) {
+            return toJsonValue(((Array) value).getArray());
+        }
+        if (value.getClass().isArray()) {
+            int length = java.lang.reflect.Array.getLength(value);
+            List<Object> list = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                list.add(toJsonValue(java.lang.reflect.Array.get(value, i)));
+            }
+            return list;
+        }
+        if (value instanceof Collection) {
+            List<Object> list = new ArrayList<>(((Collection<?>) value).size());
+            for (Object element : (Collection<?>) value) {
+                list.add(toJsonValue(element));
+            }
+            return list;
+        }
+        if (value instanceof Map) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                map.put(String.valueOf(toJsonValue(entry.getKey())), toJsonValue(entry.getValue()));
+            }
+            return map;
+        }
+        if (value instanceof Number) {
+            return toJsonNumber((Number) value);
+        }
+        return value.toString();
+    }
+
+    /**
+     * Driver-specific numbers (e.g. ClickHouse unsigned types) by their decimal text,
+     * so they get the same safe-integer and exact-decimal rules as the JDK types.
+     */
+    private static Object toJsonNumber(Number value) throws SQLException {
+        String text = value.toString();
+        try {
+            return toJsonValue(new BigInteger(text));
+        } catch (NumberFormatException e) {
+            try {
+                return toJsonValue(new BigDecimal(text));
+            } catch (NumberFormatException notDecimal) {
+                return text;
+            }
+        }
+    }
+
+    /**
+     * Write a value produced by {@link #toJsonValue(Object)} with a streaming generator.
+     */
+    public static void writeJsonValue(JsonGenerator gen, Object value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else if (value instanceof String) {
+            gen.writeString((String) value);
+        } else if (value instanceof Boolean) {
+            gen.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            gen.writeNumber(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            gen.writeNumber((Long) value);
+        } else if (value instanceof BigDecimal) {
+            gen.writeNumber((BigDecimal) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            gen.writeNumber(((Number) value).doubleValue());
+        } else if (value instanceof List) {
+            gen.writeStartArray();
+            for (Object element : (List<?>) value) {
+                writeJsonValue(gen, element);
+            }
+            gen.writeEndArray();
+        } else if (value instanceof Map) {
+            gen.writeStartObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                gen.writeFieldName(String.valueOf(entry.getKey()));
+                writeJsonValue(gen, entry.getValue());
+            }
+            gen.writeEndObject();
+        } else {
+            gen.writeString(value.toString());
+        }
+    }
+
+    /**
+     * Check whether a JavaScript client parsing the integer as a number gets it exactly.
+     */
+    static boolean isSafeInteger(long value) {
+        return value <= MAX_SAFE_INTEGER && value >= -MAX_SAFE_INTEGER;
+    }
+
+    /**
+     * Check whether a decimal survives a round trip through a double, i.e. whether
+     * a JavaScript client parsing it as a number gets the same value back.
+     */
+    static boolean isExactDouble(BigDecimal value) {
+        double d = value.doubleValue();
+        if (!Double.isFinite(d)) {
+            return false;
+        }
+        // Up to 15 significant digits always round-trip
+        if (value.precision() <= 15 && Math.abs(d) >= Double.MIN_NORMAL) {
+            return true;
+        }
+        return value.signum() == 0 || new BigDecimal(Double.toString(d)).compareTo(value) == 0;
+    }
+
+    static String jdbcTypeName(int sqlType) {
+        try {
+            return JDBCType.valueOf(sqlType).getName();
+        } catch (IllegalArgumentException e) {
+            return String.valueOf(sqlType);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[2 + bytes.length * 2];
+        chars[0] = '\\';
+        chars[1] = 'x';
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 + i * 2] = HEX[(bytes[i] >> 4) & 0x0F];
+            chars[3 + i * 2] = HEX[bytes[i] & 0x0F];
+        }
+        return new String(chars);
+    }
+}
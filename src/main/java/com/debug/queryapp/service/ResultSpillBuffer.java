@@ -0,0 +1,347 @@
+// src/main/java/com/debug/queryapp/service/ResultSpillBuffer.java
+
+package com.debug.queryapp.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Rows already read from a paged cursor, kept so that earlier pages can be served again.
+ *
+ * Rows are held in memory until their estimated size crosses the memory threshold;
+ * then all of them are written to a temporary file and every later row is appended
+ * there, so the heap holds at most the threshold per result however large it gets.
+ * Pages are read back with one positional read of just the byte range of the page
+ * into a heap buffer, located through an offset recorded for the first row of each page.
+ *
+ * Row format: the columns' values one after another, each a tag byte followed by
+ * its payload - nothing for NULL/TRUE/FALSE, 8 bytes for integers and doubles,
+ * 4 for floats, a 4-byte length and UTF-8 bytes for strings and decimals, a 4-byte
+ * count and the elements for arrays, a 4-byte count and key/value pairs for maps.
+ * Values come back as the same JSON types.
+ *
+ * Not thread-safe: the owning {@link ResultHandle} serializes access.
+ */
+public class ResultSpillBuffer implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ResultSpillBuffer.class.getName());
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte FLOAT = 5;
+    private static final byte STRING = 6;
+    private static final byte DECIMAL = 7;
+    private static final byte LIST = 8;
+    private static final byte MAP = 9;
+
+    private final int pageSize;
+    private final long memoryThresholdBytes;
+    private final long maxFileBytes;
+    private final Path directory;
+
+    private List<Object[]> memoryRows = new ArrayList<>();
+    private long memoryBytes = 0;
+    private long rowCount = 0;
+    private boolean full = false;
+
+    // Set once the rows have been spilled
+    private Path file;
+    private DataOutputStream out;
+    private FileChannel channel;
+    private int columnCount;
+    private long fileBytes = 0;
+    private long flushedBytes = 0;
+    private long[] pageOffsets = new long[16];
+
+    /**
+     * @param pageSize Rows per page of the owning handle
+     * @param memoryThresholdBytes Estimated row size kept in memory before spilling to disk
+     * @param maxFileBytes Largest temporary file; later rows are not buffered (0 = unlimited)
+     * @param directory Where temporary files are created
+     */
+    public ResultSpillBuffer(int pageSize, long memoryThresholdBytes, long maxFileBytes, Path directory) {
+        this.pageSize = pageSize;
+        this.memoryThresholdBytes = memoryThresholdBytes;
+        this.maxFileBytes = maxFileBytes;
+        this.directory = directory;
+    }
+
+    /**
+     * Append the next row of the result.
+     *
+     * @param row Values as produced by {@link ResultSetReader#toJsonValue(Object)}
+     * @return false if the buffer is full (size limit reached, or the temporary file
+     *         could not be written); the row and all later ones are not kept
+     */
+    public boolean add(Object[] row) {
+        if (full) {
+            return false;
+        }
+        if (out == null) {
+            memoryRows.add(row);
+            for (Object value : row) {
+                memoryBytes += ResultLimiter.estimateJsonSize(value) + 1;
+            }
+            rowCount++;
+            if (memoryBytes > memoryThresholdBytes) {
+                spill();
+            }
+            return true;
+        }
+
+        if (maxFileBytes > 0 && fileBytes >= maxFileBytes) {
+            full = true;
+            LOGGER.info("Result spill file " + file.getFileName() + " reached " + fileBytes +
+                    " bytes; rows after " + rowCount + " are no longer kept");
+            return false;
+        }
+        try {
+            writeRow(out, row, rowCount);
+        } catch (IOException e) {
+            full = true;
+            LOGGER.log(Level.WARNING, "Could not write result spill file " + file + "; rows after " +
+                    rowCount + " are no longer kept", e);
+            return false;
+        }
+        rowCount++;
+        return true;
+    }
+
+    /**
+     * Read a page of buffered rows.
+     *
+     * @param page Zero-based page number
+     * @return The buffered rows of the page (fewer than pageSize for the last one)
+     * @throws IOException if the temporary file cannot be read
+     */
+    public List<Object[]> readPage(int page) throws IOException {
+        long first = (long) page * pageSize;
+        int count = (int) Math.max(0, Math.min(pageSize, rowCount - first));
+        List<Object[]> rows = new ArrayList<>(count);
+        if (count == 0) {
+            return rows;
+        }
+        if (out == null) {
+            rows.addAll(memoryRows.subList((int) first, (int) first + count));
+            return rows;
+        }
+
+        if (flushedBytes < fileBytes) {
+            out.flush();
+            flushedBytes = fileBytes;
+        }
+        long start = pageOffsets[page];
+        long end = (first + pageSize < rowCount) ? pageOffsets[page + 1] : fileBytes;
+        ByteBuffer region = ByteBuffer.allocate(Math.toIntExact(end - start));
+        while (region.hasRemaining()) {
+            if (channel.read(region, start + region.position()) < 0) {
+                throw new IOException("Result spill file " + file.getFileName() + " ends before page " + page);
+            }
+        }
+        region.flip();
+
+        for (int r = 0; r < count; r++) {
+            Object[] row = new Object[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                row[i] = readValue(region);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Delete the temporary file.
+     */
+    @Override
+    public void close() {
+        memoryRows = new ArrayList<>();
+        if (file == null) {
+            return;
+        }
+        try {
+            out.close();
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Error closing result spill file", e);
+        }
+        try {
+            Files.deleteIfExists(file);
+            LOGGER.info("Result spill file deleted: " + file.getFileName() + " (" + fileBytes + " bytes)");
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not delete result spill file " + file, e);
+        }
+    }
+
+    public long getRowCount() { return rowCount; }
+    public boolean isFull() { return full; }
+    public boolean isSpilled() { return file != null; }
+    public long getFileBytes() { return fileBytes; }
+
+    // Move the in-memory rows to a new temporary file; if that fails they stay in memory
+    private void spill() {
+        Path spillFile = null;
+        DataOutputStream spillOut = null;
+        try {
+            spillFile = Files.createTempFile(directory, "result-", ".spill");
+            spillOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillFile), WRITE_BUFFER_SIZE));
+            long index = 0;
+            for (Object[] row : memoryRows) {
+                writeRow(spillOut, row, index++);
+            }
+            channel = FileChannel.open(spillFile, StandardOpenOption.READ);
+        } catch (IOException e) {
+            full = true;
+            LOGGER.log(Level.WARNING, "Could not spill result to disk; rows after " + rowCount +
+                    " are no longer kept", e);
+            try {
+                if (spillOut != null) {
+                    spillOut.close();
+                }
+                if (spillFile != null) {
+                    Files.deleteIfExists(spillFile);
+                }
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            fileBytes = 0;
+            return;
+        }
+
+        file = spillFile;
+        out = spillOut;
+        columnCount = memoryRows.get(0).length;
+        LOGGER.info("Result spilled to " + file.getFileName() + " after " + rowCount + " rows (~" +
+                memoryBytes + " bytes in memory)");
+        memoryRows = null;
+        memoryBytes = 0;
+    }
+
+    private void writeRow(DataOutputStream out, Object[] row, long index) throws IOException {
+        if (index % pageSize == 0) {
+            int page = (int) (index / pageSize);
+            if (page == pageOffsets.length) {
+                pageOffsets = Arrays.copyOf(pageOffsets, page * 2);
+            }
+            pageOffsets[page] = fileBytes;
+        }
+        for (Object value : row) {
+            writeValue(out, value);
+        }
+    }
+
+    private void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+            fileBytes += 1;
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? TRUE : FALSE);
+            fileBytes += 1;
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte(LONG);
+            out.writeLong(((Number) value).longValue());
+            fileBytes += 9;
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+            fileBytes += 9;
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+            fileBytes += 5;
+        } else if (value instanceof List) {
+            List<?> elements = (List<?>) value;
+            out.writeByte(LIST);
+            out.writeInt(elements.size());
+            fileBytes += 5;
+            for (Object element : elements) {
+                writeValue(out, element);
+            }
+        } else if (value instanceof Map) {
+            Map<?, ?> entries = (Map<?, ?>) value;
+            out.writeByte(MAP);
+            out.writeInt(entries.size());
+            fileBytes += 5;
+            for (Map.Entry<?, ?> entry : entries.entrySet()) {
+                writeString(out, STRING, String.valueOf(entry.getKey()));
+                writeValue(out, entry.getValue());
+            }
+        } else if (value instanceof Number) {
+            writeString(out, DECIMAL, value.toString());
+        } else {
+            writeString(out, STRING, value.toString());
+        }
+    }
+
+    private void writeString(DataOutputStream out, byte tag, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeByte(tag);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        fileBytes += 5 + bytes.length;
+    }
+
+    private static Object readValue(ByteBuffer in) {
+        byte tag = in.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case LONG:
+                return in.getLong();
+            case DOUBLE:
+                return in.getDouble();
+            case FLOAT:
+                return in.getFloat();
+            case STRING:
+                return readString(in);
+            case DECIMAL:
+                return new BigDecimal(readString(in));
+            case LIST:
+                int size = in.getInt();
+                List<Object> elements = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    elements.add(readValue(in));
+                }
+                return elements;
+            case MAP:
+                int entries = in.getInt();
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < entries; i++) {
+                    in.get(); // STRING tag of the key
+                    map.put(readString(in), readValue(in));
+                }
+                return map;
+            default:
+                throw new IllegalStateException("Corrupt result spill file: unknown value tag " + tag);
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
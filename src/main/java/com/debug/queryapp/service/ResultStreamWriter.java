@@ -0,0 +1,179 @@
+// src/main/java/com/debug/queryapp/service/ResultStreamWriter.java
+
+package com.debug.queryapp.service;
+
+import com.debug.queryapp.connection.JdbcUtils;
+import com.debug.queryapp.model.ColumnInfo;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Writes a JDBC ResultSet to an output stream as NDJSON (one JSON document per line),
+ * reading rows straight from the cursor so memory stays bounded regardless of result size.
+ *
+ * Stream layout:
+ * <pre>
+ * {"type":"columns","columns":[{"name":"id","type":"int8","jdbcType":"BIGINT"},...],"databaseType":"PostgreSQL"}
+ * [1,"alice"]
+ * [2,"bob"]
+ * {"type":"end","rowCount":2,"executionTimeMs":12}
+ * </pre>
+ * Values are typed the same way as the compact result format (see {@link ResultSetReader}).
+ * If reading fails after the header was sent, an {"type":"error"} line is written instead of "end"
+ * (with "timedOut": true if the query ran past its timeout).
+ */
+public class ResultStreamWriter {
+    private static final Logger LOGGER = Logger.getLogger(ResultStreamWriter.class.getName());
+
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+    // Flush periodically so the client sees rows while the query is still producing them
+    private static final int FLUSH_EVERY_ROWS = 500;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private ResultStreamWriter() {
+    }
+
+    /**
+     * Stream all rows of the ResultSet as NDJSON.
+     * The ResultSet is NOT closed by this method.
+     *
+     * @param rs Open ResultSet positioned before the first row
+     * @param out Destination stream (typically the HTTP response body)
+     * @param databaseType Database type reported in the header line
+     * @param startTime Request start time, used for the executionTimeMs in the trailer
+     * @return Number of rows written
+     * @throws IOException if the client disconnects or the stream fails
+     */
+    public static long write(ResultSet rs, OutputStream out, String databaseType, long startTime)
+            throws IOException {
+        JsonGenerator gen = createGenerator(out);
+
+        long[] rowCount = {0};
+        try {
+            List<ColumnInfo> columns = ResultSetReader.readColumns(rs.getMetaData());
+
+            // Header line: column metadata
+            writeColumns(gen, columns, databaseType);
+
+            // One positional array per row
+            writeRows(gen, rs, columns.size(), 0, rowCount);
+            JdbcUtils.commit(rs);
+
+            // Trailer line
+            gen.writeStartObject();
+            gen.writeStringField("type", "end");
+            gen.writeNumberField("rowCount", rowCount[0]);
+            gen.writeNumberField("executionTimeMs", System.currentTimeMillis() - startTime);
+            gen.writeEndObject();
+            newLine(gen);
+
+        } catch (IOException e) {
+            // Client went away - nothing more can be written
+            LOGGER.info("Result stream aborted after " + rowCount[0] + " rows: " + e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            LOGGER.warning("Error while streaming results after " + rowCount[0] + " rows: " + e.getMessage());
+            writeError(gen, null, e.getMessage(), JdbcUtils.isTimeout(e));
+        } finally {
+            gen.close();
+        }
+
+        return rowCount[0];
+    }
+
+    /**
+     * Create an NDJSON generator: root values are separated by the newLine() calls only.
+     */
+    static JsonGenerator createGenerator(OutputStream out) throws IOException {
+        JsonGenerator gen = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+        gen.setRootValueSeparator(null);
+        return gen;
+    }
+
+    /**
+     * Write the {"type":"columns"} header line and flush it.
+     */
+    static void writeColumns(JsonGenerator gen, List<ColumnInfo> columns, String databaseType) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("type", "columns");
+        gen.writeArrayFieldStart("columns");
+        for (ColumnInfo column : columns) {
+            gen.writeStartObject();
+            gen.writeStringField("name", column.getName());
+            gen.writeStringField("type", column.getType());
+            gen.writeStringField("jdbcType", column.getJdbcType());
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+        gen.writeStringField("databaseType", databaseType);
+        gen.writeEndObject();
+        newLine(gen);
+        gen.flush();
+    }
+
+    /**
+     * Write the remaining rows as positional array lines.
+     * Each row is read completely before any of it is written, so a failure while
+     * reading never leaves a partial row line in the stream.
+     *
+     * @param maxRows Stop after this many rows (0 = all rows)
+     * @param rowCount Single-element counter, updated as rows are written so the
+     *                 caller knows how far it got if reading fails
+     * @return true if rows were left unread because of maxRows
+     */
+    static boolean writeRows(JsonGenerator gen, ResultSet rs, int columnCount, long maxRows, long[] rowCount)
+            throws IOException, SQLException {
+        while (rs.next()) {
+            if (maxRows > 0 && rowCount[0] >= maxRows) {
+                return true;
+            }
+            Object[] row = ResultSetReader.readRow(rs, columnCount);
+            gen.writeStartArray();
+            for (Object value : row) {
+                ResultSetReader.writeJsonValue(gen, value);
+            }
+            gen.writeEndArray();
+            newLine(gen);
+
+            rowCount[0]++;
+            if (rowCount[0] % FLUSH_EVERY_ROWS == 0) {
+                gen.flush();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Write an {"type":"error"} line. Rows are only written once fully read, so every
+     * row line before the error is complete.
+     *
+     * @param index Statement index for script output (null = omitted)
+     * @param timedOut Adds "timedOut": true when the query was stopped by its timeout
+     */
+    static void writeError(JsonGenerator gen, Integer index, String message, boolean timedOut) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("type", "error");
+        if (index != null) {
+            gen.writeNumberField("index", index);
+        }
+        gen.writeStringField("message", message);
+        if (timedOut) {
+            gen.writeBooleanField("timedOut", true);
+        }
+        gen.writeEndObject();
+        newLine(gen);
+    }
+
+    static void newLine(JsonGenerator gen) throws IOException {
+        gen.writeRaw('\n');
+    }
+}
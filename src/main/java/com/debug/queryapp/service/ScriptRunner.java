@@ -0,0 +1,147 @@
+// src/main/java/com/debug/queryapp/service/ScriptRunner.java
+
+package com.debug.queryapp.service;
+
+import com.debug.queryapp.connection.DatabaseConnection;
+import com.debug.queryapp.connection.JdbcUtils;
+import com.debug.queryapp.model.ColumnInfo;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Runs the statements of a script one after another on a single JDBC connection
+ * and streams each statement's outcome as NDJSON, in order.
+ *
+ * Stream layout:
+ * <pre>
+ * {"type":"statement","index":0,"sql":"SELECT id, name FROM users"}
+ * {"type":"columns","columns":[...],"databaseType":"PostgreSQL"}
+ * [1,"alice"]
+ * {"type":"result","index":0,"rowCount":1,"truncated":false,"executionTimeMs":4}
+ * {"type":"statement","index":1,"sql":"UPDATE users SET name = 'bob' WHERE id = 1"}
+ * {"type":"update","index":1,"updateCount":1,"executionTimeMs":2}
+ * {"type":"end","statementCount":2,"succeeded":2,"failed":0,"executionTimeMs":9}
+ * </pre>
+ * A failing statement produces an {"type":"error","index":n} line (with "timedOut": true
+ * if it ran past the timeout, which is also counted in the query metrics); unless the run
+ * continues on errors, the remaining statements are not executed.
+ */
+public class ScriptRunner {
+    private static final Logger LOGGER = Logger.getLogger(ScriptRunner.class.getName());
+
+    private ScriptRunner() {
+    }
+
+    /**
+     * Execute the statements and stream their results.
+     * The connection is NOT closed by this method.
+     *
+     * @param conn Connection all statements run on, in autocommit mode
+     * @param statements Statements split from the script
+     * @param out Destination stream (typically the HTTP response body)
+     * @param connection Connection the script runs on (database type, timeout metrics)
+     * @param maxRowsPerStatement Row cap per result (0 = unlimited)
+     * @param continueOnError Keep going after a failed statement
+     * @param timeoutSeconds Time limit per statement (0 = none)
+     * @param startTime Request start time, used for the executionTimeMs in the trailer
+     * @return Number of statements that succeeded
+     * @throws IOException if the client disconnects or the stream fails
+     */
+    public static int run(Connection conn, List<String> statements, OutputStream out, DatabaseConnection connection,
+                          long maxRowsPerStatement, boolean continueOnError, int timeoutSeconds,
+                          long startTime) throws IOException {
+        JsonGenerator gen = ResultStreamWriter.createGenerator(out);
+        String databaseType = connection.getDatabaseType();
+
+        int succeeded = 0;
+        int failed = 0;
+        try {
+            for (int index = 0; index < statements.size(); index++) {
+                String sql = statements.get(index);
+                long statementStart = System.currentTimeMillis();
+
+                gen.writeStartObject();
+                gen.writeStringField("type", "statement");
+                gen.writeNumberField("index", index);
+                gen.writeStringField("sql", sql);
+                gen.writeEndObject();
+                ResultStreamWriter.newLine(gen);
+                gen.flush();
+
+                try (Statement stmt = conn.createStatement()) {
+                    // One row over the cap tells a truncated result from one that fits exactly
+                    JdbcUtils.applyMaxRows(stmt, (maxRowsPerStatement > 0) ? maxRowsPerStatement + 1 : 0);
+                    JdbcUtils.applyTimeout(stmt, timeoutSeconds);
+                    if (stmt.execute(sql)) {
+                        writeResult(gen, stmt, index, databaseType, maxRowsPerStatement, statementStart);
+                    } else {
+                        gen.writeStartObject();
+                        gen.writeStringField("type", "update");
+                        gen.writeNumberField("index", index);
+                        gen.writeNumberField("updateCount", stmt.getUpdateCount());
+                        gen.writeNumberField("executionTimeMs", System.currentTimeMillis() - statementStart);
+                        gen.writeEndObject();
+                        ResultStreamWriter.newLine(gen);
+                    }
+                    succeeded++;
+                } catch (SQLException e) {
+                    failed++;
+                    LOGGER.warning("Script statement " + index + " failed: " + e.getMessage());
+                    boolean timedOut = JdbcUtils.isTimeout(e);
+                    if (timedOut) {
+                        QueryMetrics.getInstance().recordTimeout(connection);
+                    }
+                    ResultStreamWriter.writeError(gen, index, e.getMessage(), timedOut);
+                    if (!continueOnError) {
+                        break;
+                    }
+                }
+                gen.flush();
+            }
+
+            gen.writeStartObject();
+            gen.writeStringField("type", "end");
+            gen.writeNumberField("statementCount", statements.size());
+            gen.writeNumberField("succeeded", succeeded);
+            gen.writeNumberField("failed", failed);
+            gen.writeNumberField("executionTimeMs", System.currentTimeMillis() - startTime);
+            gen.writeEndObject();
+            ResultStreamWriter.newLine(gen);
+
+        } catch (IOException e) {
+            LOGGER.info("Script stream aborted after " + (succeeded + failed) + " statements: " + e.getMessage());
+            throw e;
+        } finally {
+            gen.close();
+        }
+
+        return succeeded;
+    }
+
+    private static void writeResult(JsonGenerator gen, Statement stmt, int index, String databaseType,
+                                    long maxRows, long statementStart) throws IOException, SQLException {
+        long[] rowCount = {0};
+        boolean truncated;
+        try (ResultSet rs = stmt.getResultSet()) {
+            List<ColumnInfo> columns = ResultSetReader.readColumns(rs.getMetaData());
+            ResultStreamWriter.writeColumns(gen, columns, databaseType);
+            truncated = ResultStreamWriter.writeRows(gen, rs, columns.size(), maxRows, rowCount);
+        }
+
+        gen.writeStartObject();
+        gen.writeStringField("type", "result");
+        gen.writeNumberField("index", index);
+        gen.writeNumberField("rowCount", rowCount[0]);
+        gen.writeBooleanField("truncated", truncated);
+        gen.writeNumberField("executionTimeMs", System.currentTimeMillis() - statementStart);
+        gen.writeEndObject();
+        ResultStreamWriter.newLine(gen);
+    }
+}
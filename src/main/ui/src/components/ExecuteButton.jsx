@@ -1,14 +1,15 @@
 // src/main/ui/src/components/ExecuteButton.jsx
 
 import React from 'react';
-import { Button, Box, CircularProgress } from '@mui/material';
+import { Button, Box, CircularProgress, FormControlLabel, Switch, Tooltip } from '@mui/material';
 import PlayArrowIcon from '@mui/icons-material/PlayArrow';
 import TrendingUpIcon from '@mui/icons-material/TrendingUp';
+import StopIcon from '@mui/icons-material/Stop';
 import { useQuery } from '../hooks/useQuery';
 import { useDatabase } from '../hooks/useDatabase';
 
 export const ExecuteButton = () => {
-    const { currentQueryText, executeQuery, explainQuery, isLoading } = useQuery();
+    const { currentQueryText, executeQuery, explainQuery, cancelQuery, runningJob, isLoading, pagedResults, setPagedResults } = useQuery();
     const { currentConnectionId } = useDatabase();
 
     const handleExecute = async () => {
@@ -55,6 +56,17 @@ export const ExecuteButton = () => {
                 Execute (Ctrl+Enter)
             </Button>
 
+            {runningJob && (
+                <Button
+                    variant="outlined"
+                    color="error"
+                    onClick={cancelQuery}
+                    startIcon={<StopIcon />}
+                >
+                    Cancel ({runningJob.rowsFetched} rows, {(runningJob.elapsedMs / 1000).toFixed(1)}s)
+                </Button>
+            )}
+
             <Button
                 variant="outlined"
                 color="primary"
@@ -64,6 +76,19 @@ export const ExecuteButton = () => {
             >
                 Explain
             </Button>
+
+            <Tooltip title="Keep the cursor open on the server and load rows page by page while scrolling">
+                <FormControlLabel
+                    control={
+                        <Switch
+                            size="small"
+                            checked={pagedResults}
+                            onChange={(e) => setPagedResults(e.target.checked)}
+                        />
+                    }
+                    label="Server paging"
+                />
+            </Tooltip>
         </Box>
     );
 };
@@ -148,7 +148,8 @@ export const QueryLibrary = () => {
                     port: parseInt(conn.port),
                     database: conn.database,
                     username: conn.username,
-                    password: conn.password
+                    password: conn.password,
+                    pool: conn.pool
                 });
             }
         } catch (err) {
@@ -4,6 +4,7 @@ import React, { useMemo, useEffect } from 'react';
 import { AgGridReact } from 'ag-grid-react';
 import { Box, Paper, Typography, CircularProgress, Alert } from '@mui/material';
 import { useQuery } from '../hooks/useQuery';
+import { queryService } from '../services/queryService';
 import 'ag-grid-community/styles/ag-grid.css';
 import 'ag-grid-community/styles/ag-theme-quartz.css';
 
@@ -20,6 +21,11 @@ export const ResultsGrid = () => {
         });
     }, [queryResults, isLoading, error, executionTime]);
 
+    // Compact and paged results carry column metadata objects and rows as positional
+    // arrays; the legacy format carries column names and one object per row.
+    const isPaged = queryResults?.format === 'paged' && !!queryResults.resultHandle;
+    const isCompact = queryResults?.format === 'compact' || queryResults?.format === 'paged';
+
     const columnDefs = useMemo(() => {
         if (!queryResults || !queryResults.columns || queryResults.columns.length === 0) {
             console.log('No columns available');
@@ -28,16 +34,33 @@ export const ResultsGrid = () => {
 
         console.log('Creating column definitions for:', queryResults.columns);
 
-        return queryResults.columns.map(col => ({
-            field: col,
-            headerName: col,
-            sortable: true,
-            filter: true,
+        // A server-side cursor can only be read forward, so the grid
+        // cannot sort or filter rows it has not loaded yet
+        const baseDef = {
+            sortable: !isPaged,
+            filter: !isPaged,
             resizable: true,
             flex: 1,
             minWidth: 100,
+        };
+
+        if (isCompact) {
+            return queryResults.columns.map((col, index) => ({
+                ...baseDef,
+                colId: String(index),
+                headerName: col.name,
+                headerTooltip: col.type,
+                // Rows still loading in the infinite row model have no data yet
+                valueGetter: params => (params.data ? params.data[index] : undefined),
+            }));
+        }
+
+        return queryResults.columns.map(col => ({
+            ...baseDef,
+            field: col,
+            headerName: col,
         }));
-    }, [queryResults]);
+    }, [queryResults, isCompact, isPaged]);
 
     const rowData = useMemo(() => {
         const rows = queryResults?.rows || [];
@@ -45,6 +68,34 @@ export const ResultsGrid = () => {
         return rows;
     }, [queryResults]);
 
+    // Infinite row model datasource for paged results: the first page comes with the
+    // execute response, later pages are pulled from the result handle on demand.
+    const datasource = useMemo(() => {
+        if (!isPaged) {
+            return null;
+        }
+        const { resultHandle, pageSize, rows: firstRows } = queryResults;
+        return {
+            getRows: async (params) => {
+                const page = Math.floor(params.startRow / pageSize);
+                try {
+                    let rows = firstRows;
+                    let hasMore = true;
+                    if (page > 0) {
+                        const result = await queryService.fetchResultPage(resultHandle, page);
+                        rows = result.data.rows;
+                        hasMore = result.data.hasMore;
+                    }
+                    const lastRow = hasMore ? -1 : params.startRow + rows.length;
+                    params.successCallback(rows, lastRow);
+                } catch (err) {
+                    console.error('Error loading result page', page, err);
+                    params.failCallback();
+                }
+            },
+        };
+    }, [queryResults, isPaged]);
+
     return (
         <Box sx={{ height: '100%', display: 'flex', flexDirection: 'column', p: 2 }}>
             <Box sx={{ display: 'flex', justifyContent: 'space-between', mb: 2 }}>
@@ -53,11 +104,18 @@ export const ResultsGrid = () => {
                 </Typography>
                 {executionTime !== null && (
                     <Typography variant="caption" sx={{ color: 'text.secondary' }}>
-                        Executed in {executionTime}ms • {rowData.length} rows
+                        Executed in {executionTime}ms • {rowData.length}{isPaged ? '+' : ''} rows
                     </Typography>
                 )}
             </Box>
 
+            {queryResults?.truncated && (
+                <Alert severity="warning" sx={{ mb: 2 }}>
+                    Result truncated at {queryResults.rowCount} rows
+                    ({queryResults.truncatedBy === 'maxBytes' ? 'byte' : 'row'} limit reached)
+                </Alert>
+            )}
+
             {error && (
                 <Alert severity="error" sx={{ mb: 2 }}>
                     {error}
@@ -97,13 +155,24 @@ export const ResultsGrid = () => {
                     }}
                     className="ag-theme-quartz"
                 >
-                    <AgGridReact
-                        columnDefs={columnDefs}
-                        rowData={rowData}
-                        pagination={true}
-                        paginationPageSize={50}
-                        domLayout="normal"
-                    />
+                    {isPaged ? (
+                        <AgGridReact
+                            columnDefs={columnDefs}
+                            rowModelType="infinite"
+                            datasource={datasource}
+                            cacheBlockSize={queryResults.pageSize}
+                            maxConcurrentDatasourceRequests={1}
+                            domLayout="normal"
+                        />
+                    ) : (
+                        <AgGridReact
+                            columnDefs={columnDefs}
+                            rowData={rowData}
+                            pagination={true}
+                            paginationPageSize={50}
+                            domLayout="normal"
+                        />
+                    )}
                 </Box>
             )}
         </Box>
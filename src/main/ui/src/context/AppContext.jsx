@@ -24,6 +24,8 @@ export const AppProvider = ({ children }) => {
     const [executionTime, setExecutionTime] = useState(null);
     const [isLoading, setIsLoading] = useState(false);
     const [error, setError] = useState(null);
+    const [pagedResults, setPagedResults] = useState(false); // Server-side cursor paging
+    const [runningJob, setRunningJob] = useState(null); // { jobId, rowsFetched, elapsedMs } of the async query in flight
 
     // UI state
     const [showConnectionDialog, setShowConnectionDialog] = useState(false);
@@ -95,6 +97,10 @@ export const AppProvider = ({ children }) => {
         setIsLoading,
         error,
         setErrorState,
+        pagedResults,
+        setPagedResults,
+        runningJob,
+        setRunningJob,
 
         // UI state
         showConnectionDialog,
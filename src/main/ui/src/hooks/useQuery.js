@@ -4,6 +4,10 @@ import { useContext } from 'react';
 import { AppContext } from '../context/AppContext';
 import { queryService } from '../services/queryService';
 
+const JOB_POLL_INTERVAL_MS = 500;
+
+const sleep = (ms) => new Promise((resolve) => setTimeout(resolve, ms));
+
 export const useQuery = () => {
     const context = useContext(AppContext);
 
@@ -16,8 +20,17 @@ export const useQuery = () => {
             context.setIsLoading(true);
             context.setErrorState(null);
 
-            // Call the API
-            const result = await queryService.executeQuery(sql, connectionId);
+            // Release the cursor of a previous paged result before replacing it
+            const previousHandle = context.queryResults?.resultHandle;
+            if (previousHandle) {
+                queryService.closeResult(previousHandle).catch(() => {});
+            }
+
+            // Paged results hold a cursor open and return immediately; everything
+            // else runs as an async job so it can be cancelled while in flight
+            const result = context.pagedResults
+                ? await queryService.executeQuery(sql, connectionId, true)
+                : await runAsJob(sql, connectionId);
 
             console.log('=== useQuery.executeQuery RECEIVED RESULT ===');
             console.log('Full result object:', result);
@@ -64,6 +77,39 @@ export const useQuery = () => {
         }
     };
 
+    const runAsJob = async (sql, connectionId) => {
+        const submitted = await queryService.submitJob(sql, connectionId);
+        const jobId = submitted.jobId;
+        context.setRunningJob({ jobId, rowsFetched: 0, elapsedMs: 0 });
+
+        try {
+            let status = submitted;
+            while (status.state === 'QUEUED' || status.state === 'RUNNING') {
+                await sleep(JOB_POLL_INTERVAL_MS);
+                status = await queryService.getJob(jobId);
+                context.setRunningJob({ jobId, rowsFetched: status.rowsFetched, elapsedMs: status.elapsedMs });
+            }
+
+            if (status.state === 'COMPLETED') {
+                return await queryService.getJobResult(jobId);
+            }
+            return {
+                success: false,
+                message: status.state === 'CANCELLED' ? 'Query cancelled' : status.error,
+            };
+        } finally {
+            context.setRunningJob(null);
+            queryService.deleteJob(jobId).catch(() => {});
+        }
+    };
+
+    const cancelQuery = async () => {
+        const jobId = context.runningJob?.jobId;
+        if (jobId) {
+            await queryService.cancelJob(jobId);
+        }
+    };
+
     const explainQuery = async (sql, connectionId = null) => {
         try {
             console.log('=== useQuery.explainQuery START ===');
@@ -100,6 +146,7 @@ export const useQuery = () => {
     return {
         ...context,
         executeQuery,  // Override context.executeQuery with our wrapper
+        cancelQuery,
         explainQuery,
     };
 };
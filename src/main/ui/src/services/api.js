@@ -14,6 +14,22 @@ const api = axios.create({
     timeout: 30000,
 });
 
+// One session per browser tab: the backend keeps the current connection and
+// the concurrent-query quota per session
+const SESSION_KEY = 'queryapp.sessionId';
+let sessionId = sessionStorage.getItem(SESSION_KEY);
+if (!sessionId) {
+    sessionId = (window.crypto && window.crypto.randomUUID)
+        ? window.crypto.randomUUID()
+        : Date.now().toString(36) + Math.random().toString(36).slice(2);
+    sessionStorage.setItem(SESSION_KEY, sessionId);
+}
+
+api.interceptors.request.use(config => {
+    config.headers['X-Session-Id'] = sessionId;
+    return config;
+});
+
 api.interceptors.response.use(
     response => response,
     error => {
@@ -17,6 +17,7 @@ export const databaseService = {
             database: connectionConfig.database,
             username: connectionConfig.username,
             password: connectionConfig.password,
+            pool: connectionConfig.pool, // optional HikariCP overrides from the saved connection
         });
         return response.data;
     },
@@ -7,14 +7,20 @@ import api from './api';
  */
 export const queryService = {
     /**
-     * Execute a SELECT query without modification
+     * Execute a SELECT query without modification.
+     * Results are requested in the compact format: column metadata once,
+     * rows as typed positional arrays.
+     * With paged=true only the first page is returned and the rest stays
+     * on the server under data.resultHandle (see fetchResultPage).
      */
-    executeQuery: async (sql, connectionId = null) => {
-        console.log('queryService.executeQuery called with:', { sql, connectionId });
+    executeQuery: async (sql, connectionId = null, paged = false) => {
+        console.log('queryService.executeQuery called with:', { sql, connectionId, paged });
 
         const requestBody = {
             sql,
             connectionId,
+            format: 'compact',
+            paged,
         };
 
         console.log('Request body:', requestBody);
@@ -34,6 +40,67 @@ export const queryService = {
         return response.data;
     },
 
+    /**
+     * Read one page of a paged result from its server-side cursor
+     */
+    fetchResultPage: async (resultHandle, page) => {
+        const response = await api.get(`/query/results/${resultHandle}`, {
+            params: { page },
+        });
+        return response.data;
+    },
+
+    /**
+     * Release a paged result's server-side cursor
+     */
+    closeResult: async (resultHandle) => {
+        const response = await api.delete(`/query/results/${resultHandle}`);
+        return response.data;
+    },
+
+    /**
+     * Submit a SELECT query as an asynchronous job; returns { jobId, state }
+     */
+    submitJob: async (sql, connectionId = null) => {
+        const response = await api.post('/query/jobs', {
+            sql,
+            connectionId,
+        });
+        return response.data;
+    },
+
+    /**
+     * Poll a job's state, rows fetched so far and elapsed time
+     */
+    getJob: async (jobId) => {
+        const response = await api.get(`/query/jobs/${jobId}`);
+        return response.data;
+    },
+
+    /**
+     * Fetch the compact result of a completed job
+     */
+    getJobResult: async (jobId) => {
+        const response = await api.get(`/query/jobs/${jobId}/result`);
+        return response.data;
+    },
+
+    /**
+     * Cancel a running job on the database server
+     */
+    cancelJob: async (jobId) => {
+        const response = await api.post(`/query/jobs/${jobId}/cancel`);
+        return response.data;
+    },
+
+    /**
+     * Discard a finished job and its result on the server
+     */
+    deleteJob: async (jobId) => {
+        const response = await api.delete(`/query/jobs/${jobId}`);
+        return response.data;
+    },
+
     /**
      * Execute an INSERT/UPDATE/DELETE statement
      */
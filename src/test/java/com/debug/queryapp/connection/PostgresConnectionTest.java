@@ -0,0 +1,93 @@
+// src/test/java/com/debug/queryapp/connection/PostgresConnectionTest.java
+
+package com.debug.queryapp.connection;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.core.BaseConnection;
+import org.postgresql.core.TransactionState;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostgresConnectionTest {
+    // Lazy, so no pool is started and nothing connects
+    private final PostgresConnection postgres = new PostgresConnection("localhost", 5432, "test",
+            "user", "secret", PoolSettings.fromMap(Map.of("lazy", true)));
+
+    private final List<String> calls = new ArrayList<>();
+    private final List<String> executed = new ArrayList<>();
+
+    @AfterEach
+    void close() throws Exception {
+        postgres.close();
+    }
+
+    @Test
+    void rollsBackAScriptThatEndsInsideAnOpenTransaction() {
+        // "BEGIN; UPDATE t SET x = 1" leaves autocommit on with the transaction still open
+        postgres.resetSession(session(true, TransactionState.OPEN, null));
+
+        assertEquals(2, executed.size());
+        assertEquals("ROLLBACK", executed.get(0));
+        assertTrue(executed.get(1).startsWith("CLOSE ALL;"));
+        assertFalse(calls.contains("rollback"));
+        assertFalse(calls.contains("abort"));
+    }
+
+    @Test
+    void endsTheDriverTransactionAndRestoresAutocommit() {
+        postgres.resetSession(session(false, TransactionState.OPEN, null));
+
+        assertTrue(calls.contains("rollback"));
+        assertTrue(calls.contains("setAutoCommit"));
+        assertEquals(1, executed.size());
+        assertTrue(executed.get(0).startsWith("CLOSE ALL;"));
+    }
+
+    @Test
+    void evictsASessionThatCannotBeReset() {
+        postgres.resetSession(session(true, TransactionState.FAILED, "ROLLBACK"));
+
+        assertEquals(List.of("ROLLBACK"), executed);
+        assertTrue(calls.contains("abort"));
+    }
+
+    // Connection that records its calls and executed SQL; rollback() fails in autocommit like pgJDBC's
+    private Connection session(boolean autoCommit, TransactionState state, String failingSql) {
+        Statement statement = (Statement) Proxy.newProxyInstance(
+                PostgresConnectionTest.class.getClassLoader(), new Class<?>[]{Statement.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("execute")) {
+                        executed.add((String) args[0]);
+                        if (args[0].equals(failingSql)) {
+                            throw new SQLException("An I/O error occurred while sending to the backend.");
+                        }
+                        return false;
+                    }
+                    return null;
+                });
+        return (Connection) Proxy.newProxyInstance(
+                PostgresConnectionTest.class.getClassLoader(), new Class<?>[]{BaseConnection.class},
+                (proxy, method, args) -> {
+                    calls.add(method.getName());
+                    if (method.getName().equals("rollback") && autoCommit) {
+                        throw new SQLException("Cannot rollback when autoCommit is enabled.");
+                    }
+                    return switch (method.getName()) {
+                        case "getAutoCommit" -> autoCommit;
+                        case "getTransactionState" -> state;
+                        case "unwrap" -> proxy;
+                        case "createStatement" -> statement;
+                        default -> null;
+                    };
+                });
+    }
+}
@@ -0,0 +1,90 @@
+// src/test/java/com/debug/queryapp/connection/QueryParameterTest.java
+
+package com.debug.queryapp.connection;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryParameterTest {
+
+    @Test
+    void bindsEachTypeWithItsSetter() {
+        assertEquals(List.of("setInt", 1, 42), bind("int", "42"));
+        assertEquals(List.of("setInt", 1, 7), bind("integer", 7));
+        assertEquals(List.of("setLong", 1, 9007199254740993L), bind("bigint", "9007199254740993"));
+        assertEquals(List.of("setDouble", 1, 2.5), bind("float8", "2.5"));
+        assertEquals(List.of("setBigDecimal", 1, new BigDecimal("123.4500")), bind("numeric", "123.4500"));
+        assertEquals(List.of("setBoolean", 1, true), bind("bool", "1"));
+        assertEquals(List.of("setBoolean", 1, false), bind("boolean", false));
+        assertEquals(List.of("setDate", 1, Date.valueOf("2024-01-31")), bind("date", "2024-01-31"));
+        assertEquals(List.of("setTime", 1, Time.valueOf("12:30:00")), bind("time", "12:30:00"));
+        assertEquals(List.of("setString", 1, " as is "), bind("text", " as is "));
+        assertEquals(List.of("setString", 1, "x"), bind(null, "x"));
+
+        UUID id = UUID.randomUUID();
+        assertEquals(List.of("setObject", 1, id), bind("uuid", id.toString()));
+    }
+
+    @Test
+    void parsesLocalAndOffsetTimestamps() {
+        assertEquals(List.of("setTimestamp", 1, Timestamp.valueOf("2024-01-31 08:15:00")),
+                bind("timestamp", "2024-01-31 08:15:00"));
+        assertEquals(List.of("setTimestamp", 1, Timestamp.from(Instant.parse("2024-01-31T06:15:00Z"))),
+                bind("timestamptz", "2024-01-31T08:15:00+02:00"));
+    }
+
+    @Test
+    void bindsNullWithTheDeclaredSqlType() {
+        assertEquals(List.of("setNull", 1, Types.BIGINT), bind("long", null));
+        assertEquals(List.of("setNull", 1, Types.OTHER), bind("uuid", null));
+        assertEquals(List.of("setNull", 1, Types.VARCHAR), bind("string", null));
+    }
+
+    @Test
+    void rejectsUnknownTypesAndBadValues() {
+        IllegalArgumentException unknown = assertThrows(IllegalArgumentException.class,
+                () -> bind("money", "1"));
+        assertTrue(unknown.getMessage().contains("money"));
+
+        assertThrows(IllegalArgumentException.class, () -> bind("int", "forty-two"));
+        assertThrows(IllegalArgumentException.class, () -> bind("integer", 7.9));
+        assertThrows(IllegalArgumentException.class, () -> bind("int", 3_000_000_000L));
+        assertThrows(IllegalArgumentException.class, () -> bind("bigint", "1.5"));
+        assertThrows(IllegalArgumentException.class, () -> bind("bigint", 1e19));
+        assertThrows(IllegalArgumentException.class, () -> bind("boolean", "yes"));
+        assertThrows(IllegalArgumentException.class, () -> bind("date", "31/01/2024"));
+        assertThrows(IllegalArgumentException.class, () -> bind("uuid", "not-a-uuid"));
+    }
+
+    // Binds into a PreparedStatement that records the setter call: name, index, value
+    private static List<Object> bind(String type, Object value) {
+        List<Object> call = new ArrayList<>();
+        PreparedStatement stmt = (PreparedStatement) Proxy.newProxyInstance(
+                QueryParameterTest.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    call.add(method.getName());
+                    call.addAll(List.of(args));
+                    return null;
+                });
+        try {
+            new QueryParameter(type, value).bind(stmt, 1);
+        } catch (SQLException e) {
+            throw new AssertionError(e);
+        }
+        return call;
+    }
+}
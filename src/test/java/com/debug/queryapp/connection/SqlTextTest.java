@@ -0,0 +1,85 @@
+// src/test/java/com/debug/queryapp/connection/SqlTextTest.java
+
+package com.debug.queryapp.connection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.debug.queryapp.connection.ConnectionFactory.DatabaseType.CLICKHOUSE;
+import static com.debug.queryapp.connection.ConnectionFactory.DatabaseType.POSTGRESQL;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlTextTest {
+
+    @Test
+    void replacesDeclaredPlaceholdersInOrder() {
+        SqlText.NamedSql named = SqlText.toPositional(
+                "SELECT * FROM t WHERE a = :a AND b > :b OR a2 = :a", POSTGRESQL, Set.of("a", "b"));
+
+        assertEquals("SELECT * FROM t WHERE a = ? AND b > ? OR a2 = ?", named.getSql());
+        assertEquals(List.of("a", "b", "a"), named.getParameterNames());
+    }
+
+    @Test
+    void leavesCastsAndUndeclaredNamesAlone() {
+        SqlText.NamedSql named = SqlText.toPositional(
+                "SELECT :id::bigint, :other", POSTGRESQL, Set.of("id"));
+
+        assertEquals("SELECT ?::bigint, :other", named.getSql());
+        assertEquals(List.of("id"), named.getParameterNames());
+    }
+
+    @Test
+    void ignoresPlaceholdersInLiteralsIdentifiersAndComments() {
+        String sql = "SELECT ':id', \":id\", E'\\':id', $$ :id $$, $fn$ :id $fn$ -- :id\n"
+                + "/* :id /* :id */ :id */ FROM t WHERE x = :id";
+        SqlText.NamedSql named = SqlText.toPositional(sql, POSTGRESQL, Set.of("id"));
+
+        assertEquals(sql.substring(0, sql.length() - 3) + "?", named.getSql());
+        assertEquals(List.of("id"), named.getParameterNames());
+    }
+
+    @Test
+    void appliesClickHouseQuotingRules() {
+        String sql = "SELECT 'it\\'s :id', `:id` # :id\nFROM t WHERE x = :id";
+        SqlText.NamedSql named = SqlText.toPositional(sql, CLICKHOUSE, Set.of("id"));
+
+        assertEquals(sql.substring(0, sql.length() - 3) + "?", named.getSql());
+        assertEquals(List.of("id"), named.getParameterNames());
+    }
+
+    @Test
+    void splitsAtTopLevelSemicolons() {
+        List<String> statements = SqlText.split(" SELECT 1;\nSELECT 2 ;; SELECT 3", POSTGRESQL);
+
+        assertEquals(List.of("SELECT 1", "SELECT 2", "SELECT 3"), statements);
+    }
+
+    @Test
+    void keepsSemicolonsInsideLiteralsAndDollarQuotes() {
+        String function = "CREATE FUNCTION f() RETURNS int AS $body$ BEGIN RETURN 1; END; $body$ LANGUAGE plpgsql";
+        String literal = "SELECT 'a;b', \"c;d\", E'\\';'";
+        List<String> statements = SqlText.split(function + ";\n" + literal + ";\nDO $$ BEGIN NULL; END $$",
+                POSTGRESQL);
+
+        assertEquals(List.of(function, literal, "DO $$ BEGIN NULL; END $$"), statements);
+    }
+
+    @Test
+    void dropsCommentOnlyChunks() {
+        List<String> statements = SqlText.split(
+                "-- header; still a comment\nSELECT 1; /* a; /* nested; */ b */ ; -- trailing", POSTGRESQL);
+
+        assertEquals(List.of("-- header; still a comment\nSELECT 1"), statements);
+    }
+
+    @Test
+    void splitsClickHouseScripts() {
+        List<String> statements = SqlText.split(
+                "SELECT 'it\\'s; fine' # note; here\n; SELECT `a;b` FROM t", CLICKHOUSE);
+
+        assertEquals(List.of("SELECT 'it\\'s; fine' # note; here", "SELECT `a;b` FROM t"), statements);
+    }
+}
@@ -0,0 +1,81 @@
+// src/test/java/com/debug/queryapp/service/DelimitedExportWriterTest.java
+
+package com.debug.queryapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DelimitedExportWriterTest {
+
+    @Test
+    void writesCsvLikePostgresCopy() {
+        String csv = export(ExportFormat.CSV, true, List.of("a", "b", "c"),
+                new Object[]{"plain", "", null},
+                new Object[]{"x,y", "say \"hi\"", "line\nbreak"});
+
+        assertEquals("a,b,c\n"
+                + "plain,\"\",\n"
+                + "\"x,y\",\"say \"\"hi\"\"\",\"line\nbreak\"\n", csv);
+    }
+
+    @Test
+    void writesTsvWithEscapesAndNullMarker() {
+        String tsv = export(ExportFormat.TSV, false, List.of("a", "b", "c"),
+                new Object[]{"tab\there", "", null},
+                new Object[]{"back\\slash", "cr\rlf\n", "x"});
+
+        assertEquals("tab\\there\t\t\\N\n"
+                + "back\\\\slash\tcr\\rlf\\n\tx\n", tsv);
+    }
+
+    @Test
+    void formatsValuesLikeJsonResults() {
+        String csv = export(ExportFormat.CSV, false, List.of("n", "d", "big", "arr", "map", "bin"),
+                new Object[]{42, new BigDecimal("1E+3"), 9007199254740993L,
+                        new int[]{1, 2}, Map.of("k", 1), new byte[]{(byte) 0xca, (byte) 0xfe}});
+
+        assertEquals("42,1000,9007199254740993,\"[1,2]\",\"{\"\"k\"\":1}\",\\xcafe\n", csv);
+    }
+
+    private static String export(ExportFormat format, boolean header, List<String> columns, Object[]... rows) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            long[] rowCount = {0};
+            DelimitedExportWriter.write(resultSet(columns, rows), out, format, header, rowCount);
+            assertEquals(rows.length, rowCount[0]);
+            return out.toString(StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    // Forward-only ResultSet over in-memory rows; only what the writer calls is implemented
+    private static ResultSet resultSet(List<String> columns, Object[][] rows) {
+        ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(
+                DelimitedExportWriterTest.class.getClassLoader(), new Class<?>[]{ResultSetMetaData.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getColumnCount" -> columns.size();
+                    case "getColumnLabel", "getColumnName" -> columns.get((Integer) args[0] - 1);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        int[] position = {-1};
+        return (ResultSet) Proxy.newProxyInstance(
+                DelimitedExportWriterTest.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getMetaData" -> metaData;
+                    case "next" -> ++position[0] < rows.length;
+                    case "getObject" -> rows[position[0]][(Integer) args[0] - 1];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
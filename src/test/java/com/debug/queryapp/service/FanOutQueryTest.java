@@ -0,0 +1,99 @@
+// src/test/java/com/debug/queryapp/service/FanOutQueryTest.java
+
+package com.debug.queryapp.service;
+
+import com.debug.queryapp.model.ColumnInfo;
+import com.debug.queryapp.model.CompactResultSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FanOutQueryTest {
+    private final FanOutQuery fanOut = new FanOutQuery(null, "SELECT id FROM t", null, 2, 0, 0, 0);
+
+    @Test
+    void tagsRowsWithTheirSourceInTargetOrder() {
+        List<FanOutQuery.Target> targets = List.of(target("a", "id", 1L, 2L), target("b", "id", 3L));
+
+        CompactResultSet merged = FanOutQuery.merge(targets, new ResultLimiter(0, 0));
+
+        assertEquals(List.of(FanOutQuery.SOURCE_COLUMN, "id"),
+                merged.getColumns().stream().map(ColumnInfo::getName).toList());
+        assertEquals(3, merged.getRowCount());
+        assertArrayEquals(new Object[]{"a", 1L}, merged.getRows().get(0));
+        assertArrayEquals(new Object[]{"b", 3L}, merged.getRows().get(2));
+        assertFalse(merged.isTruncated());
+    }
+
+    @Test
+    void rejectsTargetsWithDifferentColumns() {
+        FanOutQuery.Target other = target("b", "name", 3L);
+        List<FanOutQuery.Target> targets = List.of(target("a", "id", 1L), other);
+
+        CompactResultSet merged = FanOutQuery.merge(targets, new ResultLimiter(0, 0));
+
+        assertEquals(1, merged.getRowCount());
+        assertEquals(FanOutQuery.Status.FAILED, other.getStatus());
+        assertNotNull(other.getError());
+    }
+
+    @Test
+    void capsTheMergedRowsAndReportsCutTargets() {
+        FanOutQuery.Target first = target("a", "id", 1L, 2L);
+        FanOutQuery.Target second = target("b", "id", 3L, 4L);
+        FanOutQuery.Target third = target("c", "id", 5L);
+
+        CompactResultSet merged = FanOutQuery.merge(List.of(first, second, third), new ResultLimiter(3, 0));
+
+        assertEquals(3, merged.getRowCount());
+        assertEquals(ResultLimiter.BY_ROWS, merged.getTruncatedBy());
+
+        Map<String, Object> whole = first.toStatus();
+        assertEquals(2L, whole.get("mergedRowCount"));
+        assertEquals(false, whole.get("truncated"));
+
+        Map<String, Object> cut = second.toStatus();
+        assertEquals(1L, cut.get("mergedRowCount"));
+        assertEquals(ResultLimiter.BY_ROWS, cut.get("truncatedBy"));
+
+        assertEquals(0L, third.toStatus().get("mergedRowCount"));
+    }
+
+    @Test
+    void capsTheMergedBytes() {
+        // ["a",1] is estimated at 8 bytes
+        CompactResultSet merged = FanOutQuery.merge(List.of(target("a", "id", 1L, 2L, 3L)),
+                new ResultLimiter(0, 20));
+
+        assertEquals(2, merged.getRowCount());
+        assertEquals(16, merged.getByteCount());
+        assertEquals(ResultLimiter.BY_BYTES, merged.getTruncatedBy());
+    }
+
+    @Test
+    void keepsPerTargetTruncation() {
+        FanOutQuery.Target capped = fanOut.new Target("a");
+        capped.succeed(new CompactResultSet(List.of(new ColumnInfo("id", "int8", "BIGINT")),
+                new ArrayList<>(List.<Object[]>of(new Object[]{1L})), 1, ResultLimiter.BY_ROWS, 1));
+
+        CompactResultSet merged = FanOutQuery.merge(List.of(capped), new ResultLimiter(0, 0));
+
+        assertEquals(ResultLimiter.BY_ROWS, merged.getTruncatedBy());
+        assertEquals(ResultLimiter.BY_ROWS, capped.toStatus().get("truncatedBy"));
+    }
+
+    private FanOutQuery.Target target(String connectionId, String column, Long... values) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Long value : values) {
+            rows.add(new Object[]{value});
+        }
+        FanOutQuery.Target target = fanOut.new Target(connectionId);
+        target.succeed(new CompactResultSet(List.of(new ColumnInfo(column, "int8", "BIGINT")),
+                rows, rows.size(), null, 0));
+        return target;
+    }
+}
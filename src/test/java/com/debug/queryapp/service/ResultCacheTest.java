@@ -0,0 +1,108 @@
+// src/test/java/com/debug/queryapp/service/ResultCacheTest.java
+
+package com.debug.queryapp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultCacheTest {
+    // Entry weight is the result size plus 96 + 2 bytes per key char; single-char keys add 98
+    private static final long ENTRY_OVERHEAD = 98;
+
+    private SimpleMeterRegistry registry;
+    private ResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        cache = new ResultCache(registry);
+        cache.setMaxBytes(2 * (400 + ENTRY_OVERHEAD));
+    }
+
+    @Test
+    void returnsStoredValueUntilCleared() {
+        cache.put("a", "result-a", 400, 60_000);
+
+        assertEquals("result-a", cache.get("a"));
+        assertNull(cache.get("b"));
+
+        cache.clear();
+        assertNull(cache.get("a"));
+        assertEquals(0L, cache.getStats().get("sizeBytes"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntryWhenBudgetIsExceeded() {
+        cache.put("a", "result-a", 400, 60_000);
+        cache.put("b", "result-b", 400, 60_000);
+        // Touch "a" so "b" becomes the eldest entry
+        assertNotNull(cache.get("a"));
+
+        cache.put("c", "result-c", 400, 60_000);
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(1L, cache.getStats().get("evictions"));
+        assertEquals(2 * (400 + ENTRY_OVERHEAD), cache.getStats().get("sizeBytes"));
+    }
+
+    @Test
+    void doesNotCacheResultLargerThanBudget() {
+        cache.put("a", "result-a", 400, 60_000);
+        cache.put("big", "huge", 10_000, 60_000);
+
+        assertNull(cache.get("big"));
+        assertNotNull(cache.get("a"));
+    }
+
+    @Test
+    void replacingAnEntryReleasesItsPreviousWeight() {
+        cache.put("a", "old", 400, 60_000);
+        cache.put("a", "new", 100, 60_000);
+
+        assertEquals("new", cache.get("a"));
+        assertEquals(100 + ENTRY_OVERHEAD, cache.getStats().get("sizeBytes"));
+    }
+
+    @Test
+    void shrinkingTheBudgetEvictsEntries() {
+        cache.put("a", "result-a", 400, 60_000);
+        cache.put("b", "result-b", 400, 60_000);
+
+        cache.setMaxBytes(400 + ENTRY_OVERHEAD);
+
+        assertNull(cache.get("a"));
+        assertNotNull(cache.get("b"));
+    }
+
+    @Test
+    void expiredEntryIsAMiss() throws InterruptedException {
+        cache.put("a", "result-a", 400, 1);
+        Thread.sleep(10);
+
+        assertNull(cache.get("a"));
+        assertEquals(1L, cache.getStats().get("expirations"));
+        assertEquals(0L, cache.getStats().get("sizeBytes"));
+    }
+
+    @Test
+    void publishesCountersToTheRegistry() {
+        cache.put("a", "result-a", 400, 60_000);
+        cache.get("a");
+        cache.get("a");
+        cache.get("missing");
+        cache.put("b", "result-b", 400, 60_000);
+        cache.put("c", "result-c", 400, 60_000);
+
+        assertEquals(2.0, registry.get("queryapp.cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("queryapp.cache.gets").tag("result", "miss").functionCounter().count());
+        assertEquals(3.0, registry.get("queryapp.cache.puts").functionCounter().count());
+        assertEquals(1.0, registry.get("queryapp.cache.evictions").tag("cause", "size").functionCounter().count());
+        assertEquals(2.0, registry.get("queryapp.cache.size").gauge().value());
+        assertEquals(2.0 * (400 + ENTRY_OVERHEAD), registry.get("queryapp.cache.bytes").gauge().value());
+    }
+}
@@ -0,0 +1,90 @@
+// src/test/java/com/debug/queryapp/service/ResultLimiterTest.java
+
+package com.debug.queryapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultLimiterTest {
+
+    @Test
+    void requestsMayLowerButNotRaiseTheGlobalCaps() {
+        ResultLimiter lowered = ResultLimiter.of(10L, 500L, 100, 1000);
+        assertEquals(10, lowered.getMaxRows());
+        assertEquals(500, lowered.getMaxBytes());
+
+        ResultLimiter raised = ResultLimiter.of(1000L, 5000L, 100, 1000);
+        assertEquals(100, raised.getMaxRows());
+        assertEquals(1000, raised.getMaxBytes());
+
+        ResultLimiter defaults = ResultLimiter.of(null, 0L, 100, 1000);
+        assertEquals(100, defaults.getMaxRows());
+        assertEquals(1000, defaults.getMaxBytes());
+
+        ResultLimiter unlimitedGlobal = ResultLimiter.of(10L, null, 0, 0);
+        assertEquals(10, unlimitedGlobal.getMaxRows());
+        assertEquals(0, unlimitedGlobal.getMaxBytes());
+    }
+
+    @Test
+    void asksTheDriverForOneRowMoreThanTheCap() {
+        assertEquals(11, new ResultLimiter(10, 0).getDriverMaxRows());
+        assertEquals(0, new ResultLimiter(0, 0).getDriverMaxRows());
+    }
+
+    @Test
+    void stopsAtTheRowCap() {
+        ResultLimiter limiter = new ResultLimiter(2, 0);
+        int read = 0;
+        while (limiter.canReadRow() && limiter.accept(new Object[]{1L})) {
+            read++;
+        }
+
+        assertEquals(2, read);
+        assertTrue(limiter.isTruncated());
+        assertEquals(ResultLimiter.BY_ROWS, limiter.getTruncatedBy());
+        assertFalse(limiter.canReadRow());
+    }
+
+    @Test
+    void dropsTheRowThatWouldExceedTheByteCap() {
+        // ["abc",1] is estimated at 2 + (5 + 1) + (1 + 1) = 10 bytes
+        ResultLimiter limiter = new ResultLimiter(0, 25);
+
+        assertTrue(limiter.accept(new Object[]{"abc", 1L}));
+        assertTrue(limiter.accept(new Object[]{"abc", 1L}));
+        assertFalse(limiter.accept(new Object[]{"abc", 1L}));
+
+        assertEquals(2, limiter.getRowCount());
+        assertEquals(20, limiter.getByteCount());
+        assertEquals(ResultLimiter.BY_BYTES, limiter.getTruncatedBy());
+        assertFalse(limiter.canReadRow());
+    }
+
+    @Test
+    void countsMapRowsByKeysAndValues() {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", "7");
+        row.put("name", null);
+        ResultLimiter limiter = new ResultLimiter(0, 0);
+
+        assertTrue(limiter.accept(row));
+        // { "id":"7", "name":null } = 2 + (2 + 4 + 3) + (4 + 4 + 4)
+        assertEquals(23, limiter.getByteCount());
+        assertFalse(limiter.isTruncated());
+    }
+
+    @Test
+    void estimatesNestedValues() {
+        assertEquals(4, ResultLimiter.estimateJsonSize(null));
+        assertEquals(6, ResultLimiter.estimateJsonSize(List.of(1L, 2L)));
+        assertEquals(11, ResultLimiter.estimateJsonSize(Map.of("k", List.of(1L))));
+        assertTrue(ResultLimiter.estimateHeapSize("abcd") > ResultLimiter.estimateHeapSize("a"));
+        assertEquals(0, ResultLimiter.estimateHeapSize(Boolean.TRUE));
+    }
+}
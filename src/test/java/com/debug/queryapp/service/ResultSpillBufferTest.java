@@ -0,0 +1,80 @@
+// src/test/java/com/debug/queryapp/service/ResultSpillBufferTest.java
+
+package com.debug.queryapp.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultSpillBufferTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void keepsSmallResultsInMemory() throws Exception {
+        try (ResultSpillBuffer buffer = new ResultSpillBuffer(2, 1_000_000, 0, directory)) {
+            for (long i = 0; i < 5; i++) {
+                assertTrue(buffer.add(new Object[]{i, "row " + i}));
+            }
+
+            assertFalse(buffer.isSpilled());
+            assertRows(List.<Object[]>of(new Object[]{4L, "row 4"}), buffer.readPage(2));
+            assertTrue(buffer.readPage(3).isEmpty());
+        }
+    }
+
+    @Test
+    void readsEveryPageBackAfterSpilling() throws Exception {
+        List<Object[]> written = new ArrayList<>();
+        try (ResultSpillBuffer buffer = new ResultSpillBuffer(3, 100, 0, directory)) {
+            for (int i = 0; i < 10; i++) {
+                Object[] row = {(long) i, "näme " + i, (i % 2 == 0) ? null : Boolean.TRUE, 1.5 * i,
+                        new BigDecimal("12345678901234567890." + i), List.of(1L, List.of("x")),
+                        Map.of("k", (long) i)};
+                written.add(row);
+                assertTrue(buffer.add(row));
+            }
+            assertTrue(buffer.isSpilled());
+            assertTrue(buffer.getFileBytes() > 0);
+
+            // Out of order, and again, like a client paging back and forth
+            for (int page : new int[]{3, 0, 2, 1, 0}) {
+                int from = page * 3;
+                assertRows(written.subList(from, Math.min(from + 3, 10)), buffer.readPage(page));
+            }
+        }
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void stopsKeepingRowsAtTheFileCap() throws Exception {
+        try (ResultSpillBuffer buffer = new ResultSpillBuffer(2, 10, 50, directory)) {
+            int kept = 0;
+            while (buffer.add(new Object[]{(long) kept, "value"})) {
+                kept++;
+            }
+
+            assertTrue(buffer.isFull());
+            assertEquals(kept, buffer.getRowCount());
+            assertRows(List.<Object[]>of(new Object[]{0L, "value"}, new Object[]{1L, "value"}), buffer.readPage(0));
+        }
+    }
+
+    private static void assertRows(List<Object[]> expected, List<Object[]> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(Arrays.asList(expected.get(i)), Arrays.asList(actual.get(i)), "row " + i);
+        }
+    }
+}